@@ -3,9 +3,11 @@ package com.convene.api;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaAuditing // Active la gestion automatique des dates (createdAt, updatedAt)
+@EnableScheduling // Tâches de fond (synchronisation du stock de places)
 public class ConveneApiApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,56 @@
+package com.convene.api.config;
+
+import com.convene.api.models.Registration;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class JpaConfig {
+
+    /**
+     * Active les inserts JDBC par lots (inscriptions de groupe).
+     */
+    @Bean
+    public HibernatePropertiesCustomizer batchingCustomizer() {
+        return properties -> {
+            properties.put("hibernate.jdbc.batch_size", Registration.ID_ALLOCATION_SIZE);
+            properties.put("hibernate.order_inserts", true);
+            properties.put("hibernate.order_updates", true);
+        };
+    }
+
+    /**
+     * Sans cette option, le driver MySQL envoie quand même les lignes une par une.
+     */
+    @Bean
+    public static BeanPostProcessor rewriteBatchedStatements() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    dataSource.addDataSourceProperty("rewriteBatchedStatements", "true");
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Les ids existants viennent de l'ancien AUTO_INCREMENT : la séquence doit repartir au-delà.
+     * Après l'EntityManagerFactory, dont la mise à jour du schéma crée la table registrations_seq.
+     */
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public InitializingBean registrationSequenceAlignment(JdbcTemplate jdbcTemplate) {
+        return () -> jdbcTemplate.update("""
+            UPDATE registrations_seq
+            SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + ? FROM registrations))
+        """, Registration.ID_ALLOCATION_SIZE + 1);
+    }
+}
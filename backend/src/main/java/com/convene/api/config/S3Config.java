@@ -4,10 +4,17 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3BaseClientBuilder;
 import software.amazon.awssdk.services.s3.S3Client;
 
+import java.net.URI;
+
 @Configuration
 public class S3Config {
 
@@ -20,23 +27,40 @@ public class S3Config {
     @Value("${aws.s3.region:us-east-1}")
     private String region;
 
+    // S3-compatible endpoint (MinIO, LocalStack...), empty for AWS
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
     @Bean
     public S3Client s3Client() {
+        return configure(S3Client.builder()).build();
+    }
+
+    // Non-blocking client used for streaming uploads: parts are sent while the request body is still being read
+    @Bean
+    public S3AsyncClient s3AsyncClient() {
+        return configure(S3AsyncClient.builder()).build();
+    }
+
+    // Also signs the upload URLs handed to the browser, which then sends images straight to S3
+    @Bean
+    public AwsCredentialsProvider s3CredentialsProvider() {
         if (accessKey != null && !accessKey.isEmpty() && secretKey != null && !secretKey.isEmpty()) {
             // Use provided credentials
-            AwsBasicCredentials awsCredentials = AwsBasicCredentials.create(accessKey, secretKey);
-            return S3Client.builder()
-                    .region(Region.of(region))
-                    .credentialsProvider(StaticCredentialsProvider.create(awsCredentials))
-                    .forcePathStyle(false) // Use virtual-hosted style
-                    .build();
+            return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
         }
-        
-        // Try to use default credentials provider (IAM role, environment variables, etc.)
-        return S3Client.builder()
-                .region(Region.of(region))
-                .forcePathStyle(false)
-                .build();
+        // Otherwise use default credentials provider (IAM role, environment variables, etc.)
+        return DefaultCredentialsProvider.create();
     }
-}
 
+    private <B extends S3BaseClientBuilder<B, ?> & AwsClientBuilder<B, ?>> B configure(B builder) {
+        builder.region(Region.of(region))
+                .forcePathStyle(false); // Use virtual-hosted style
+        builder.credentialsProvider(s3CredentialsProvider());
+        if (endpoint != null && !endpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(endpoint))
+                    .forcePathStyle(true);
+        }
+        return builder;
+    }
+}
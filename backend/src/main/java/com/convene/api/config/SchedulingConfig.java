@@ -0,0 +1,22 @@
+package com.convene.api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+public class SchedulingConfig {
+
+    /**
+     * Plusieurs threads pour les tâches @Scheduled : par défaut Spring n'en a qu'un, et une tâche lente
+     * (outbox, balayage des images...) retarderait l'écriture du stock de places et les autres tâches.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${convene.scheduling.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduled-");
+        return scheduler;
+    }
+}
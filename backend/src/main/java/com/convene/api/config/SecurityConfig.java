@@ -2,23 +2,26 @@ package com.convene.api.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
-// IMPORT IMPORTANT À AJOUTER
-import static org.springframework.security.config.Customizer.withDefaults;
-
 import java.util.List;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Groupe Cognito des organisateurs (voir CognitoService.signUp)
+    public static final String ORGANIZERS = "Organizers";
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -31,18 +34,37 @@ public class SecurityConfig {
             // 3. Configuration des accès URL
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
+                // Statistiques d'un événement (rythme des inscriptions, date de complet) : réservées aux organisateurs
+                .requestMatchers(HttpMethod.GET, "/api/events/*/stats").hasRole(ORGANIZERS)
                 .requestMatchers("/api/events/**").permitAll() // Lecture publique des événements
                 .requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
+                // Réglages de la salle d'attente : un maxQueue à 0 fermerait les inscriptions
+                .requestMatchers(HttpMethod.PUT, "/api/registrations/*/waiting-room").hasRole(ORGANIZERS)
+                // Inscription de groupe : jusqu'à 500 emails de tiers d'un coup
+                .requestMatchers(HttpMethod.POST, "/api/registrations/*/batch").hasRole(ORGANIZERS)
+                // Export des participants : les emails de tous les inscrits d'un événement
+                .requestMatchers(HttpMethod.GET, "/api/registrations/event/*/export").hasRole(ORGANIZERS)
                 .anyRequest().authenticated() // Le reste (Inscriptions) nécessite un Token
             )
             
             // C'EST LA LIGNE MAGIQUE QUI MANQUAIT !
             // Elle dit à Spring : "Vérifie les tokens JWT (Bearer Token) avec Cognito"
-            .oauth2ResourceServer(oauth2 -> oauth2.jwt(withDefaults()));
+            .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())));
 
         return http.build();
     }
 
+    // Les groupes Cognito du token (claim cognito:groups) deviennent des rôles : Organizers -> ROLE_Organizers
+    @Bean
+    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter groups = new JwtGrantedAuthoritiesConverter();
+        groups.setAuthoritiesClaimName("cognito:groups");
+        groups.setAuthorityPrefix("ROLE_");
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(groups);
+        return converter;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
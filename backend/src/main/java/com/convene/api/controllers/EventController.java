@@ -1,22 +1,35 @@
 package com.convene.api.controllers;
 
+import com.convene.api.dtos.EventFacetsDto;
+import com.convene.api.dtos.EventPageDto;
 import com.convene.api.dtos.EventRequestDTO;
 import com.convene.api.dtos.EventResponseDtos;
+import com.convene.api.dtos.EventStatsDto;
+import com.convene.api.dtos.EventSummaryDto;
+import com.convene.api.dtos.SuggestionDto;
 import com.convene.api.models.Event;
 import com.convene.api.services.EventService;
+import com.convene.api.services.EventVersions;
+import com.convene.api.services.GeoBox;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/events")
@@ -42,6 +55,8 @@ public class EventController {
         try {
             Event createdEvent = eventService.createEvent(eventDTO, imageFile);
             return new ResponseEntity<>(createdEvent, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (IOException e) {
             Map<String, String> errorResponse = new HashMap<>();
             // LIGNE AJOUTÉE POUR VOIR L'ERREUR
@@ -56,32 +71,160 @@ public class EventController {
 
     /**
      * GET /api/events
-     * Recherche publique
+     * Recherche publique.
+     * - avec limit et/ou cursor : une page { items, nextCursor } triée par date ;
+     * - sort=relevance (avec un texte de recherche) : les "limit" plus pertinents ;
+     * - lat et lng (et radiusKm) : les "limit" plus proches, du plus proche au plus lointain ;
+     * - bbox=sud,ouest,nord,est : les "limit" premiers par date dans le rectangle ;
+     * - sinon : tous les résultats par date (comportement historique, utilisé par le frontend actuel).
      */
     @GetMapping
-    public ResponseEntity<List<EventResponseDtos>> getEvents(
+    public ResponseEntity<?> getEvents(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String city,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "date") String sort,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) String bbox,
+            ServletWebRequest request) {
 
-        List<EventResponseDtos> events = eventService.getEvents(search, category, city, startDate, endDate);
+        if (notModified(request, eventService.getCatalogVersion())) {
+            return null;
+        }
+        if (lat != null || lng != null || bbox != null) {
+            try {
+                return ResponseEntity.ok(findByLocation(search, category, city, startDate, endDate, lat, lng, radiusKm,
+                        bbox, limit));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
+
+        boolean paginated = cursor != null || (limit != null && !EventService.SORT_RELEVANCE.equalsIgnoreCase(sort));
+        if (paginated) {
+            try {
+                EventPageDto page = eventService.getEventPage(search, category, city, startDate, endDate, cursor, limit);
+                return ResponseEntity.ok(page);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
+        List<EventSummaryDto> events = eventService.getEvents(search, category, city, startDate, endDate, sort, limit);
         return ResponseEntity.ok(events);
     }
 
+    private List<EventSummaryDto> findByLocation(String search, String category, String city, LocalDate startDate,
+                                                 LocalDate endDate, Double lat, Double lng, Double radiusKm,
+                                                 String bbox, Integer limit) {
+        if (bbox != null) {
+            return eventService.getEventsInBox(search, category, city, startDate, endDate, GeoBox.parse(bbox), limit);
+        }
+        if (lat == null || lng == null || lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new IllegalArgumentException("Position invalide");
+        }
+        if (radiusKm != null && !(radiusKm > 0)) {
+            throw new IllegalArgumentException("Rayon invalide");
+        }
+        return eventService.getNearbyEvents(search, category, city, startDate, endDate, lat, lng, radiusKm, limit);
+    }
+
+    /**
+     * GET /api/events/suggest?q=
+     * Complétions (titres, villes, catégories) pour la saisie dans la barre de recherche.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDto>> suggest(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) Integer limit) {
+
+        return ResponseEntity.ok(eventService.getSuggestions(q, limit));
+    }
+
+    /**
+     * GET /api/events/facets
+     * Nombre d'événements par catégorie, ville et période (interval=month ou week) pour les filtres courants.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<EventFacetsDto> getFacets(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "month") String interval,
+            ServletWebRequest request) {
+
+        if (notModified(request, eventService.getCatalogVersion())) {
+            return null;
+        }
+        return ResponseEntity.ok(eventService.getFacets(search, category, city, startDate, endDate, interval));
+    }
+
     /**
      * GET /api/events/{id}
      * Récupère un événement par son ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<EventResponseDtos> getEvent(@PathVariable("id") Long id) {
+    public ResponseEntity<EventResponseDtos> getEvent(@PathVariable("id") Long id, ServletWebRequest request) {
+        Optional<EventVersions.Version> version = eventService.getEventVersion(id);
+        if (version.isPresent() && notModified(request, version.get())) {
+            return null;
+        }
         return eventService
                 .getEvent(id)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    /**
+     * GET /api/events/{id}/stats
+     * Rythme des inscriptions (dernière heure), remplissage et date de complet estimée (organisateurs uniquement, voir SecurityConfig).
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<EventStatsDto> getStats(@PathVariable("id") Long id) {
+        return eventService
+                .getStats(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/events/{id}/availability/stream
+     * Places restantes en direct (Server-Sent Events) : un message "availability" à l'abonnement puis à chaque
+     * changement (au plus un par intervalle du ticker), "closed" si l'événement est supprimé ou dépublié.
+     */
+    @GetMapping(path = "/{id}/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAvailability(@PathVariable("id") Long id) {
+        try {
+            return eventService
+                    .subscribeToAvailability(id)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            // Serveur saturé : EventSource se reconnectera plus tard
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "10").build();
+        }
+    }
+
+    /**
+     * Répond 304 si le client a déjà cette version (If-None-Match, sinon If-Modified-Since) ;
+     * dans ce cas le statut et les en-têtes sont posés et le contrôleur renvoie null.
+     * Sinon la réponse porte l'ETag et Last-Modified de la version.
+     */
+    private static boolean notModified(ServletWebRequest request, EventVersions.Version version) {
+        // Le navigateur peut garder la réponse mais doit la revalider (remplace le no-store de Spring Security)
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        }
+        return request.checkNotModified(version.etag(), version.lastModified());
+    }
+
     /**
      * PUT /api/events/{id}
      * Met à jour un événement
@@ -94,6 +237,21 @@ public class EventController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    /**
+     * PUT /api/events/{id}/image
+     * Rattache l'image envoyée directement à S3 ({"key": ...} reçu de POST /api/images/presign)
+     */
+    @PutMapping("/{id}/image")
+    public ResponseEntity<?> attachImage(@PathVariable("id") Long id, @RequestBody Map<String, String> body) {
+        try {
+            return eventService.attachImage(id, body.get("key"))
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * DELETE /api/events/{id}
      * Supprime un événement
@@ -1,7 +1,13 @@
 package com.convene.api.controllers;
 
+import com.convene.api.dtos.PresignRequestDto;
+import com.convene.api.dtos.PresignedUploadDto;
+import com.convene.api.services.ImageAssets;
+import com.convene.api.services.ImageUploads;
 import com.convene.api.services.S3Service;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,13 +17,16 @@ import software.amazon.awssdk.services.s3.model.S3Exception;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/images")
 @RequiredArgsConstructor
 public class ImageController {
 
-    private final S3Service s3Service;
+    private final ImageUploads imageUploads;
+    private final ImageAssets imageAssets;
 
     @PostMapping("/upload")
     public ResponseEntity<Map<String, String>> uploadImage(
@@ -32,26 +41,77 @@ public class ImageController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            String imageUrl = s3Service.uploadImage(file, folder);
+            String imageUrl = imageAssets.store(file, folder);
             response.put("url", imageUrl);
             response.put("message", "Image uploaded successfully");
             
             return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException e) {
+        } catch (Exception e) {
+            return failed(e);
+        }
+    }
+
+    // Signed URL for sending the image straight to S3, the API never receives the file
+    @PostMapping("/presign")
+    public ResponseEntity<?> presignUpload(@RequestBody PresignRequestDto request) {
+        try {
+            if (request.size() == null) {
+                throw new IllegalArgumentException("File size is required");
+            }
+            PresignedUploadDto upload = imageUploads.presign(request.folder() != null ? request.folder() : "events",
+                    request.filename(), request.contentType(), request.size(), request.sha256());
+            return ResponseEntity.ok(upload);
+        } catch (Exception e) {
+            return failed(e);
+        }
+    }
+
+    // Raw image body (Content-Type image/*, at most 5MB like every upload), sent to S3 while it is being received.
+    // Indexed in image_assets once stored, so the image sweep deletes it after the last event stops showing it
+    @PostMapping("/stream")
+    public CompletableFuture<ResponseEntity<Map<String, String>>> streamImage(
+            HttpServletRequest request,
+            @RequestParam(value = "folder", defaultValue = "events") String folder,
+            @RequestParam(value = "filename", required = false) String filename) {
+        try {
+            // Declared size checked before reading; the stream itself is also cut at the limit
+            if (request.getContentLengthLong() > 0) {
+                S3Service.validateImage(request.getContentType(), request.getContentLengthLong());
+            }
+            return imageAssets.storeStream(request.getInputStream(), request.getContentType(), filename, folder)
+                    .thenApply(imageUrl -> {
+                        Map<String, String> response = new HashMap<>();
+                        response.put("url", imageUrl);
+                        response.put("message", "Image uploaded successfully");
+                        return ResponseEntity.ok(response);
+                    })
+                    .exceptionally(this::failed);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(failed(e));
+        }
+    }
+
+    private ResponseEntity<Map<String, String>> failed(Throwable error) {
+        Map<String, String> response = new HashMap<>();
+        Throwable e = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (e instanceof IllegalArgumentException) {
             response.put("error", e.getMessage());
             return ResponseEntity.badRequest().body(response);
-        } catch (IllegalStateException e) {
+        } else if (e instanceof ImageUploads.TooManyUploadsException) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "60").body(response);
+        } else if (e instanceof IllegalStateException) {
             response.put("error", "S3 service is not configured: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
-        } catch (S3Exception e) {
+        } else if (e instanceof S3Exception s3Exception) {
             response.put("error", "S3 error: " + e.getMessage());
-            response.put("awsErrorCode", e.awsErrorDetails().errorCode());
+            response.put("awsErrorCode", s3Exception.awsErrorDetails().errorCode());
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
-        } catch (IOException e) {
+        } else if (e instanceof IOException) {
             response.put("error", "Failed to upload image: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
-        } catch (Exception e) {
+        } else {
             response.put("error", "Unexpected error: " + e.getMessage());
             response.put("details", e.getClass().getSimpleName());
             e.printStackTrace(); // Log to console for debugging
@@ -0,0 +1,43 @@
+package com.convene.api.controllers;
+
+import com.convene.api.services.EventCache;
+import com.convene.api.services.EventSearchCache;
+import com.convene.api.services.ImageAssets;
+import com.convene.api.services.ImageUploads;
+import com.convene.api.services.ImageVariants;
+import com.convene.api.services.SeatAvailabilityStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "http://localhost:3000")
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final EventCache eventCache;
+    private final EventSearchCache eventSearchCache;
+    private final SeatAvailabilityStream availabilityStream;
+    private final ImageVariants imageVariants;
+    private final ImageUploads imageUploads;
+    private final ImageAssets imageAssets;
+
+    /**
+     * GET /api/metrics
+     * Statistiques des caches en mémoire, du regroupement des recherches, des flux de places, des envois, de la déduplication et des variantes d'images (réservé aux utilisateurs connectés).
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        return ResponseEntity.ok(Map.of(
+                "eventCache", eventCache.stats(),
+                "eventSearch", eventSearchCache.stats(),
+                "availabilityStream", availabilityStream.stats(),
+                "imageVariants", imageVariants.stats(),
+                "imageUploads", imageUploads.stats(),
+                "imageAssets", imageAssets.stats()
+        ));
+    }
+}
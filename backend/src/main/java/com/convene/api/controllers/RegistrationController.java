@@ -1,15 +1,33 @@
 package com.convene.api.controllers;
 
+import com.convene.api.dtos.BatchRegistrationRequestDto;
+import com.convene.api.dtos.RegistrationDto;
+import com.convene.api.dtos.WaitingRoomSettingsDto;
 import com.convene.api.models.Registration;
+import com.convene.api.services.ParticipantExport;
+import com.convene.api.services.RegistrationException;
 import com.convene.api.services.RegistrationService;
+import com.convene.api.services.WaitingRoom;
+import com.convene.api.services.WaitlistService;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.security.Principal;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/registrations")
@@ -17,38 +35,209 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class RegistrationController {
 
+    private static final int MAX_HOLD_MINUTES = 30;
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private final RegistrationService registrationService;
+    private final WaitingRoom waitingRoom;
+    private final WaitlistService waitlistService;
+    private final ParticipantExport participantExport;
 
     /**
      * POST /api/registrations/{eventId}
      * S'inscrire à un événement.
      * L'email est récupéré automatiquement du token JWT (Principal).
+     * La demande passe par la salle d'attente : 200 si elle est traitée tout de suite,
+     * sinon 202 avec un jeton à suivre via GET /api/registrations/queue/{token}.
+     * Avec ?waitlist=true, un événement complet inscrit directement sur la liste d'attente.
      */
     @PostMapping("/{eventId}")
     public ResponseEntity<?> register(
             @PathVariable Long eventId,
+            @RequestParam(defaultValue = "false") boolean waitlist,
             Principal principal // Spring Security nous donne l'utilisateur connecté ici
     ) {
         try {
             // Si l'utilisateur n'est pas connecté, principal sera null (géré par SecurityConfig normalement)
             String email = principal.getName(); 
             
-            Registration registration = registrationService.registerUser(email, eventId);
-            return ResponseEntity.ok(registration);
+            WaitingRoom.Ticket ticket = waitingRoom.enter(eventId, email);
+            try {
+                return ResponseEntity.ok(waitingRoom.await(ticket));
+            } catch (TimeoutException e) {
+                return ResponseEntity.accepted().body(queueStatus(ticket));
+            }
             
+        } catch (RegistrationException e) {
+            if (waitlist && e.getReason() == RegistrationException.Reason.SOLD_OUT) {
+                return joinWaitlist(eventId, principal);
+            }
+            return refused(e);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * POST /api/registrations/{eventId}/waitlist
+     * Rejoindre la liste d'attente d'un événement complet.
+     */
+    @PostMapping("/{eventId}/waitlist")
+    public ResponseEntity<?> joinWaitlist(@PathVariable Long eventId, Principal principal) {
+        try {
+            long position = waitlistService.join(principal.getName(), eventId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(Map.of("eventId", eventId, "status", "WAITLISTED", "position", position));
+        } catch (RegistrationException e) {
+            return refused(e);
+        }
+    }
+
+    /**
+     * GET /api/registrations/{eventId}/waitlist
+     * Ma position sur la liste d'attente.
+     */
+    @GetMapping("/{eventId}/waitlist")
+    public ResponseEntity<?> getWaitlistPosition(@PathVariable Long eventId, Principal principal) {
+        try {
+            long position = waitlistService.position(principal.getName(), eventId);
+            return ResponseEntity.ok(Map.of("eventId", eventId, "status", "WAITLISTED", "position", position));
+        } catch (RegistrationException e) {
+            return refused(e);
+        }
+    }
+
+    /**
+     * DELETE /api/registrations/{eventId}/waitlist
+     * Quitter la liste d'attente.
+     */
+    @DeleteMapping("/{eventId}/waitlist")
+    public ResponseEntity<?> leaveWaitlist(@PathVariable Long eventId, Principal principal) {
+        try {
+            waitlistService.leave(principal.getName(), eventId);
+            return ResponseEntity.ok(Map.of("message", "Retiré de la liste d'attente"));
+        } catch (RegistrationException e) {
+            return refused(e);
+        }
+    }
+
+    /**
+     * POST /api/registrations/{eventId}/hold?minutes=10
+     * Réserver une place le temps du paiement ; sans confirmation, elle est rendue à l'expiration.
+     */
+    @PostMapping("/{eventId}/hold")
+    public ResponseEntity<?> holdSeat(
+            @PathVariable Long eventId,
+            @RequestParam(defaultValue = "10") int minutes,
+            Principal principal
+    ) {
+        try {
+            Duration ttl = Duration.ofMinutes(Math.min(Math.max(minutes, 1), MAX_HOLD_MINUTES));
+            Registration hold = registrationService.holdSeat(principal.getName(), eventId, ttl);
+            // DTO : l'événement de l'entité est un proxy, et sa colonne de places est en retard sur le stock en mémoire
+            return ResponseEntity.status(HttpStatus.CREATED).body(registrationService.toDto(hold));
+        } catch (RegistrationException e) {
+            return refused(e);
+        }
+    }
+
+    /**
+     * POST /api/registrations/{eventId}/hold/confirm
+     * Confirmer la réservation temporaire (paiement validé).
+     */
+    @PostMapping("/{eventId}/hold/confirm")
+    public ResponseEntity<?> confirmHold(@PathVariable Long eventId, Principal principal) {
+        try {
+            return ResponseEntity.ok(registrationService.toDto(registrationService.confirmHold(principal.getName(), eventId)));
+        } catch (RegistrationException e) {
+            return refused(e);
+        }
+    }
+
+    /**
+     * DELETE /api/registrations/{eventId}/hold
+     * Abandonner la réservation temporaire.
+     */
+    @DeleteMapping("/{eventId}/hold")
+    public ResponseEntity<?> releaseHold(@PathVariable Long eventId, Principal principal) {
+        try {
+            registrationService.releaseHold(principal.getName(), eventId);
+            return ResponseEntity.ok(Map.of("message", "Réservation libérée"));
+        } catch (RegistrationException e) {
+            return refused(e);
+        }
+    }
+
+    /**
+     * POST /api/registrations/{eventId}/batch
+     * Inscrire un groupe de participants (tout ou rien, ou partiel selon "mode"). Groupe Organizers, voir SecurityConfig.
+     */
+    @PostMapping("/{eventId}/batch")
+    public ResponseEntity<?> registerGroup(
+            @PathVariable Long eventId,
+            @Valid @RequestBody BatchRegistrationRequestDto request
+    ) {
+        try {
+            BatchRegistrationRequestDto.Mode mode = request.mode() != null
+                    ? request.mode()
+                    : BatchRegistrationRequestDto.Mode.ALL_OR_NOTHING;
+            return ResponseEntity.ok(registrationService.registerGroup(eventId, request.emails(), mode));
+        } catch (RegistrationException e) {
+            return refused(e);
+        }
+    }
+
+    /**
+     * GET /api/registrations/queue/{token}
+     * Suivre une demande placée en file d'attente.
+     */
+    @GetMapping("/queue/{token}")
+    public ResponseEntity<?> getQueueStatus(@PathVariable String token, Principal principal) {
+        WaitingRoom.Ticket ticket = waitingRoom.find(token)
+                .filter(t -> t.getEmail().equals(principal.getName()))
+                .orElse(null);
+        if (ticket == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (ticket.getFailure() instanceof RegistrationException e) {
+            return refused(e);
+        }
+        if (ticket.getFailure() != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", ticket.getFailure().getMessage()));
+        }
+        return ResponseEntity.ok(queueStatus(ticket));
+    }
+
+    /**
+     * GET /api/registrations/{eventId}/waiting-room
+     * État de la salle d'attente d'un événement.
+     */
+    @GetMapping("/{eventId}/waiting-room")
+    public ResponseEntity<WaitingRoom.RoomSnapshot> getWaitingRoom(@PathVariable Long eventId) {
+        return ResponseEntity.ok(waitingRoom.snapshot(eventId));
+    }
+
+    /**
+     * PUT /api/registrations/{eventId}/waiting-room
+     * Régler la concurrence et la taille de file pour un événement (groupe Organizers, voir SecurityConfig).
+     */
+    @PutMapping("/{eventId}/waiting-room")
+    public ResponseEntity<WaitingRoom.RoomSnapshot> configureWaitingRoom(
+            @PathVariable Long eventId,
+            @RequestBody WaitingRoomSettingsDto settings
+    ) {
+        waitingRoom.configure(eventId, settings.maxConcurrency(), settings.maxQueue());
+        return ResponseEntity.ok(waitingRoom.snapshot(eventId));
+    }
+
     /**
      * GET /api/registrations/me
      * Voir mes inscriptions.
      */
     @GetMapping("/me")
-    public ResponseEntity<List<Registration>> getMyRegistrations(Principal principal) {
+    public ResponseEntity<List<RegistrationDto>> getMyRegistrations(Principal principal) {
         String email = principal.getName();
-        List<Registration> registrations = registrationService.getUserRegistrations(email);
+        List<RegistrationDto> registrations = registrationService.getUserRegistrations(email);
         return ResponseEntity.ok(registrations);
     }
 
@@ -62,6 +251,8 @@ public class RegistrationController {
             String email = principal.getName();
             registrationService.cancelRegistration(email, eventId);
             return ResponseEntity.ok(Map.of("message", "Désinscription réussie"));
+        } catch (RegistrationException e) {
+            return refused(e);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -77,4 +268,96 @@ public class RegistrationController {
         List<Registration> registrations = registrationService.getEventRegistrations(eventId);
         return ResponseEntity.ok(registrations);
     }
+
+    /**
+     * GET /api/registrations/event/{eventId}/export?format=csv|ndjson
+     * Exporter les participants d'un événement (Pour l'organisateur), écrit en flux quel que soit leur nombre.
+     * Compressé en gzip si le client l'accepte.
+     */
+    @GetMapping("/event/{eventId}/export")
+    public ResponseEntity<?> exportEventRegistrations(
+            @PathVariable Long eventId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response
+    ) throws IOException {
+        ParticipantExport.Format exportFormat;
+        try {
+            exportFormat = ParticipantExport.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        if (!participantExport.exists(eventId)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        response.setContentType(exportFormat.contentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("participants-" + eventId + "." + exportFormat.extension()).build().toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            try (GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE)) {
+                participantExport.write(eventId, exportFormat, out);
+            }
+        } else {
+            participantExport.write(eventId, exportFormat, response.getOutputStream());
+        }
+        // La réponse est déjà écrite
+        return null;
+    }
+
+    // Accept-Encoding avec ses poids : "gzip;q=0" refuse gzip, "*" l'accepte s'il n'est pas cité
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = q;
+            } else if (name.equals("*")) {
+                any = q;
+            }
+        }
+        double weight = gzip != null ? gzip : any != null ? any : 0;
+        return weight > 0;
+    }
+
+    private Map<String, Object> queueStatus(WaitingRoom.Ticket ticket) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("token", ticket.getToken());
+        body.put("eventId", ticket.getEventId());
+        body.put("status", ticket.getStatus());
+        body.put("position", waitingRoom.position(ticket));
+        if (ticket.getStatus() == WaitingRoom.Status.CONFIRMED) {
+            body.put("registration", ticket.getResult().join());
+        }
+        return body;
+    }
+
+    // Traduit le motif du refus en code HTTP
+    private ResponseEntity<Map<String, String>> refused(RegistrationException e) {
+        HttpStatus status = switch (e.getReason()) {
+            case EVENT_NOT_FOUND, REGISTRATION_NOT_FOUND, NOT_WAITLISTED, HOLD_NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case SOLD_OUT, ALREADY_REGISTERED, ALREADY_WAITLISTED, SEATS_AVAILABLE -> HttpStatus.CONFLICT;
+            case QUEUE_FULL -> HttpStatus.SERVICE_UNAVAILABLE;
+        };
+        return ResponseEntity.status(status)
+                .body(Map.of("error", e.getMessage(), "code", e.getReason().name()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.convene.api.dtos;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// Inscription d'un groupe (ex : les employés d'une entreprise) au même événement
+public record BatchRegistrationRequestDto(
+    @NotEmpty(message = "Emails cannot be empty")
+    @Size(max = 500, message = "A batch cannot exceed 500 participants")
+    List<@NotBlank @Email String> emails,
+    Mode mode
+) {
+    public enum Mode {
+        ALL_OR_NOTHING, // Tout le groupe ou personne
+        PARTIAL         // Autant de places que possible
+    }
+}
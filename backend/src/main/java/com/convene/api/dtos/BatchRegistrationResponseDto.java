@@ -0,0 +1,15 @@
+package com.convene.api.dtos;
+
+import java.util.List;
+
+// Résultat d'une inscription de groupe, email par email
+public record BatchRegistrationResponseDto(
+    Long eventId,
+    int requested,
+    int registered,
+    List<Outcome> outcomes
+) {
+    public enum Status { REGISTERED, ALREADY_REGISTERED, SOLD_OUT }
+
+    public record Outcome(String email, Status status) {}
+}
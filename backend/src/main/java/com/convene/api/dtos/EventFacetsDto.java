@@ -0,0 +1,21 @@
+package com.convene.api.dtos;
+
+import java.util.List;
+
+/**
+ * Compteurs du panneau de filtres. Chaque facette applique les autres filtres mais pas le sien
+ * (les compteurs de catégories ignorent la catégorie choisie, etc.).
+ */
+public record EventFacetsDto(
+    long total,
+    List<FacetCount> categories,
+    List<FacetCount> cities,
+    String interval,
+    List<FacetCount> dates
+) {
+
+    /**
+     * {@code value} : la catégorie, la ville, ou le premier jour de la période (ISO).
+     */
+    public record FacetCount(String value, long count) {}
+}
@@ -0,0 +1,11 @@
+package com.convene.api.dtos;
+
+import java.util.List;
+
+/**
+ * Une page de résultats ; nextCursor est null sur la dernière page.
+ */
+public record EventPageDto(
+    List<EventSummaryDto> items,
+    String nextCursor
+) {}
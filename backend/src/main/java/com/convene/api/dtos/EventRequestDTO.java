@@ -26,6 +26,18 @@ public class EventRequestDTO {
     @NotNull(message = "Total seats cannot be null")
     @Min(value = 1, message = "Total seats must be at least 1")
     private Integer totalSeats;
+
+    // Optionnelles : à défaut, l'adresse est géocodée
+    @DecimalMin(value = "-90", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
+    // Optionnelle : image déjà envoyée sur une URL pré-signée (POST /api/images/presign), à la place de la partie "image"
+    private String imageKey;
     
     // --- Getters et Setters --- 
     public String getTitle() { 
@@ -70,4 +82,22 @@ public class EventRequestDTO {
     public void setTotalSeats(Integer totalSeats) { 
         this.totalSeats = totalSeats; 
     }
+    public Double getLatitude() {
+        return latitude;
+    }
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+    public Double getLongitude() {
+        return longitude;
+    }
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+    public String getImageKey() {
+        return imageKey;
+    }
+    public void setImageKey(String imageKey) {
+        this.imageKey = imageKey;
+    }
 }
\ No newline at end of file
@@ -9,10 +9,19 @@ public record EventResponseDtos(
     String description,
     String category,
     String imageUrl,
+    String imageSrcset,
     LocalDate eventDate,
     String city,
     String address,
     Integer totalSeats,
     Integer availableSeats,
-    String status
-) {}
\ No newline at end of file
+    String status,
+    Double latitude,
+    Double longitude
+) {
+
+    public EventResponseDtos withAvailableSeats(Integer availableSeats) {
+        return new EventResponseDtos(id, title, description, category, imageUrl, imageSrcset, eventDate, city, address,
+                totalSeats, availableSeats, status, latitude, longitude);
+    }
+}
\ No newline at end of file
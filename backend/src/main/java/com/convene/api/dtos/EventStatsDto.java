@@ -0,0 +1,26 @@
+package com.convene.api.dtos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rythme des inscriptions d'un événement (GET /api/events/{id}/stats).
+ * Les taux portent sur la dernière heure ; projectedSellOut est null si l'événement ne se remplit pas.
+ */
+public record EventStatsDto(
+    Long eventId,
+    Integer totalSeats,
+    Integer availableSeats,
+    double fillPercentage,
+    double registrationsPerHour,
+    double cancellationsPerHour,
+    long registeredLast24h,
+    long cancelledLast24h,
+    boolean soldOut,
+    LocalDateTime projectedSellOut,
+    List<HourlyCount> hourly
+) {
+
+    public record HourlyCount(LocalDateTime hour, int registered, int cancelled) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.convene.api.dtos;
+
+import java.time.LocalDate;
+
+/**
+ * Vue liste d'un événement : mêmes champs JSON que EventResponseDtos (utilisés par le frontend),
+ * mais la description est tronquée. La fiche complète reste EventResponseDtos (GET /api/events/{id}).
+ */
+public record EventSummaryDto(
+    Long id,
+    String title,
+    String description,
+    String category,
+    String imageUrl,
+    String imageSrcset,
+    LocalDate eventDate,
+    String city,
+    String address,
+    Integer totalSeats,
+    Integer availableSeats,
+    String status,
+    Double latitude,
+    Double longitude
+) {
+
+    public EventSummaryDto withAvailableSeats(Integer availableSeats) {
+        return new EventSummaryDto(id, title, description, category, imageUrl, imageSrcset, eventDate, city, address,
+                totalSeats, availableSeats, status, latitude, longitude);
+    }
+}
@@ -0,0 +1,15 @@
+package com.convene.api.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de l'export des participants d'un événement (une par inscription).
+ */
+public record ParticipantDto(
+    Long registrationId,
+    String email,
+    String status,
+    LocalDateTime registrationDate,
+    LocalDateTime expiresAt
+) {
+}
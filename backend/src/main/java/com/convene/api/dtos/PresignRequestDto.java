@@ -0,0 +1,14 @@
+package com.convene.api.dtos;
+
+/**
+ * Demande d'envoi direct d'une image (POST /api/images/presign) : le fichier n'est pas transmis, seulement sa description.
+ * Avec le SHA-256 du fichier (hexadécimal), un contenu déjà stocké n'est pas renvoyé.
+ */
+public record PresignRequestDto(
+    String folder,
+    String filename,
+    String contentType,
+    Long size,
+    String sha256
+) {
+}
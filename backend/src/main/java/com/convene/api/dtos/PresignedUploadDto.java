@@ -0,0 +1,18 @@
+package com.convene.api.dtos;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Envoi direct d'une image vers S3 (POST /api/images/presign) : le navigateur fait un PUT du fichier sur uploadUrl
+ * avec les en-têtes indiqués, puis transmet key à l'API pour rattacher l'image à l'événement.
+ * Sans uploadUrl, le contenu est déjà stocké : pas de PUT, key suffit.
+ */
+public record PresignedUploadDto(
+    String uploadUrl,
+    Map<String, String> headers,
+    String key,
+    String url,
+    Instant expiresAt
+) {
+}
@@ -0,0 +1,30 @@
+package com.convene.api.dtos;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Inscription vue par le participant, avec le résumé de son événement (GET /api/registrations/me).
+ * Chargée par une seule requête sur la jointure : ni entité ni proxy Hibernate à sérialiser.
+ */
+public record RegistrationDto(
+    Long id,
+    String status,
+    LocalDateTime registrationDate,
+    LocalDateTime expiresAt,
+    EventSummaryDto event
+) {
+
+    // Utilisé par la requête JPQL, les expressions "new" ne pouvant pas s'imbriquer
+    public RegistrationDto(Long id, String status, LocalDateTime registrationDate, LocalDateTime expiresAt,
+                           Long eventId, String title, String description, String category, String imageUrl,
+                           String imageSrcset, LocalDate eventDate, String city, String address, Integer totalSeats,
+                           Integer availableSeats, String eventStatus, Double latitude, Double longitude) {
+        this(id, status, registrationDate, expiresAt, new EventSummaryDto(eventId, title, description, category,
+                imageUrl, imageSrcset, eventDate, city, address, totalSeats, availableSeats, eventStatus, latitude, longitude));
+    }
+
+    public RegistrationDto withAvailableSeats(Integer availableSeats) {
+        return new RegistrationDto(id, status, registrationDate, expiresAt, event.withAvailableSeats(availableSeats));
+    }
+}
@@ -0,0 +1,7 @@
+package com.convene.api.dtos;
+
+/**
+ * Complétion proposée par GET /api/events/suggest.
+ * {@code type} vaut "title", "city" ou "category" ; {@code count} est le nombre d'événements publiés concernés.
+ */
+public record SuggestionDto(String text, String type, long count) {}
@@ -0,0 +1,7 @@
+package com.convene.api.dtos;
+
+// Réglages de la salle d'attente d'un événement (null = valeur par défaut)
+public record WaitingRoomSettingsDto(
+    Integer maxConcurrency,
+    Integer maxQueue
+) {}
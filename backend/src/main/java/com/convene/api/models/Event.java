@@ -9,7 +9,10 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+        // Pagination par curseur : WHERE status = ? AND (event_date, id) > (?, ?) ORDER BY event_date, id
+        @Index(name = "idx_events_status_date", columnList = "status, event_date, id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Event {
 
@@ -32,6 +35,10 @@ public class Event {
     @Column(name = "image_url")
     private String imageUrl;
 
+    // Variantes redimensionnées de imageUrl au format srcset ("url 320w, ..."), renseignées par ImageVariants
+    @Column(name = "image_srcset", length = 2048)
+    private String imageSrcset;
+
     @Column(name = "event_date", nullable = false)
     private LocalDate eventDate;
 
@@ -41,6 +48,11 @@ public class Event {
     @Column(name = "location_address", nullable = false)
     private String locationAddress;
 
+    // Coordonnées WGS 84, renseignées par l'organisateur ou par le Geocoder (nulles si l'adresse est inconnue)
+    private Double latitude;
+
+    private Double longitude;
+
     @Column(name = "total_seats", nullable = false)
     private Integer totalSeats;
 
@@ -80,6 +92,9 @@ public class Event {
     public String getImageUrl() { return imageUrl; }
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
 
+    public String getImageSrcset() { return imageSrcset; }
+    public void setImageSrcset(String imageSrcset) { this.imageSrcset = imageSrcset; }
+
     public LocalDate getEventDate() { return eventDate; }
     public void setEventDate(LocalDate eventDate) { this.eventDate = eventDate; }
 
@@ -89,6 +104,12 @@ public class Event {
     public String getLocationAddress() { return locationAddress; }
     public void setLocationAddress(String locationAddress) { this.locationAddress = locationAddress; }
 
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
     public Integer getTotalSeats() { return totalSeats; }
     public void setTotalSeats(Integer totalSeats) { this.totalSeats = totalSeats; }
 
@@ -0,0 +1,56 @@
+package com.convene.api.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Image stockée sur S3 sous une clé adressée par son contenu (SHA-256), avec le nombre d'événements qui l'affichent.
+ * Sert d'index des contenus déjà envoyés : un fichier identique n'est pas renvoyé.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(
+        name = "image_assets",
+        uniqueConstraints = @UniqueConstraint(name = "uk_image_asset_key", columnNames = "storage_key"),
+        indexes = @Index(name = "idx_image_asset_unused", columnList = "ref_count, released_at")
+)
+public class ImageAsset {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "storage_key", nullable = false, length = 512)
+    private String storageKey;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, length = 1024)
+    private String url;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(nullable = false)
+    private long size;
+
+    // Événements dont l'image est celle-ci
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    // Dernier passage à zéro référence : l'objet est supprimé après un délai de grâce
+    @Column(name = "released_at")
+    private LocalDateTime releasedAt;
+
+    // Variantes déjà calculées, reprises par les événements suivants
+    @Column(name = "image_srcset", length = 2048)
+    private String imageSrcset;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
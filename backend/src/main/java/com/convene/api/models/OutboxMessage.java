@@ -0,0 +1,57 @@
+package com.convene.api.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Message à traiter après coup (email de confirmation, statistiques, notification organisateur...).
+ * Il est écrit dans la même transaction que l'inscription, puis envoyé en tâche de fond.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "outbox_messages", indexes = @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at"))
+@EntityListeners(AuditingEntityListener.class)
+public class OutboxMessage {
+
+    public static final String PENDING = "PENDING";
+    public static final String SENT = "SENT";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_messages_seq", allocationSize = 50)
+    private Long id;
+
+    // Ex : REGISTRATION_CONFIRMED, REGISTRATION_CANCELLED
+    @Column(nullable = false, length = 64)
+    private String type;
+
+    @Column(name = "event_id")
+    private Long eventId;
+
+    // Contenu JSON
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(nullable = false, length = 16)
+    private String status = PENDING;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @CreatedDate
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    private String lastError;
+}
@@ -12,12 +12,23 @@ import java.time.LocalDateTime;
 @Entity
 @Data
 @NoArgsConstructor
-@Table(name = "registrations")
+@Table(
+        name = "registrations",
+        // Une seule inscription par participant et par événement (remplace la vérification préalable)
+        uniqueConstraints = @UniqueConstraint(name = "uk_registration_event_participant",
+                columnNames = {"event_id", "participant_email"}),
+        // "Mes inscriptions" : la contrainte unique commence par event_id et ne sert pas ici
+        indexes = @Index(name = "idx_registration_participant", columnList = "participant_email")
+)
 @EntityListeners(AuditingEntityListener.class)
 public class Registration {
 
+    // Ids réservés par blocs : contrairement à IDENTITY, Hibernate peut alors grouper les INSERT
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "registration_seq")
+    @SequenceGenerator(name = "registration_seq", sequenceName = "registrations_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     // Qui s'inscrit ?
@@ -37,6 +48,9 @@ public class Registration {
     @Column(updatable = false)
     private LocalDateTime registrationDate;
 
-    // Statut (CONFIRMED, CANCELLED)
+    // Statut (CONFIRMED, HELD, CANCELLED)
     private String status = "CONFIRMED";
+
+    // Fin de la réservation temporaire (statut HELD uniquement)
+    private LocalDateTime expiresAt;
 }
\ No newline at end of file
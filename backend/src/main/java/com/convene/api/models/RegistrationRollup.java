@@ -0,0 +1,36 @@
+package com.convene.api.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inscriptions et désinscriptions d'un événement sur une heure (historique compacté de RegistrationStats).
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(
+        name = "registration_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rollup_event_hour", columnNames = {"event_id", "hour_start"})
+)
+public class RegistrationRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(name = "hour_start", nullable = false)
+    private LocalDateTime hourStart;
+
+    @Column(nullable = false)
+    private int registered;
+
+    @Column(nullable = false)
+    private int cancelled;
+}
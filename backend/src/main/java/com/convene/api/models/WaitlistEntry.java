@@ -0,0 +1,40 @@
+package com.convene.api.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Place dans la liste d'attente d'un événement complet.
+ * L'ordre d'arrivée est celui des ids.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(
+        name = "waitlist_entries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_waitlist_event_participant",
+                columnNames = {"event_id", "participant_email"}),
+        indexes = @Index(name = "idx_waitlist_event_order", columnList = "event_id, id")
+)
+@EntityListeners(AuditingEntityListener.class)
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(nullable = false)
+    private String participantEmail;
+
+    @CreatedDate
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
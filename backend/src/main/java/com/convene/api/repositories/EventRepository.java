@@ -1,12 +1,18 @@
 package com.convene.api.repositories;
 
+import com.convene.api.dtos.EventSummaryDto;
 import com.convene.api.models.Event;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,34 +20,157 @@ import java.util.Optional;
 public interface EventRepository extends JpaRepository<Event, Long> {
 
     /**
-     * Recherche avec filtres optionnels.
+     * Colonnes de la vue liste : description tronquée côté MySQL, pas d'entité gérée
+     * (ni instantané pour le dirty-checking, ni TEXT complet transféré).
+     */
+    String SUMMARY = """
+        SELECT new com.convene.api.dtos.EventSummaryDto(
+            e.id, e.title, SUBSTRING(e.description, 1, 200), e.category, e.imageUrl, e.imageSrcset,
+            e.eventDate, e.locationCity, e.locationAddress, e.totalSeats, e.availableSeats, e.status,
+            e.latitude, e.longitude)
+        FROM Event e
+    """;
+
+    /**
+     * Recherche avec filtres optionnels (la recherche texte passe par EventSearchIndex).
      * Utilise String pour le statut et LocalDate pour les dates.
      */
-    @Query("""
-        SELECT e FROM Event e
+    @Transactional(readOnly = true)
+    @Query(SUMMARY + """
         WHERE (:status IS NULL OR e.status = :status)
           AND (:category IS NULL OR LOWER(e.category) = LOWER(:category))
           AND (:city IS NULL OR LOWER(e.locationCity) = LOWER(:city))
           AND (:startDate IS NULL OR e.eventDate >= :startDate)
           AND (:endDate IS NULL OR e.eventDate <= :endDate)
+        ORDER BY e.eventDate, e.id
+    """)
+    List<EventSummaryDto> searchEvents(
+            @Param("status") String status,
+            @Param("category") String category,
+            @Param("city") String city,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Même filtres que searchEvents, par pages : recherche par clé (eventDate, id) après le curseur,
+     * de sorte qu'une page lointaine coûte autant que la première (index idx_events_status_date).
+     */
+    @Transactional(readOnly = true)
+    @Query(SUMMARY + """
+        WHERE e.status = :status
+          AND (:category IS NULL OR LOWER(e.category) = LOWER(:category))
+          AND (:city IS NULL OR LOWER(e.locationCity) = LOWER(:city))
+          AND (:startDate IS NULL OR e.eventDate >= :startDate)
+          AND (:endDate IS NULL OR e.eventDate <= :endDate)
           AND (
-                :search IS NULL
-                OR LOWER(e.title) LIKE CONCAT('%', LOWER(:search), '%')
-                OR LOWER(e.description) LIKE CONCAT('%', LOWER(:search), '%')
+                :afterDate IS NULL
+                OR e.eventDate > :afterDate
+                OR (e.eventDate = :afterDate AND e.id > :afterId)
               )
-        ORDER BY e.eventDate
+        ORDER BY e.eventDate, e.id
     """)
-    List<Event> searchEvents(
+    List<EventSummaryDto> findPage(
             @Param("status") String status,
             @Param("category") String category,
             @Param("city") String city,
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate,
-            @Param("search") String search
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            Limit limit
     );
 
+    /**
+     * Vue liste des événements trouvés par l'index de recherche (ordre quelconque).
+     */
+    @Transactional(readOnly = true)
+    @Query(SUMMARY + " WHERE e.id IN :ids AND e.status = :status")
+    List<EventSummaryDto> findSummaries(@Param("ids") Collection<Long> ids, @Param("status") String status);
+
     /**
      * Récupérer un événement par id si son status correspond (ex: "PUBLISHED").
      */
+    @Transactional(readOnly = true)
     Optional<Event> findByIdAndStatus(Long id, String status);
+
+    /**
+     * Parcours par pages, dans l'ordre des ids (reconstruction de l'index de recherche).
+     */
+    List<Event> findByStatusAndIdGreaterThanOrderByIdAsc(String status, Long id, Limit limit);
+
+    /**
+     * Places des événements publiés et nombre d'inscriptions de chacun, en une requête (pour reconstruire
+     * le stock en mémoire : la colonne available_seats peut être en retard sur les inscriptions après un arrêt brutal).
+     */
+    @Query("""
+        SELECT e.id AS id, e.totalSeats AS totalSeats, e.availableSeats AS availableSeats, COUNT(r.id) AS registrations
+        FROM Event e LEFT JOIN Registration r ON r.event = e
+        WHERE e.status = 'PUBLISHED'
+        GROUP BY e.id, e.totalSeats, e.availableSeats
+    """)
+    List<SeatCount> findAllSeatCounts();
+
+    /**
+     * Date de modification des événements publiés (pour reconstruire les ETag en mémoire).
+     */
+    @Query("SELECT e.id AS id, e.updatedAt AS updatedAt FROM Event e WHERE e.status = 'PUBLISHED'")
+    List<UpdatedAt> findAllUpdatedAt();
+
+    /**
+     * Retire des places en une seule requête conditionnelle :
+     * uniquement si l'événement est publié et qu'il en reste assez.
+     * Renvoie 0 si rien n'a été modifié.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Event e SET e.availableSeats = e.availableSeats - :seats
+        WHERE e.id = :id AND e.status = 'PUBLISHED' AND e.availableSeats >= :seats
+    """)
+    int claimSeats(@Param("id") Long id, @Param("seats") int seats);
+
+    /**
+     * Rend des places (sans dépasser le nombre total).
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Event e SET e.availableSeats = e.availableSeats + :seats
+        WHERE e.id = :id AND e.availableSeats + :seats <= e.totalSeats
+    """)
+    int releaseSeats(@Param("id") Long id, @Param("seats") int seats);
+
+    /**
+     * Remplace le nombre de places restantes d'un événement publié (resynchronisation du stock en mémoire).
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Event e SET e.availableSeats = :seats WHERE e.id = :id AND e.status = 'PUBLISHED'")
+    int overwriteSeats(@Param("id") Long id, @Param("seats") int seats);
+
+    /**
+     * Enregistre les variantes d'une image si l'événement a toujours cette image
+     * (si elle a été remplacée entre-temps, le traitement de la nouvelle s'en charge).
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Event e SET e.imageSrcset = :srcset, e.updatedAt = :now
+        WHERE e.id = :id AND e.imageUrl = :imageUrl
+    """)
+    int updateImageSrcset(@Param("id") Long id, @Param("imageUrl") String imageUrl, @Param("srcset") String srcset,
+                          @Param("now") LocalDateTime now);
+
+    interface SeatCount {
+        Long getId();
+        Integer getTotalSeats();
+        Integer getAvailableSeats();
+        Long getRegistrations();
+    }
+
+    interface UpdatedAt {
+        Long getId();
+        LocalDateTime getUpdatedAt();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.convene.api.repositories;
+
+import com.convene.api.models.ImageAsset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ImageAssetRepository extends JpaRepository<ImageAsset, Long> {
+
+    Optional<ImageAsset> findByStorageKey(String storageKey);
+
+    // Enregistre un contenu envoyé, sans erreur si un envoi concurrent du même contenu l'a déjà fait
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT IGNORE INTO image_assets (storage_key, content_hash, url, content_type, size, ref_count, created_at)
+        VALUES (:storageKey, :contentHash, :url, :contentType, :size, 0, :now)
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("storageKey") String storageKey, @Param("contentHash") String contentHash,
+                       @Param("url") String url, @Param("contentType") String contentType,
+                       @Param("size") long size, @Param("now") LocalDateTime now);
+
+    // Prend ou rend des références ; à zéro, la date de libération fait partir le délai de grâce
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE image_assets
+        SET ref_count = GREATEST(ref_count + :delta, 0),
+            released_at = IF(ref_count = 0, :now, NULL)
+        WHERE storage_key = :storageKey
+    """, nativeQuery = true)
+    int addReferences(@Param("storageKey") String storageKey, @Param("delta") int delta, @Param("now") LocalDateTime now);
+
+    // Contenu renvoyé sans être encore rattaché : repousse sa suppression
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageAsset a SET a.releasedAt = :now WHERE a.storageKey = :storageKey AND a.refCount = 0 AND a.releasedAt IS NOT NULL")
+    int touchUnused(@Param("storageKey") String storageKey, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageAsset a SET a.imageSrcset = :srcset WHERE a.storageKey = :storageKey")
+    int updateImageSrcset(@Param("storageKey") String storageKey, @Param("srcset") String srcset);
+
+    List<ImageAsset> findTop100ByRefCountAndReleasedAtBefore(int refCount, LocalDateTime before);
+
+    // Condition revérifiée à la suppression : une référence prise entre-temps garde l'image
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImageAsset a WHERE a.id = :id AND a.refCount = 0 AND a.releasedAt < :before")
+    int deleteIfUnused(@Param("id") Long id, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,45 @@
+package com.convene.api.repositories;
+
+import com.convene.api.models.OutboxMessage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    // Prochain lot à envoyer, dans l'ordre d'écriture
+    List<OutboxMessage> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(String status, LocalDateTime now, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.status = 'SENT', m.sentAt = :now WHERE m.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE OutboxMessage m
+        SET m.status = :status, m.attempts = m.attempts + 1, m.nextAttemptAt = :nextAttemptAt, m.lastError = :error
+        WHERE m.id = :id
+    """)
+    int markFailed(@Param("id") Long id,
+                   @Param("status") String status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    // Messages envoyés avant cette date, supprimés par lots (DELETE ... LIMIT, propre à MySQL)
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM outbox_messages WHERE status = 'SENT' AND sent_at < :before LIMIT :limit",
+            nativeQuery = true)
+    int deleteSentBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
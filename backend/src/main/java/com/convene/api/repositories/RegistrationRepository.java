@@ -1,26 +1,91 @@
 package com.convene.api.repositories;
 
+import com.convene.api.dtos.ParticipantDto;
+import com.convene.api.dtos.RegistrationDto;
 import com.convene.api.models.Registration;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface RegistrationRepository extends JpaRepository<Registration, Long> {
 
-    // Trouver toutes les inscriptions d'un participant
-    List<Registration> findByParticipantEmail(String participantEmail);
+    // Inscriptions d'un participant avec le résumé de leur événement, en une seule requête (jointure)
+    @Query("""
+        SELECT new com.convene.api.dtos.RegistrationDto(
+            r.id, r.status, r.registrationDate, r.expiresAt,
+            e.id, e.title, SUBSTRING(e.description, 1, 200), e.category, e.imageUrl, e.imageSrcset,
+            e.eventDate, e.locationCity, e.locationAddress, e.totalSeats, e.availableSeats, e.status,
+            e.latitude, e.longitude)
+        FROM Registration r JOIN r.event e
+        WHERE r.participantEmail = :email
+        ORDER BY e.eventDate, r.id
+    """)
+    List<RegistrationDto> findSummariesByParticipantEmail(@Param("email") String participantEmail);
 
     List<Registration> findByEventId(Long eventId);
 
+    // Participants d'un événement lus au fil de l'eau (export) : pas d'entité gardée en mémoire,
+    // et avec MySQL Connector/J, une taille de fetch Integer.MIN_VALUE fait transmettre les lignes une à une
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("""
+        SELECT new com.convene.api.dtos.ParticipantDto(r.id, r.participantEmail, r.status, r.registrationDate, r.expiresAt)
+        FROM Registration r
+        WHERE r.event.id = :eventId
+        ORDER BY r.id
+    """)
+    Stream<ParticipantDto> streamParticipants(@Param("eventId") Long eventId);
+
     // Vérifier si un participant est déjà inscrit
     boolean existsByParticipantEmailAndEventId(String participantEmail, Long eventId);
     
+    // Parmi ces emails, lesquels sont déjà inscrits (une seule requête pour un groupe)
+    @Query("SELECT r.participantEmail FROM Registration r WHERE r.event.id = :eventId AND r.participantEmail IN :emails")
+    Set<String> findRegisteredEmails(@Param("eventId") Long eventId, @Param("emails") Collection<String> emails);
+    
     // Trouver une inscription spécifique
     Optional<Registration> findByParticipantEmailAndEventId(String participantEmail, Long eventId);
 
+    // Confirmer une réservation temporaire encore valide
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Registration r SET r.status = 'CONFIRMED', r.expiresAt = null
+        WHERE r.event.id = :eventId AND r.participantEmail = :email AND r.status = 'HELD' AND r.expiresAt > :now
+    """)
+    int confirmHold(@Param("email") String participantEmail, @Param("eventId") Long eventId, @Param("now") LocalDateTime now);
+
+    // Réservations temporaires en cours (rechargées au démarrage)
+    @Query("SELECT r.id AS id, r.event.id AS eventId, r.expiresAt AS expiresAt FROM Registration r WHERE r.status = 'HELD'")
+    List<HeldSeat> findAllHeld();
+
+    // Réservations expirées parmi ces ids, verrouillées avant suppression
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Registration> findByIdInAndStatusAndExpiresAtLessThanEqual(Collection<Long> ids, String status, LocalDateTime now);
+
+    interface HeldSeat {
+        Long getId();
+        Long getEventId();
+        LocalDateTime getExpiresAt();
+    }
+
     // C'EST LA MÉTHODE MANQUANTE QU'IL FAUT AJOUTER 
     // Elle permet à Spring Boot de supprimer toutes les inscriptions liées à un événement
     void deleteByEventId(Long eventId);
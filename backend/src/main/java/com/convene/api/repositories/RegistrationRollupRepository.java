@@ -0,0 +1,32 @@
+package com.convene.api.repositories;
+
+import com.convene.api.models.RegistrationRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RegistrationRollupRepository extends JpaRepository<RegistrationRollup, Long> {
+
+    // Ajoute les compteurs à la ligne de l'heure (créée si besoin), en une requête
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO registration_rollups (event_id, hour_start, registered, cancelled)
+        VALUES (:eventId, :hourStart, :registered, :cancelled)
+        ON DUPLICATE KEY UPDATE registered = registered + VALUES(registered), cancelled = cancelled + VALUES(cancelled)
+    """, nativeQuery = true)
+    int addCounts(@Param("eventId") Long eventId, @Param("hourStart") LocalDateTime hourStart,
+                  @Param("registered") int registered, @Param("cancelled") int cancelled);
+
+    // Dernières heures (rechargées au démarrage)
+    List<RegistrationRollup> findByHourStartGreaterThanEqual(LocalDateTime since);
+
+    void deleteByEventId(Long eventId);
+}
@@ -0,0 +1,34 @@
+package com.convene.api.repositories;
+
+import com.convene.api.models.WaitlistEntry;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    /**
+     * Premiers de la file, verrouillés.
+     * SKIP LOCKED : deux désinscriptions simultanées ne promeuvent pas la même personne.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<WaitlistEntry> findByEventIdOrderByIdAsc(Long eventId, Limit limit);
+
+    Optional<WaitlistEntry> findByEventIdAndParticipantEmail(Long eventId, String participantEmail);
+
+    // Nombre de personnes devant dans la file
+    long countByEventIdAndIdLessThan(Long eventId, Long id);
+
+    long countByEventId(Long eventId);
+
+    void deleteByEventId(Long eventId);
+}
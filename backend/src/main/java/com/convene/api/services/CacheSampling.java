@@ -0,0 +1,47 @@
+package com.convene.api.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Échantillon aléatoire d'entrées d'une ConcurrentHashMap, pour l'éviction des caches (LRU approché).
+ *
+ * Le début de l'itération suit l'ordre des cases de la table : avec des clés Long, ce sont toujours
+ * les plus petits ids. Chaque tirage descend donc au hasard dans les découpages du spliterator
+ * (chacun coupe la plage de cases en deux) jusqu'à une seule case, soit O(log n) sans copier les clés.
+ * Une case vide est retirée : toutes les entrées ont la même chance d'être choisies.
+ */
+final class CacheSampling {
+
+    // Tirages au plus par entrée demandée : après des suppressions, la table peut être surtout vide
+    private static final int MAX_DRAWS_PER_ENTRY = 8;
+
+    private CacheSampling() {}
+
+    static <K, V> List<Map.Entry<K, V>> sample(ConcurrentHashMap<K, V> map, int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Map.Entry<K, V>> sample = new ArrayList<>(count);
+        List<Map.Entry<K, V>> bin = new ArrayList<>();
+        for (int draw = 0; draw < count * MAX_DRAWS_PER_ENTRY && sample.size() < count; draw++) {
+            Spliterator<Map.Entry<K, V>> part = map.entrySet().spliterator();
+            for (Spliterator<Map.Entry<K, V>> prefix; (prefix = part.trySplit()) != null; ) {
+                if (random.nextBoolean()) {
+                    part = prefix;
+                }
+            }
+            bin.clear();
+            part.forEachRemaining(bin::add);
+            if (!bin.isEmpty()) {
+                sample.add(bin.get(random.nextInt(bin.size())));
+            }
+        }
+        if (sample.isEmpty()) {
+            map.entrySet().stream().limit(count).forEach(sample::add);
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,126 @@
+package com.convene.api.services;
+
+import com.convene.api.dtos.EventResponseDtos;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache des fiches événement (GET /api/events/{id}), borné en taille et en durée.
+ *
+ * Les places restantes ne sont pas figées dans le cache : elles sont relues à chaque lecture
+ * dans SeatInventory, ce qui évite d'invalider l'entrée à chaque inscription.
+ * Les modifications et suppressions d'événements invalident l'entrée (EventService).
+ */
+@Service
+public class EventCache {
+
+    // Nombre d'entrées examinées pour choisir la moins récemment lue (LRU approché)
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final SeatInventory seatInventory;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong generation = new AtomicLong();
+
+    public EventCache(SeatInventory seatInventory,
+                      @Value("${convene.event-cache.max-size:10000}") int maxSize,
+                      @Value("${convene.event-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.seatInventory = seatInventory;
+        this.maxSize = maxSize;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+    }
+
+    /**
+     * Renvoie la fiche en cache, ou la charge avec {@code loader} (les absences ne sont pas mises en cache).
+     */
+    public Optional<EventResponseDtos> get(Long id, Function<Long, Optional<EventResponseDtos>> loader) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(id);
+        if (entry != null && now - entry.loadedAt < ttlNanos) {
+            hits.incrementAndGet();
+            entry.lastAccess = now;
+            return Optional.of(withCurrentSeats(entry.event));
+        }
+
+        misses.incrementAndGet();
+        long generationBefore = generation.get();
+        Optional<EventResponseDtos> loaded = loader.apply(id);
+        // Une invalidation pendant le chargement : la valeur lue est peut-être déjà périmée
+        if (loaded.isPresent() && generation.get() == generationBefore) {
+            entries.put(id, new Entry(loaded.get(), now));
+            evictIfFull();
+        }
+        return loaded.map(this::withCurrentSeats);
+    }
+
+    public void invalidate(Long id) {
+        generation.incrementAndGet();
+        entries.remove(id);
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+        return Map.of(
+                "size", entries.size(),
+                "maxSize", maxSize,
+                "hits", hitCount,
+                "misses", missCount,
+                "evictions", evictions.get(),
+                "hitRate", total == 0 ? 0.0 : (double) hitCount / total
+        );
+    }
+
+    private EventResponseDtos withCurrentSeats(EventResponseDtos event) {
+        int available = seatInventory.peek(event.id());
+        return available < 0 ? event : event.withAvailableSeats(available);
+    }
+
+    // Entrées tirées au hasard : le début de l'itération favoriserait toujours les mêmes ids
+    private void evictIfFull() {
+        while (entries.size() > maxSize) {
+            long now = System.nanoTime();
+            Long victim = null;
+            long oldestAccess = Long.MAX_VALUE;
+            for (Map.Entry<Long, Entry> candidate : CacheSampling.sample(entries, EVICTION_SAMPLE)) {
+                if (now - candidate.getValue().loadedAt >= ttlNanos) {
+                    victim = candidate.getKey();
+                    break;
+                }
+                if (candidate.getValue().lastAccess < oldestAccess) {
+                    oldestAccess = candidate.getValue().lastAccess;
+                    victim = candidate.getKey();
+                }
+            }
+            if (victim == null || entries.remove(victim) == null) {
+                return;
+            }
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static final class Entry {
+        private final EventResponseDtos event;
+        private final long loadedAt;
+        private volatile long lastAccess;
+
+        private Entry(EventResponseDtos event, long loadedAt) {
+            this.event = event;
+            this.loadedAt = loadedAt;
+            this.lastAccess = loadedAt;
+        }
+    }
+}
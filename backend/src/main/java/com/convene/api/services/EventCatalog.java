@@ -0,0 +1,55 @@
+package com.convene.api.services;
+
+import com.convene.api.models.Event;
+import com.convene.api.repositories.EventRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Diffuse les changements du catalogue à toutes les vues en mémoire (EventCatalogListener)
+ * et les recharge au démarrage, en une seule lecture de la table par pages.
+ */
+@Service
+public class EventCatalog {
+
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    private final EventRepository eventRepository;
+    private final List<EventCatalogListener> listeners;
+
+    public EventCatalog(EventRepository eventRepository, List<EventCatalogListener> listeners) {
+        this.eventRepository = eventRepository;
+        this.listeners = listeners;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        listeners.forEach(EventCatalogListener::clear);
+        long lastId = 0;
+        List<Event> page;
+        do {
+            page = eventRepository.findByStatusAndIdGreaterThanOrderByIdAsc("PUBLISHED", lastId, Limit.of(REBUILD_PAGE_SIZE));
+            for (Event event : page) {
+                saved(event);
+                lastId = event.getId();
+            }
+        } while (page.size() == REBUILD_PAGE_SIZE);
+        listeners.forEach(EventCatalogListener::rebuilt);
+    }
+
+    public void saved(Event event) {
+        for (EventCatalogListener listener : listeners) {
+            listener.index(event);
+        }
+    }
+
+    public void removed(Long eventId) {
+        for (EventCatalogListener listener : listeners) {
+            listener.remove(eventId);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.convene.api.services;
+
+import com.convene.api.models.Event;
+
+/**
+ * Vue en mémoire du catalogue (recherche, facettes...) tenue à jour par EventCatalog.
+ * Les appels d'écriture sont faits après commit ; un événement non publié doit être retiré.
+ */
+public interface EventCatalogListener {
+
+    /**
+     * Ajoute ou remplace l'événement.
+     */
+    void index(Event event);
+
+    void remove(Long eventId);
+
+    /**
+     * Vide la vue avant un rechargement complet.
+     */
+    void clear();
+
+    /**
+     * Appelé une fois le rechargement complet terminé.
+     */
+    default void rebuilt() {
+    }
+}
@@ -0,0 +1,31 @@
+package com.convene.api.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position dans la liste des événements triée par (date, id).
+ * Transmise au client sous forme opaque (base64 url-safe).
+ */
+public record EventCursor(LocalDate eventDate, Long id) {
+
+    public String encode() {
+        String raw = eventDate + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException si le curseur n'a pas été produit par {@link #encode()}
+     */
+    public static EventCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new EventCursor(LocalDate.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+    }
+}
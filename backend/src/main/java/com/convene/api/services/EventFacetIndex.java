@@ -0,0 +1,324 @@
+package com.convene.api.services;
+
+import com.convene.api.dtos.EventFacetsDto;
+import com.convene.api.dtos.EventFacetsDto.FacetCount;
+import com.convene.api.models.Event;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compteurs par catégorie, ville et période des événements publiés, tenus à jour à chaque changement
+ * du catalogue : GET /api/events/facets ne fait aucune requête GROUP BY.
+ *
+ * Les compteurs sont gardés pour chaque catégorie, chaque ville et chaque couple (catégorie, ville),
+ * avec un arbre de Fenwick par mois et le détail par jour, ce qui donne le nombre d'événements
+ * sur n'importe quel intervalle de dates en quelques dizaines d'opérations.
+ */
+@Service
+public class EventFacetIndex implements EventCatalogListener {
+
+    public static final String INTERVAL_MONTH = "month";
+    public static final String INTERVAL_WEEK = "week";
+
+    private static final int MAX_VALUES = 100;
+    private static final int MAX_BUCKETS = 120;
+
+    private final EventSearchIndex searchIndex;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final Counts all = new Counts();
+    private final Map<String, Counts> byCategory = new HashMap<>();
+    private final Map<String, Counts> byCity = new HashMap<>();
+    private final Map<String, Map<String, Counts>> byCategoryAndCity = new HashMap<>();
+    // valeur normalisée -> libellé affiché
+    private final Map<String, String> categoryLabels = new HashMap<>();
+    private final Map<String, String> cityLabels = new HashMap<>();
+
+    public EventFacetIndex(EventSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
+    public void index(Event event) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(event.getId());
+            if (!"PUBLISHED".equals(event.getStatus())) {
+                return;
+            }
+            String category = EventSearchIndex.fold(event.getCategory());
+            String city = EventSearchIndex.fold(event.getLocationCity());
+            Cell cell = new Cell(category, city, (int) event.getEventDate().toEpochDay());
+            cells.put(event.getId(), cell);
+            categoryLabels.put(category, event.getCategory().trim());
+            cityLabels.put(city, event.getLocationCity().trim());
+            update(cell, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long eventId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(eventId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            all.clear();
+            byCategory.clear();
+            byCity.clear();
+            byCategoryAndCity.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compteurs pour les filtres donnés ; {@code interval} vaut "month" ou "week".
+     */
+    public EventFacetsDto facets(String search, String category, String city, LocalDate startDate, LocalDate endDate,
+                                 String interval) {
+        String categoryKey = EventSearchIndex.fold(category);
+        String cityKey = EventSearchIndex.fold(city);
+        Integer from = startDate == null ? null : (int) startDate.toEpochDay();
+        Integer to = endDate == null ? null : (int) endDate.toEpochDay();
+        boolean weekly = INTERVAL_WEEK.equalsIgnoreCase(interval);
+
+        lock.readLock().lock();
+        try {
+            if (EventSearchIndex.fold(search) != null) {
+                return facetsOfMatches(searchIndex.matching(search), categoryKey, cityKey, from, to, weekly);
+            }
+
+            Map<String, Long> categories = new HashMap<>();
+            byCategory.forEach((key, counts) -> {
+                Counts source = cityKey == null ? counts : pair(key, cityKey);
+                categories.put(key, source == null ? 0 : source.count(from, to));
+            });
+            Map<String, Long> cities = new HashMap<>();
+            byCity.forEach((key, counts) -> {
+                Counts source = categoryKey == null ? counts : pair(categoryKey, key);
+                cities.put(key, source == null ? 0 : source.count(from, to));
+            });
+
+            Counts selected = select(categoryKey, cityKey);
+            long total = selected == null ? 0 : selected.count(from, to);
+            List<FacetCount> dates = selected == null || selected.days.isEmpty()
+                    ? List.of()
+                    : buckets(from != null ? from : selected.days.firstKey(), to != null ? to : selected.days.lastKey(),
+                              weekly, selected::count);
+            return new EventFacetsDto(total, top(categories, categoryLabels), top(cities, cityLabels),
+                    weekly ? INTERVAL_WEEK : INTERVAL_MONTH, dates);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Avec un texte de recherche, on compte directement les événements trouvés par l'index
+    private EventFacetsDto facetsOfMatches(long[] ids, String categoryKey, String cityKey, Integer from, Integer to,
+                                           boolean weekly) {
+        Map<String, Long> categories = new HashMap<>();
+        Map<String, Long> cities = new HashMap<>();
+        TreeMap<Integer, Integer> days = new TreeMap<>();
+        long total = 0;
+        for (long id : ids) {
+            Cell cell = cells.get(id);
+            if (cell == null || (from != null && cell.day < from) || (to != null && cell.day > to)) {
+                continue;
+            }
+            boolean categoryMatches = categoryKey == null || categoryKey.equals(cell.category);
+            boolean cityMatches = cityKey == null || cityKey.equals(cell.city);
+            if (cityMatches) {
+                categories.merge(cell.category, 1L, Long::sum);
+            }
+            if (categoryMatches) {
+                cities.merge(cell.city, 1L, Long::sum);
+            }
+            if (categoryMatches && cityMatches) {
+                total++;
+                days.merge(cell.day, 1, Integer::sum);
+            }
+        }
+        List<FacetCount> dates = days.isEmpty()
+                ? List.of()
+                : buckets(from != null ? from : days.firstKey(), to != null ? to : days.lastKey(), weekly,
+                          (lo, hi) -> days.subMap(lo, true, hi, true).values().stream().mapToLong(Integer::longValue).sum());
+        return new EventFacetsDto(total, top(categories, categoryLabels), top(cities, cityLabels),
+                weekly ? INTERVAL_WEEK : INTERVAL_MONTH, dates);
+    }
+
+    private List<FacetCount> buckets(int from, int to, boolean weekly, RangeCount count) {
+        List<FacetCount> buckets = new ArrayList<>();
+        LocalDate start = LocalDate.ofEpochDay(from);
+        start = weekly ? start.with(DayOfWeek.MONDAY) : start.withDayOfMonth(1);
+        while (start.toEpochDay() <= to && buckets.size() < MAX_BUCKETS) {
+            LocalDate next = weekly ? start.plusWeeks(1) : start.plusMonths(1);
+            int lo = Math.max(from, (int) start.toEpochDay());
+            int hi = Math.min(to, (int) next.toEpochDay() - 1);
+            buckets.add(new FacetCount(start.toString(), count.between(lo, hi)));
+            start = next;
+        }
+        return buckets;
+    }
+
+    private static List<FacetCount> top(Map<String, Long> counts, Map<String, String> labels) {
+        return counts.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(entry -> new FacetCount(labels.getOrDefault(entry.getKey(), entry.getKey()), entry.getValue()))
+                .sorted(Comparator.comparingLong(FacetCount::count).reversed().thenComparing(FacetCount::value))
+                .limit(MAX_VALUES)
+                .toList();
+    }
+
+    private Counts select(String categoryKey, String cityKey) {
+        if (categoryKey != null && cityKey != null) {
+            return pair(categoryKey, cityKey);
+        }
+        if (categoryKey != null) {
+            return byCategory.get(categoryKey);
+        }
+        return cityKey != null ? byCity.get(cityKey) : all;
+    }
+
+    private Counts pair(String categoryKey, String cityKey) {
+        Map<String, Counts> cities = byCategoryAndCity.get(categoryKey);
+        return cities == null ? null : cities.get(cityKey);
+    }
+
+    private void removeLocked(Long eventId) {
+        Cell previous = cells.remove(eventId);
+        if (previous != null) {
+            update(previous, -1);
+        }
+    }
+
+    private void update(Cell cell, int delta) {
+        all.add(cell.day, delta);
+        add(byCategory, cell.category, cell.day, delta);
+        add(byCity, cell.city, cell.day, delta);
+        Map<String, Counts> cities = byCategoryAndCity.computeIfAbsent(cell.category, key -> new HashMap<>());
+        add(cities, cell.city, cell.day, delta);
+        if (cities.isEmpty()) {
+            byCategoryAndCity.remove(cell.category);
+        }
+    }
+
+    // Les compteurs vides sont retirés pour ne pas afficher de valeurs à zéro
+    private static void add(Map<String, Counts> map, String key, int day, int delta) {
+        Counts counts = map.computeIfAbsent(key, k -> new Counts());
+        counts.add(day, delta);
+        if (counts.total == 0) {
+            map.remove(key);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeCount {
+        long between(int from, int to);
+    }
+
+    private record Cell(String category, String city, int day) {}
+
+    /**
+     * Nombre d'événements par mois (arbre de Fenwick, 1970 à 2097) et par jour.
+     * Les dates hors de cette plage sont comptées dans le premier ou le dernier mois.
+     */
+    private static final class Counts {
+        private static final int MONTHS = 128 * 12;
+
+        private long total;
+        private final int[] months = new int[MONTHS + 1];
+        private final TreeMap<Integer, Integer> days = new TreeMap<>();
+
+        void add(int day, int delta) {
+            total += delta;
+            for (int i = month(day) + 1; i <= MONTHS; i += i & -i) {
+                months[i] += delta;
+            }
+            days.merge(day, delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+
+        void clear() {
+            total = 0;
+            Arrays.fill(months, 0);
+            days.clear();
+        }
+
+        /**
+         * Événements entre from et to inclus (null = sans borne) : mois entiers par l'arbre,
+         * moins les jours des mois de bord qui sont hors de l'intervalle.
+         */
+        long count(Integer from, Integer to) {
+            if (from == null && to == null) {
+                return total;
+            }
+            int firstMonth = from == null ? 0 : month(from);
+            int lastMonth = to == null ? MONTHS - 1 : month(to);
+            if (firstMonth > lastMonth) {
+                return 0;
+            }
+            long count = prefix(lastMonth) - prefix(firstMonth - 1);
+            if (from != null) {
+                count -= sumDays(firstDay(firstMonth), from - 1);
+            }
+            if (to != null) {
+                count -= sumDays(to + 1, lastDay(lastMonth));
+            }
+            return count;
+        }
+
+        private long prefix(int month) {
+            long sum = 0;
+            for (int i = month + 1; i > 0; i -= i & -i) {
+                sum += months[i];
+            }
+            return sum;
+        }
+
+        private long sumDays(int from, int to) {
+            if (from > to) {
+                return 0;
+            }
+            long sum = 0;
+            for (int count : days.subMap(from, true, to, true).values()) {
+                sum += count;
+            }
+            return sum;
+        }
+
+        private static int month(int day) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            int month = (date.getYear() - 1970) * 12 + date.getMonthValue() - 1;
+            return Math.max(0, Math.min(MONTHS - 1, month));
+        }
+
+        private static int firstDay(int month) {
+            return month == 0 ? Integer.MIN_VALUE : (int) LocalDate.of(1970 + month / 12, month % 12 + 1, 1).toEpochDay();
+        }
+
+        private static int lastDay(int month) {
+            return month == MONTHS - 1 ? Integer.MAX_VALUE : firstDay(month + 1) - 1;
+        }
+    }
+}
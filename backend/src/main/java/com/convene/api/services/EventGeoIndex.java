@@ -0,0 +1,484 @@
+package com.convene.api.services;
+
+import com.convene.api.models.Event;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index géographique des événements publiés qui ont des coordonnées, tenu à jour par EventCatalog.
+ *
+ * Chaque point est rangé dans trois grilles (cellules de 0,02°, 0,25° et 2,5°). Les plus proches voisins
+ * sont cherchés en anneaux de cellules autour du point demandé, d'abord sur la grille fine ; le parcours
+ * s'arrête dès que l'anneau suivant est forcément plus loin que le dernier résultat retenu. Si la grille
+ * fine ne suffit pas en quelques anneaux (zone peu dense), la recherche reprend sur la grille suivante.
+ * Les distances sont comparées par la formule de haversine, sans arc sinus par candidat.
+ */
+@Service
+public class EventGeoIndex implements EventCatalogListener {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    // Du plus fin au plus grossier
+    private static final double[] CELL_DEGREES = {0.02, 0.25, 2.5};
+    // Anneaux parcourus sur une grille avant de passer à la suivante
+    private static final int MAX_RINGS = 12;
+    // Cellules au plus parcourues pour un rectangle avant de passer à la grille suivante
+    private static final int MAX_BOX_CELLS = 4096;
+    // En dessous, une cellule est lue sans calculer d'abord sa distance minimale
+    private static final int PRUNE_THRESHOLD = 64;
+
+    private final Map<Long, Point> points = new ConcurrentHashMap<>();
+    private final Grid[] grids = Arrays.stream(CELL_DEGREES).mapToObj(Grid::new).toArray(Grid[]::new);
+
+    @Override
+    public synchronized void clear() {
+        points.clear();
+        for (Grid grid : grids) {
+            grid.cells.clear();
+        }
+    }
+
+    @Override
+    public synchronized void index(Event event) {
+        removeLocked(event.getId());
+        if (!"PUBLISHED".equals(event.getStatus()) || event.getLatitude() == null || event.getLongitude() == null) {
+            return;
+        }
+        Point point = new Point(event.getId(), event.getLatitude(), event.getLongitude(),
+                EventSearchIndex.fold(event.getCategory()), EventSearchIndex.fold(event.getLocationCity()),
+                (int) event.getEventDate().toEpochDay());
+        points.put(point.id(), point);
+        for (Grid grid : grids) {
+            grid.add(point);
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long eventId) {
+        removeLocked(eventId);
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Les {@code limit} événements les plus proches, du plus proche au plus lointain, à moins de
+     * {@code radiusKm} si précisé. {@code among} (ids triés, ou null) restreint aux résultats d'une recherche texte.
+     */
+    public List<Long> nearest(double latitude, double longitude, Double radiusKm, String category, String city,
+                              LocalDate startDate, LocalDate endDate, long[] among, int limit) {
+        Filter filter = filter(category, city, startDate, endDate, among);
+        Probe probe = new Probe(latitude, longitude,
+                radiusKm == null ? Double.POSITIVE_INFINITY : haversine(Math.min(Math.PI, radiusKm / EARTH_RADIUS_KM)));
+        int total = points.size();
+        for (int level = 0; ; level++) {
+            boolean coarsest = level == grids.length - 1;
+            List<Long> result = grids[level].nearest(probe, filter, limit, total, coarsest ? Integer.MAX_VALUE : MAX_RINGS);
+            if (result != null) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Les {@code limit} premiers événements du rectangle, par date puis id.
+     */
+    public List<Long> within(GeoBox box, String category, String city, LocalDate startDate, LocalDate endDate,
+                             long[] among, int limit) {
+        Filter filter = filter(category, city, startDate, endDate, among);
+        // La grille la plus fine qui couvre le rectangle en peu de cellules
+        Grid grid = grids[grids.length - 1];
+        for (Grid candidate : grids) {
+            if (candidate.cellsIn(box) <= MAX_BOX_CELLS) {
+                grid = candidate;
+                break;
+            }
+        }
+        Closest earliest = new Closest(limit);
+        grid.within(box, filter, earliest);
+        return earliest.drain();
+    }
+
+    /**
+     * Distance en kilomètres entre deux points (haversine).
+     */
+    static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double h = new Probe(latitude1, longitude1, 0).haversine(new Point(0, latitude2, longitude2, null, null, 0));
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1, h)));
+    }
+
+    private static Filter filter(String category, String city, LocalDate startDate, LocalDate endDate, long[] among) {
+        return new Filter(EventSearchIndex.fold(category), EventSearchIndex.fold(city),
+                startDate == null ? Integer.MIN_VALUE : (int) startDate.toEpochDay(),
+                endDate == null ? Integer.MAX_VALUE : (int) endDate.toEpochDay(), among);
+    }
+
+    private static double haversine(double angle) {
+        double sin = Math.sin(angle / 2);
+        return sin * sin;
+    }
+
+    private void removeLocked(Long eventId) {
+        Point previous = points.remove(eventId);
+        if (previous != null) {
+            for (Grid grid : grids) {
+                grid.remove(previous);
+            }
+        }
+    }
+
+    /**
+     * Grille de cellules carrées en degrés ; seules les cellules non vides sont gardées.
+     */
+    private static final class Grid {
+        private final double cellDegrees;
+        private final int rows;
+        private final int columns;
+        // ligne * columns + colonne -> cellule
+        private final Map<Integer, Cell> cells = new ConcurrentHashMap<>();
+
+        Grid(double cellDegrees) {
+            this.cellDegrees = cellDegrees;
+            this.rows = (int) Math.round(180 / cellDegrees);
+            this.columns = (int) Math.round(360 / cellDegrees);
+        }
+
+        void add(Point point) {
+            cells.computeIfAbsent(cellOf(point), key -> new Cell()).add(point);
+        }
+
+        void remove(Point point) {
+            int key = cellOf(point);
+            Cell cell = cells.get(key);
+            if (cell != null && cell.remove(point) == 0) {
+                cells.remove(key);
+            }
+        }
+
+        /**
+         * Résultat, ou null si {@code maxRings} anneaux n'ont pas suffi à conclure.
+         */
+        List<Long> nearest(Probe probe, Filter filter, int limit, int total, int maxRings) {
+            int row = row(probe.latitude());
+            int column = column(probe.longitude());
+            int populated = cells.size();
+            Closest closest = new Closest(limit);
+            int seen = 0;
+            for (int ring = 0; ring <= maxRings; ring++) {
+                // Une fois la zone parcourue plus grande que le nombre de cellules occupées,
+                // il revient moins cher de lire directement ces cellules
+                if ((2L * ring + 1) * (2L * ring + 1) > populated) {
+                    Closest all = new Closest(limit);
+                    for (Cell cell : cells.values()) {
+                        scanPoints(cell.slab, probe, filter, all);
+                    }
+                    return all.drain();
+                }
+                seen += scanRing(row, column, ring, probe, filter, closest);
+                double reach = reach(probe, row, ring);
+                if (seen >= total || reach > probe.maxHaversine() || (closest.full() && closest.worst() <= reach)) {
+                    return closest.drain();
+                }
+            }
+            return null;
+        }
+
+        void within(GeoBox box, Filter filter, Closest earliest) {
+            int firstRow = row(box.south());
+            int lastRow = row(box.north());
+            if (cellsIn(box) > cells.size()) {
+                for (Cell cell : cells.values()) {
+                    collect(cell.slab, box, filter, earliest);
+                }
+                return;
+            }
+            int firstColumn = firstColumn(box);
+            int lastColumn = lastColumn(box);
+            for (int r = firstRow; r <= lastRow; r++) {
+                for (int c = firstColumn; c <= lastColumn; c++) {
+                    Cell cell = cells.get(r * columns + Math.floorMod(c, columns));
+                    if (cell != null) {
+                        collect(cell.slab, box, filter, earliest);
+                    }
+                }
+            }
+        }
+
+        long cellsIn(GeoBox box) {
+            return (long) (row(box.north()) - row(box.south()) + 1) * (lastColumn(box) - firstColumn(box) + 1);
+        }
+
+        // Colonnes non ramenées dans [0, columns) : le rectangle peut traverser l'antiméridien
+        private int firstColumn(GeoBox box) {
+            return (int) Math.floor((box.west() + 180) / cellDegrees);
+        }
+
+        private int lastColumn(GeoBox box) {
+            double span = box.west() <= box.east() ? box.east() - box.west() : box.east() - box.west() + 360;
+            return Math.min(firstColumn(box) + columns - 1, (int) Math.floor((box.west() + span + 180) / cellDegrees));
+        }
+
+        // Cellules situées exactement à "ring" cellules de (row, column)
+        private int scanRing(int row, int column, int ring, Probe probe, Filter filter, Closest closest) {
+            if (ring == 0) {
+                return scan(row, column, probe, filter, closest);
+            }
+            int seen = 0;
+            for (int c = column - ring; c <= column + ring; c++) {
+                seen += scan(row - ring, c, probe, filter, closest);
+                seen += scan(row + ring, c, probe, filter, closest);
+            }
+            for (int r = row - ring + 1; r <= row + ring - 1; r++) {
+                seen += scan(r, column - ring, probe, filter, closest);
+                seen += scan(r, column + ring, probe, filter, closest);
+            }
+            return seen;
+        }
+
+        private int scan(int row, int column, Probe probe, Filter filter, Closest closest) {
+            if (row < 0 || row >= rows) {
+                return 0;
+            }
+            Cell cell = cells.get(row * columns + Math.floorMod(column, columns));
+            if (cell == null) {
+                return 0;
+            }
+            Slab slab = cell.slab;
+            // Une cellule chargée entièrement plus loin que le dernier résultat retenu est ignorée
+            if (slab.size() > PRUNE_THRESHOLD && closest.full() && cellReach(row, column, probe) > closest.worst()) {
+                return slab.size();
+            }
+            return scanPoints(slab, probe, filter, closest);
+        }
+
+        /**
+         * Borne inférieure (en haversine) de la distance aux points situés hors du carré déjà parcouru :
+         * ils en sortent soit par le nord ou le sud (écart de latitude), soit par l'est ou l'ouest
+         * (écart de longitude, sur une latitude comprise dans la bande du carré).
+         */
+        private double reach(Probe probe, int row, int ring) {
+            double south = (row - ring) * cellDegrees - 90;
+            double north = (row + ring + 1) * cellDegrees - 90;
+            double latitudeGap = Math.min(row - ring <= 0 ? 180 : probe.latitude() - south,
+                    row + ring >= rows - 1 ? 180 : north - probe.latitude());
+            double west = (Math.floor((probe.longitude() + 180) / cellDegrees) - ring) * cellDegrees - 180;
+            double east = west + (2 * ring + 1) * cellDegrees;
+            double longitudeGap = Math.min(180, Math.min(probe.longitude() - west, east - probe.longitude()));
+
+            double cos = Math.cos(Math.toRadians(Math.min(90, Math.max(Math.abs(south), Math.abs(north)))));
+            return Math.min(haversine(Math.toRadians(Math.min(180, latitudeGap))),
+                    cos * cos * haversine(Math.toRadians(longitudeGap)));
+        }
+
+        // Borne inférieure (en haversine) de la distance aux points de la cellule
+        private double cellReach(int row, int column, Probe probe) {
+            double south = row * cellDegrees - 90;
+            double north = south + cellDegrees;
+            double west = column * cellDegrees - 180;
+            double east = west + cellDegrees;
+            double latitudeGap = Math.max(0, Math.max(south - probe.latitude(), probe.latitude() - north));
+            double longitudeGap = Math.min(180, Math.max(0, Math.max(west - probe.longitude(), probe.longitude() - east)));
+            double widest = Math.min(90, Math.max(Math.abs(probe.latitude()), Math.max(Math.abs(south), Math.abs(north))));
+            double cos = Math.cos(Math.toRadians(widest));
+            return haversine(Math.toRadians(latitudeGap)) + cos * cos * haversine(Math.toRadians(longitudeGap));
+        }
+
+        private int cellOf(Point point) {
+            return row(point.latitude()) * columns + Math.floorMod(column(point.longitude()), columns);
+        }
+
+        private int row(double latitude) {
+            return Math.max(0, Math.min(rows - 1, (int) Math.floor((latitude + 90) / cellDegrees)));
+        }
+
+        // Non ramenée dans [0, columns) : les anneaux se calculent sans se soucier de l'antiméridien
+        private int column(double longitude) {
+            return (int) Math.floor((longitude + 180) / cellDegrees);
+        }
+    }
+
+    private static void collect(Slab slab, GeoBox box, Filter filter, Closest earliest) {
+        for (int i = 0; i < slab.size(); i++) {
+            Point point = slab.points()[i];
+            if (filter.accepts(point) && box.contains(point.latitude(), point.longitude())) {
+                earliest.offer(point.id(), point.day());
+            }
+        }
+    }
+
+    private static int scanPoints(Slab slab, Probe probe, Filter filter, Closest closest) {
+        for (int i = 0; i < slab.size(); i++) {
+            Point point = slab.points()[i];
+            if (filter.accepts(point)) {
+                double h = probe.haversine(point);
+                if (h <= probe.maxHaversine()) {
+                    closest.offer(point.id(), h);
+                }
+            }
+        }
+        return slab.size();
+    }
+
+    private record Point(long id, double latitude, double longitude, double latitudeRadians, double longitudeRadians,
+                         double cosLatitude, String category, String city, int day) {
+
+        Point(long id, double latitude, double longitude, String category, String city, int day) {
+            this(id, latitude, longitude, Math.toRadians(latitude), Math.toRadians(longitude),
+                    Math.cos(Math.toRadians(latitude)), category, city, day);
+        }
+    }
+
+    private record Probe(double latitude, double longitude, double latitudeRadians, double longitudeRadians,
+                         double cosLatitude, double maxHaversine) {
+
+        Probe(double latitude, double longitude, double maxHaversine) {
+            this(latitude, longitude, Math.toRadians(latitude), Math.toRadians(longitude),
+                    Math.cos(Math.toRadians(latitude)), maxHaversine);
+        }
+
+        double haversine(Point point) {
+            double dLat = Math.sin((point.latitudeRadians() - latitudeRadians) / 2);
+            double dLng = Math.sin((point.longitudeRadians() - longitudeRadians) / 2);
+            return dLat * dLat + cosLatitude * point.cosLatitude() * dLng * dLng;
+        }
+    }
+
+    private record Filter(String category, String city, int from, int to, long[] among) {
+
+        boolean accepts(Point point) {
+            return point.day() >= from && point.day() <= to
+                    && (category == null || category.equals(point.category()))
+                    && (city == null || city.equals(point.city()))
+                    && (among == null || Arrays.binarySearch(among, point.id()) >= 0);
+        }
+    }
+
+    /**
+     * Points d'une cellule. Écrits sous le verrou de l'index ; les lecteurs travaillent
+     * sur l'instantané (tableau, taille) publié en dernier.
+     */
+    private static final class Cell {
+        private volatile Slab slab = new Slab(new Point[4], 0);
+
+        void add(Point point) {
+            Slab current = slab;
+            Point[] array = current.points();
+            if (current.size() == array.length) {
+                array = Arrays.copyOf(array, array.length * 2);
+            }
+            array[current.size()] = point;
+            slab = new Slab(array, current.size() + 1);
+        }
+
+        // Copie : un lecteur peut encore parcourir l'ancien tableau
+        int remove(Point point) {
+            Slab current = slab;
+            Point[] array = new Point[current.points().length];
+            int size = 0;
+            for (int i = 0; i < current.size(); i++) {
+                if (current.points()[i].id() != point.id()) {
+                    array[size++] = current.points()[i];
+                }
+            }
+            slab = new Slab(array, size);
+            return size;
+        }
+    }
+
+    private record Slab(Point[] points, int size) {}
+
+    /**
+     * Tas max borné : garde les {@code capacity} plus petites clés (distance ou date), à égalité le plus petit id.
+     */
+    private static final class Closest {
+        private final long[] ids;
+        private final double[] keys;
+        private int size;
+
+        private Closest(int capacity) {
+            this.ids = new long[capacity];
+            this.keys = new double[capacity];
+        }
+
+        boolean full() {
+            return size == ids.length;
+        }
+
+        double worst() {
+            return keys[0];
+        }
+
+        void offer(long id, double key) {
+            if (size < ids.length) {
+                ids[size] = id;
+                keys[size] = key;
+                siftUp(size++);
+            } else if (before(key, id, 0)) {
+                ids[0] = id;
+                keys[0] = key;
+                siftDown(0);
+            }
+        }
+
+        // De la plus petite clé à la plus grande
+        List<Long> drain() {
+            Long[] result = new Long[size];
+            while (size > 0) {
+                result[size - 1] = ids[0];
+                size--;
+                ids[0] = ids[size];
+                keys[0] = keys[size];
+                siftDown(0);
+            }
+            return Arrays.asList(result);
+        }
+
+        private boolean before(double key, long id, int slot) {
+            return key < keys[slot] || (key == keys[slot] && id < ids[slot]);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!before(keys[parent], ids[parent], i)) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                int right = left + 1;
+                int largest = i;
+                if (left < size && before(keys[largest], ids[largest], left)) {
+                    largest = left;
+                }
+                if (right < size && before(keys[largest], ids[largest], right)) {
+                    largest = right;
+                }
+                if (largest == i) {
+                    return;
+                }
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            double key = keys[a];
+            keys[a] = keys[b];
+            keys[b] = key;
+        }
+    }
+}
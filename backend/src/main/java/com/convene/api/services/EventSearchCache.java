@@ -0,0 +1,165 @@
+package com.convene.api.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Regroupe les recherches identiques (GET /api/events) : tant qu'une requête est en cours,
+ * les demandes identiques attendent son résultat au lieu d'en lancer une autre ; le résultat
+ * est ensuite gardé quelques secondes.
+ *
+ * Une modification d'événement invalide les recherches dont les filtres catégorie/ville le concernent.
+ */
+@Service
+public class EventSearchCache {
+
+    // Nombre d'entrées tirées au hasard pour choisir la plus ancienne
+    private static final int EVICTION_SAMPLE = 16;
+
+    /**
+     * Filtres normalisés d'une recherche ; {@code kind} distingue liste complète et page.
+     */
+    public record Key(String kind, String search, String category, String city, LocalDate startDate, LocalDate endDate,
+                      String sort, Integer limit, String cursor) {
+
+        public Key {
+            search = lower(search);
+            category = lower(category);
+            city = lower(city);
+            sort = lower(sort);
+        }
+
+        // Une recherche sans filtre catégorie (ou ville) est concernée par toutes les catégories.
+        // Comparaison sans accents, comme les filtres de l'index : "Fes" trouve les événements de "Fès"
+        boolean concerns(String eventCategory, String eventCity) {
+            return (category == null || same(category, eventCategory)) && (city == null || same(city, eventCity));
+        }
+
+        private static boolean same(String filter, String value) {
+            return Objects.equals(EventSearchIndex.fold(filter), EventSearchIndex.fold(value));
+        }
+
+        private static String lower(String value) {
+            return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Key, Entry> results = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public EventSearchCache(@Value("${convene.search-cache.max-size:512}") int maxSize,
+                            @Value("${convene.search-cache.ttl-ms:5000}") long ttlMs) {
+        this.maxSize = maxSize;
+        this.ttlNanos = Duration.ofMillis(ttlMs).toNanos();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> query) {
+        Entry cached = results.get(key);
+        if (cached != null && System.nanoTime() - cached.storedAt < ttlNanos) {
+            cacheHits.incrementAndGet();
+            return (T) cached.value;
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return (T) join(running);
+        }
+
+        executed.incrementAndGet();
+        long generationBefore = generation.get();
+        try {
+            T value = query.get();
+            // Pas de mise en cache si un événement a changé pendant la requête
+            if (generation.get() == generationBefore) {
+                results.put(key, new Entry(value, System.nanoTime()));
+                evictIfFull();
+            }
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Un événement de cette catégorie et de cette ville a été créé, modifié ou supprimé.
+     */
+    public void invalidate(String category, String city) {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        results.keySet().removeIf(key -> key.concerns(category, city));
+        // Les demandes suivantes ne doivent pas rejoindre une requête lancée avant la modification
+        inFlight.keySet().removeIf(key -> key.concerns(category, city));
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "size", results.size(),
+                "executed", executed.get(),
+                "coalesced", coalesced.get(),
+                "cacheHits", cacheHits.get(),
+                "invalidations", invalidations.get()
+        );
+    }
+
+    private static Object join(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Les résultats expirés partent en premier, sinon le plus ancien d'un échantillon
+    private void evictIfFull() {
+        if (results.size() <= maxSize) {
+            return;
+        }
+        long now = System.nanoTime();
+        results.values().removeIf(entry -> now - entry.storedAt >= ttlNanos);
+        while (results.size() > maxSize) {
+            Key victim = null;
+            long oldest = Long.MAX_VALUE;
+            for (Map.Entry<Key, Entry> candidate : CacheSampling.sample(results, EVICTION_SAMPLE)) {
+                if (candidate.getValue().storedAt < oldest) {
+                    oldest = candidate.getValue().storedAt;
+                    victim = candidate.getKey();
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            results.remove(victim);
+        }
+    }
+
+    private record Entry(Object value, long storedAt) {}
+}
@@ -0,0 +1,529 @@
+package com.convene.api.services;
+
+import com.convene.api.models.Event;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé en mémoire des événements publiés (titre, description, catégorie, ville).
+ *
+ * Les mots sont passés en minuscules et sans accents ; chaque mot de la recherche est un préfixe
+ * ("conc" trouve "Concert") et tous doivent être présents.
+ * Tenu à jour par EventCatalog à chaque création, modification ou suppression.
+ */
+@Service
+public class EventSearchIndex implements EventCatalogListener {
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final long[] EMPTY = new long[0];
+    private static final int ID_BITS = 40;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+    private static final int[] NO_FREQUENCIES = new int[0];
+
+    // Paramètres BM25 usuels ; un mot du titre compte trois fois
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+    private static final double TITLE_WEIGHT = 3.0;
+    private static final int MAX_SCORED_EXPANSIONS = 32;
+
+    private final SeatInventory seatInventory;
+
+    // mot -> ids triés des événements ; la map est triée pour la recherche par préfixe
+    private final ConcurrentSkipListMap<String, Postings> postings = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, Document> documents = new ConcurrentHashMap<>();
+
+    // Nombre total de mots indexés, pour les longueurs moyennes de BM25 (écrits sous le verrou)
+    private volatile long titleTokens;
+    private volatile long bodyTokens;
+
+    public EventSearchIndex(SeatInventory seatInventory) {
+        this.seatInventory = seatInventory;
+    }
+
+    @Override
+    public synchronized void clear() {
+        postings.clear();
+        documents.clear();
+        titleTokens = 0;
+        bodyTokens = 0;
+    }
+
+    /**
+     * Ajoute ou remplace un événement ; un événement non publié est retiré.
+     */
+    @Override
+    public synchronized void index(Event event) {
+        remove(event.getId());
+        if (!"PUBLISHED".equals(event.getStatus())) {
+            return;
+        }
+        // Occurrences de chaque mot : [titre, reste (description, catégorie, ville)]
+        Map<String, int[]> frequencies = new HashMap<>();
+        List<String> title = tokenize(event.getTitle());
+        List<String> body = new ArrayList<>(tokenize(event.getDescription()));
+        body.addAll(tokenize(event.getCategory()));
+        body.addAll(tokenize(event.getLocationCity()));
+        title.forEach(term -> frequencies.computeIfAbsent(term, t -> new int[2])[0]++);
+        body.forEach(term -> frequencies.computeIfAbsent(term, t -> new int[2])[1]++);
+
+        Postings[] lists = new Postings[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+            Postings list = postings.computeIfAbsent(entry.getKey(), Postings::new);
+            list.add(event.getId(), pack(entry.getValue()[0], entry.getValue()[1]));
+            lists[i++] = list;
+        }
+        documents.put(event.getId(), new Document(event.getId(), event.getEventDate(),
+                fold(event.getCategory()), fold(event.getLocationCity()), title.size(), body.size(), lists));
+        titleTokens += title.size();
+        bodyTokens += body.size();
+    }
+
+    @Override
+    public synchronized void remove(Long eventId) {
+        Document previous = documents.remove(eventId);
+        if (previous == null) {
+            return;
+        }
+        for (Postings list : previous.postings()) {
+            if (list.remove(eventId)) {
+                postings.remove(list.term, list);
+            }
+        }
+        titleTokens -= previous.titleLength();
+        bodyTokens -= previous.bodyLength();
+    }
+
+    /**
+     * Ids des événements correspondant à la recherche et aux filtres, triés par date.
+     */
+    public List<Long> search(String text, String category, String city, LocalDate startDate, LocalDate endDate) {
+        return search(text, category, city, startDate, endDate, null, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Page suivante : au plus {@code limit} ids triés par (date, id), strictement après (afterDate, afterId).
+     */
+    public List<Long> search(String text, String category, String city, LocalDate startDate, LocalDate endDate,
+                             LocalDate afterDate, Long afterId, int limit) {
+        String foldedCategory = fold(category);
+        String foldedCity = fold(city);
+        long after = afterDate == null ? Long.MIN_VALUE : key(afterDate, afterId);
+
+        // Une recherche faite uniquement de séparateurs ("!!!", "-") ne correspond à rien, comme l'ancien LIKE
+        List<String> terms = tokenize(text);
+        if (terms.isEmpty() && fold(text) != null) {
+            return List.of();
+        }
+
+        // Tri sur des clés primitives (jour, id) plutôt que sur des objets
+        Collection<Document> candidates = candidates(terms);
+        long[] keys = new long[candidates.size()];
+        int n = 0;
+        for (Document document : candidates) {
+            if (document.matches(foldedCategory, foldedCity, startDate, endDate)) {
+                long key = key(document.eventDate(), document.id());
+                if (key > after) {
+                    keys[n++] = key;
+                }
+            }
+        }
+        Arrays.sort(keys, 0, n);
+
+        Long[] ids = new Long[Math.min(n, limit)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = keys[i] & ID_MASK;
+        }
+        return Arrays.asList(ids);
+    }
+
+    /**
+     * Les {@code limit} événements les plus pertinents pour la recherche (BM25F), du meilleur au moins bon.
+     *
+     * Le titre pèse plus que le reste ; le score est ensuite pondéré par la proximité de la date
+     * et la disponibilité. Seuls les {@code limit} meilleurs sont conservés (tas borné), sans trier
+     * l'ensemble des candidats.
+     */
+    public List<Long> rank(String text, String category, String city, LocalDate startDate, LocalDate endDate, int limit) {
+        List<String> terms = List.copyOf(new LinkedHashSet<>(tokenize(text)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String foldedCategory = fold(category);
+        String foldedCity = fold(city);
+
+        // Pour chaque mot de la recherche : les mots de l'index qu'il préfixe, et leur idf
+        // Les candidats sont parcourus par id croissant : un curseur par liste suffit, sans recherche
+        int documentCount = Math.max(1, documents.size());
+        List<Slice> lists = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        for (String term : terms) {
+            for (Postings list : expand(term)) {
+                Slice slice = list.slice;
+                lists.add(slice);
+                weights.add(Math.log(1 + (documentCount - slice.size() + 0.5) / (slice.size() + 0.5)));
+            }
+        }
+        Slice[] slices = lists.toArray(new Slice[0]);
+        double[] idf = weights.stream().mapToDouble(Double::doubleValue).toArray();
+        int[] cursors = new int[slices.length];
+        double avgTitle = Math.max(1.0, (double) titleTokens / documentCount);
+        double avgBody = Math.max(1.0, (double) bodyTokens / documentCount);
+        long today = LocalDate.now().toEpochDay();
+
+        TopK top = new TopK(limit);
+        for (long id : match(terms)) {
+            Document document = documents.get(id);
+            if (document == null || !document.matches(foldedCategory, foldedCity, startDate, endDate)) {
+                continue;
+            }
+            double titleNorm = 1 - BM25_B + BM25_B * document.titleLength() / avgTitle;
+            double bodyNorm = 1 - BM25_B + BM25_B * document.bodyLength() / avgBody;
+            double score = 0;
+            for (int l = 0; l < slices.length; l++) {
+                int frequency = slices[l].advanceTo(cursors, l, id);
+                if (frequency == 0) {
+                    continue;
+                }
+                double tf = TITLE_WEIGHT * (frequency >>> 16) / titleNorm + (frequency & 0xFFFF) / bodyNorm;
+                score += idf[l] * tf * (BM25_K1 + 1) / (tf + BM25_K1);
+            }
+            top.offer(id, score * boost(document, today));
+        }
+        return top.drain();
+    }
+
+    /**
+     * Ids triés des événements contenant tous les mots de la recherche (sans autre filtre).
+     */
+    public long[] matching(String text) {
+        List<String> terms = tokenize(text);
+        return terms.isEmpty() ? EMPTY : match(terms);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    private Collection<Document> candidates(List<String> terms) {
+        if (terms.isEmpty()) {
+            return documents.values();
+        }
+        long[] ids = match(terms);
+        List<Document> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Document document = documents.get(id);
+            if (document != null) {
+                result.add(document);
+            }
+        }
+        return result;
+    }
+
+    // Intersection des mots de la recherche, en partant du plus rare
+    private long[] match(List<String> terms) {
+        List<long[]> lists = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(terms)) {
+            long[] ids = prefixMatches(term);
+            if (ids.length == 0) {
+                return ids;
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(ids -> ids.length));
+
+        long[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private long[] prefixMatches(String prefix) {
+        Collection<Postings> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+        List<long[]> lists = new ArrayList<>();
+        int total = 0;
+        for (Postings list : range) {
+            long[] ids = list.snapshot();
+            lists.add(ids);
+            total += ids.length;
+        }
+        if (lists.size() <= 1) {
+            return lists.isEmpty() ? EMPTY : lists.get(0);
+        }
+
+        // Préfixe court = beaucoup de mots : une concaténation triée plutôt que des fusions successives
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] ids : lists) {
+            System.arraycopy(ids, 0, all, offset, ids.length);
+            offset += ids.length;
+        }
+        Arrays.sort(all);
+        int n = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (n == 0 || all[i] != all[n - 1]) {
+                all[n++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, n);
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // Mots de l'index commençant par le préfixe ; le mot exact vient en premier (ordre lexicographique)
+    private Postings[] expand(String prefix) {
+        Collection<Postings> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+        List<Postings> lists = new ArrayList<>();
+        for (Postings list : range) {
+            lists.add(list);
+            if (lists.size() == MAX_SCORED_EXPANSIONS) {
+                break;
+            }
+        }
+        return lists.toArray(new Postings[0]);
+    }
+
+    // Événements proches favorisés, passés et complets pénalisés
+    private double boost(Document document, long today) {
+        long days = document.eventDate().toEpochDay() - today;
+        double recency = days < 0 ? 0.5 : 1 + 1 / (1 + days / 30.0);
+        double availability = seatInventory.peek(document.id()) == 0 ? 0.6 : 1.0;
+        return recency * availability;
+    }
+
+    private static long key(LocalDate eventDate, long id) {
+        return (eventDate.toEpochDay() << ID_BITS) | id;
+    }
+
+    // Fréquences dans le titre (16 bits de poids fort) et dans le reste (16 bits de poids faible)
+    private static int pack(int titleFrequency, int bodyFrequency) {
+        return Math.min(titleFrequency, 0xFFFF) << 16 | Math.min(bodyFrequency, 0xFFFF);
+    }
+
+    static List<String> tokenize(String text) {
+        String folded = fold(text);
+        if (folded == null) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Minuscules et sans accents : "Théâtre" -> "theatre"
+    static String fold(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(text.trim(), Normalizer.Form.NFD);
+        return ACCENTS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Liste triée des ids d'un mot. Écrite sous le verrou de l'index ;
+     * les lecteurs travaillent sur l'instantané (tableau, taille) publié en dernier.
+     */
+    private static final class Postings {
+        private final String term;
+        private volatile Slice slice = new Slice(EMPTY, NO_FREQUENCIES, 0);
+
+        private Postings(String term) {
+            this.term = term;
+        }
+
+        // Les ids arrivent presque toujours en ordre croissant : ajout en fin sans copie
+        void add(long id, int frequency) {
+            Slice current = slice;
+            long[] ids = current.ids();
+            int[] frequencies = current.frequencies();
+            int size = current.size();
+            if (size > 0 && ids[size - 1] >= id) {
+                int at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) {
+                    return;
+                }
+                at = -at - 1;
+                long[] idsCopy = new long[Math.max(ids.length, size + 1)];
+                int[] frequenciesCopy = new int[idsCopy.length];
+                System.arraycopy(ids, 0, idsCopy, 0, at);
+                System.arraycopy(frequencies, 0, frequenciesCopy, 0, at);
+                idsCopy[at] = id;
+                frequenciesCopy[at] = frequency;
+                System.arraycopy(ids, at, idsCopy, at + 1, size - at);
+                System.arraycopy(frequencies, at, frequenciesCopy, at + 1, size - at);
+                slice = new Slice(idsCopy, frequenciesCopy, size + 1);
+                return;
+            }
+            if (size == ids.length) {
+                int capacity = Math.max(4, size + (size >> 1));
+                ids = Arrays.copyOf(ids, capacity);
+                frequencies = Arrays.copyOf(frequencies, capacity);
+            }
+            ids[size] = id;
+            frequencies[size] = frequency;
+            slice = new Slice(ids, frequencies, size + 1);
+        }
+
+        // Renvoie true si la liste est devenue vide
+        boolean remove(long id) {
+            Slice current = slice;
+            int at = Arrays.binarySearch(current.ids(), 0, current.size(), id);
+            if (at >= 0) {
+                int size = current.size() - 1;
+                long[] ids = new long[size];
+                int[] frequencies = new int[size];
+                System.arraycopy(current.ids(), 0, ids, 0, at);
+                System.arraycopy(current.ids(), at + 1, ids, at, size - at);
+                System.arraycopy(current.frequencies(), 0, frequencies, 0, at);
+                System.arraycopy(current.frequencies(), at + 1, frequencies, at, size - at);
+                slice = new Slice(ids, frequencies, size);
+            }
+            return slice.size() == 0;
+        }
+
+        long[] snapshot() {
+            Slice current = slice;
+            return Arrays.copyOf(current.ids(), current.size());
+        }
+    }
+
+    private record Slice(long[] ids, int[] frequencies, int size) {
+
+        // Avance le curseur jusqu'à l'id (ids demandés en ordre croissant) ; 0 si l'id est absent
+        int advanceTo(int[] cursors, int index, long id) {
+            int cursor = cursors[index];
+            while (cursor < size && ids[cursor] < id) {
+                cursor++;
+            }
+            cursors[index] = cursor;
+            return cursor < size && ids[cursor] == id ? frequencies[cursor] : 0;
+        }
+    }
+
+    /**
+     * Tas min borné : garde les {@code capacity} meilleurs scores sans objet par candidat.
+     */
+    private static final class TopK {
+        private final long[] ids;
+        private final double[] scores;
+        private int size;
+
+        private TopK(int capacity) {
+            this.ids = new long[capacity];
+            this.scores = new double[capacity];
+        }
+
+        void offer(long id, double score) {
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (better(score, id, 0)) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        // Du meilleur au moins bon
+        List<Long> drain() {
+            Long[] result = new Long[size];
+            while (size > 0) {
+                result[size - 1] = ids[0];
+                size--;
+                ids[0] = ids[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return Arrays.asList(result);
+        }
+
+        // À score égal, le plus petit id l'emporte (ordre stable)
+        private boolean better(double score, long id, int slot) {
+            return score > scores[slot] || (score == scores[slot] && id < ids[slot]);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!better(scores[parent], ids[parent], i)) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && better(scores[child], ids[child], child + 1)) {
+                    child++;
+                }
+                if (!better(scores[i], ids[i], child)) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+
+    private record Document(Long id, LocalDate eventDate, String category, String city,
+                            int titleLength, int bodyLength, Postings[] postings) {
+
+        boolean matches(String category, String city, LocalDate startDate, LocalDate endDate) {
+            return (category == null || category.equals(this.category))
+                    && (city == null || city.equals(this.city))
+                    && (startDate == null || !eventDate.isBefore(startDate))
+                    && (endDate == null || !eventDate.isAfter(endDate));
+        }
+    }
+}
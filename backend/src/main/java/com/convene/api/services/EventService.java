@@ -1,43 +1,120 @@
 package com.convene.api.services;
 
+import com.convene.api.dtos.EventFacetsDto;
+import com.convene.api.dtos.EventPageDto;
 import com.convene.api.dtos.EventRequestDTO;
 import com.convene.api.dtos.EventResponseDtos;
+import com.convene.api.dtos.EventStatsDto;
+import com.convene.api.dtos.EventSummaryDto;
+import com.convene.api.dtos.SuggestionDto;
 import com.convene.api.models.Event;
 import com.convene.api.repositories.EventRepository;
 import com.convene.api.repositories.RegistrationRepository; // <--- NOUVEL IMPORT
+import com.convene.api.repositories.RegistrationRollupRepository;
+import com.convene.api.repositories.WaitlistEntryRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class EventService {
 
+    public static final String SORT_RELEVANCE = "relevance";
+    private static final int DEFAULT_RELEVANCE_LIMIT = 20;
+    private static final int MAX_RELEVANCE_LIMIT = 100;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int LOAD_CHUNK_SIZE = 1000;
+    private static final int DEFAULT_GEO_LIMIT = 20;
+    private static final int MAX_GEO_LIMIT = 500;
+
     private final EventRepository eventRepository;
     private final RegistrationRepository registrationRepository; // <--- NOUVELLE DÉPENDANCE
-    private final S3Service s3Service;
+    private final SeatInventory seatInventory;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final WaitlistService waitlistService;
+    private final EventSearchIndex searchIndex;
+    private final EventCatalog eventCatalog;
+    private final EventFacetIndex facetIndex;
+    private final EventCache eventCache;
+    private final EventSearchCache searchCache;
+    private final EventGeoIndex geoIndex;
+    private final EventSuggestIndex suggestIndex;
+    private final EventVersions eventVersions;
+    private final SeatAvailabilityStream availabilityStream;
+    private final RegistrationStats registrationStats;
+    private final RegistrationRollupRepository registrationRollupRepository;
+    private final Geocoder geocoder;
+    private final ImageVariants imageVariants;
+    private final ImageUploads imageUploads;
+    private final ImageAssets imageAssets;
 
     // Mise à jour du constructeur pour inclure RegistrationRepository
     public EventService(EventRepository eventRepository, 
                         RegistrationRepository registrationRepository, 
-                        S3Service s3Service) {
+                        SeatInventory seatInventory,
+                        WaitlistEntryRepository waitlistEntryRepository,
+                        WaitlistService waitlistService,
+                        EventSearchIndex searchIndex,
+                        EventCatalog eventCatalog,
+                        EventFacetIndex facetIndex,
+                        EventCache eventCache,
+                        EventSearchCache searchCache,
+                        EventGeoIndex geoIndex,
+                        EventSuggestIndex suggestIndex,
+                        EventVersions eventVersions,
+                        SeatAvailabilityStream availabilityStream,
+                        RegistrationStats registrationStats,
+                        RegistrationRollupRepository registrationRollupRepository,
+                        Geocoder geocoder,
+                        ImageVariants imageVariants,
+                        ImageUploads imageUploads,
+                        ImageAssets imageAssets) {
         this.eventRepository = eventRepository;
         this.registrationRepository = registrationRepository;
-        this.s3Service = s3Service;
+        this.seatInventory = seatInventory;
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.waitlistService = waitlistService;
+        this.searchIndex = searchIndex;
+        this.eventCatalog = eventCatalog;
+        this.facetIndex = facetIndex;
+        this.eventCache = eventCache;
+        this.searchCache = searchCache;
+        this.geoIndex = geoIndex;
+        this.suggestIndex = suggestIndex;
+        this.eventVersions = eventVersions;
+        this.availabilityStream = availabilityStream;
+        this.registrationStats = registrationStats;
+        this.registrationRollupRepository = registrationRollupRepository;
+        this.geocoder = geocoder;
+        this.imageVariants = imageVariants;
+        this.imageUploads = imageUploads;
+        this.imageAssets = imageAssets;
     }
 
     // ... (createEvent, getEvents, getEvent, updateEvent restent identiques) ...
     // Je vous remets createEvent pour être sûr que le fichier soit complet
     
+    @Transactional
     public Event createEvent(EventRequestDTO eventDTO, MultipartFile imageFile) throws IOException {
         String imageUrl = null;
-        if (imageFile != null && !imageFile.isEmpty()) {
-            imageUrl = s3Service.uploadImage(imageFile, "events");
+        if (eventDTO.getImageKey() != null) {
+            // Image envoyée directement à S3 : seule sa description est lue
+            imageUrl = imageUploads.complete(eventDTO.getImageKey());
+        } else if (imageFile != null && !imageFile.isEmpty()) {
+            imageUrl = imageAssets.store(imageFile, "events");
         }
 
         Event event = new Event();
@@ -46,42 +123,238 @@ public class EventService {
         event.setCategory(eventDTO.getCategory());
         event.setEventDate(LocalDate.parse(eventDTO.getEventDate()));
         event.setTotalSeats(eventDTO.getTotalSeats());
-        event.setImageUrl(imageUrl);
+        boolean newVariants = replaceImage(event, imageUrl);
         event.setLocationCity(eventDTO.getCity());
         event.setLocationAddress(eventDTO.getAddress());
+        locate(event, eventDTO.getLatitude(), eventDTO.getLongitude());
         event.setOrganizerId(1L); 
         event.setAvailableSeats(eventDTO.getTotalSeats());
         event.setStatus("PUBLISHED");
 
-        return eventRepository.save(event);
+        Event savedEvent = eventRepository.save(event);
+        // La référence à l'image et l'événement sont validés ensemble ; la mémoire suit après le commit
+        TransactionCallbacks.afterCommit(() -> {
+            seatInventory.reset(savedEvent.getId(), savedEvent.getAvailableSeats());
+            eventCatalog.saved(savedEvent);
+            searchCache.invalidate(savedEvent.getCategory(), savedEvent.getLocationCity());
+            eventVersions.saved(savedEvent);
+            if (newVariants) {
+                generateImageVariants(savedEvent.getId(), savedEvent.getImageUrl());
+            }
+        });
+        return savedEvent;
+    }
+
+    /**
+     * Recherche publique. Avec sort=relevance et un texte de recherche, renvoie les {@code limit}
+     * événements les plus pertinents ; sinon tous les résultats par date.
+     */
+    public List<EventSummaryDto> getEvents(String search, String category, String city, LocalDate startDate, LocalDate endDate,
+                                             String sort, Integer limit) {
+        // Les recherches identiques simultanées partagent une seule exécution
+        EventSearchCache.Key key = new EventSearchCache.Key("list", normalize(search), normalize(category), normalize(city),
+                startDate, endDate, normalize(sort), limit, null);
+        List<EventSummaryDto> events = searchCache.get(key, () -> findEvents(search, category, city, startDate, endDate, sort, limit));
+        return withCurrentSeats(events);
+    }
+
+    /**
+     * Recherche publique paginée par curseur (tri par date puis id).
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    public EventPageDto getEventPage(String search, String category, String city, LocalDate startDate, LocalDate endDate,
+                                     String cursor, Integer limit) {
+        EventSearchCache.Key key = new EventSearchCache.Key("page", normalize(search), normalize(category), normalize(city),
+                startDate, endDate, null, limit, normalize(cursor));
+        EventPageDto page = searchCache.get(key, () -> findEventPage(search, category, city, startDate, endDate, cursor, limit));
+        return new EventPageDto(withCurrentSeats(page.items()), page.nextCursor());
+    }
+
+    private List<EventSummaryDto> findEvents(String search, String category, String city, LocalDate startDate, LocalDate endDate,
+                                               String sort, Integer limit) {
+        String normalizedSearch = normalize(search);
+        String normalizedCategory = normalize(category);
+        String normalizedCity = normalize(city);
+        if (normalizedSearch != null && SORT_RELEVANCE.equalsIgnoreCase(normalize(sort))) {
+            int topK = limit == null ? DEFAULT_RELEVANCE_LIMIT : Math.min(Math.max(limit, 1), MAX_RELEVANCE_LIMIT);
+            return load(searchIndex.rank(normalizedSearch, normalizedCategory, normalizedCity, startDate, endDate, topK));
+        }
+        if (normalizedSearch == null) {
+            return eventRepository.searchEvents("PUBLISHED", normalizedCategory, normalizedCity, startDate, endDate);
+        }
+
+        // Recherche texte : l'index en mémoire remplace le LIKE '%...%' (parcours complet de la table)
+        return load(searchIndex.search(normalizedSearch, normalizedCategory, normalizedCity, startDate, endDate));
     }
 
-    public List<EventResponseDtos> getEvents(String search, String category, String city, LocalDate startDate, LocalDate endDate) {
+    private EventPageDto findEventPage(String search, String category, String city, LocalDate startDate, LocalDate endDate,
+                                       String cursor, Integer limit) {
         String normalizedSearch = normalize(search);
         String normalizedCategory = normalize(category);
         String normalizedCity = normalize(city);
-        List<Event> events = eventRepository.searchEvents("PUBLISHED", normalizedCategory, normalizedCity, startDate, endDate, normalizedSearch);
-        return events.stream().map(this::toResponse).toList();
+        EventCursor after = StringUtils.hasText(cursor) ? EventCursor.decode(cursor) : null;
+        LocalDate afterDate = after == null ? null : after.eventDate();
+        Long afterId = after == null ? null : after.id();
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        // Une ligne de plus que demandé pour savoir s'il existe une page suivante
+        List<EventSummaryDto> items;
+        if (normalizedSearch == null) {
+            items = eventRepository.findPage("PUBLISHED", normalizedCategory, normalizedCity, startDate, endDate,
+                    afterDate, afterId, Limit.of(pageSize + 1));
+        } else {
+            items = load(searchIndex.search(normalizedSearch, normalizedCategory, normalizedCity, startDate, endDate,
+                    afterDate, afterId, pageSize + 1));
+        }
+        if (items.size() <= pageSize) {
+            return new EventPageDto(items, null);
+        }
+        items = items.subList(0, pageSize);
+        EventSummaryDto last = items.get(pageSize - 1);
+        return new EventPageDto(items, new EventCursor(last.eventDate(), last.id()).encode());
+    }
+
+    /**
+     * Événements les plus proches de (latitude, longitude), du plus proche au plus lointain,
+     * dans un rayon de {@code radiusKm} si précisé. Les événements sans coordonnées n'apparaissent pas.
+     */
+    public List<EventSummaryDto> getNearbyEvents(String search, String category, String city, LocalDate startDate,
+                                                 LocalDate endDate, double latitude, double longitude, Double radiusKm,
+                                                 Integer limit) {
+        long[] matches = normalize(search) == null ? null : searchIndex.matching(normalize(search));
+        List<Long> ids = geoIndex.nearest(latitude, longitude, radiusKm, normalize(category), normalize(city),
+                startDate, endDate, matches, geoLimit(limit));
+        return withCurrentSeats(load(ids));
+    }
+
+    /**
+     * Événements situés dans le rectangle, par date (vue carte).
+     */
+    public List<EventSummaryDto> getEventsInBox(String search, String category, String city, LocalDate startDate,
+                                                LocalDate endDate, GeoBox box, Integer limit) {
+        long[] matches = normalize(search) == null ? null : searchIndex.matching(normalize(search));
+        List<Long> ids = geoIndex.within(box, normalize(category), normalize(city), startDate, endDate, matches,
+                geoLimit(limit));
+        return withCurrentSeats(load(ids));
+    }
+
+    /**
+     * Complétions de la barre de recherche, servies depuis la mémoire (EventSuggestIndex).
+     */
+    public List<SuggestionDto> getSuggestions(String query, Integer limit) {
+        return suggestIndex.suggest(query, limit == null ? EventSuggestIndex.MAX_SUGGESTIONS : limit);
+    }
+
+    /**
+     * Compteurs du panneau de filtres, calculés en mémoire (EventFacetIndex).
+     */
+    public EventFacetsDto getFacets(String search, String category, String city, LocalDate startDate, LocalDate endDate,
+                                    String interval) {
+        return facetIndex.facets(normalize(search), normalize(category), normalize(city), startDate, endDate, interval);
+    }
+
+    /**
+     * Version de la fiche pour GET conditionnel, sans accès à la base (vide si l'événement n'est pas en mémoire).
+     */
+    public Optional<EventVersions.Version> getEventVersion(Long id) {
+        return eventVersions.event(id);
+    }
+
+    /**
+     * Version commune des listes et facettes pour GET conditionnel.
+     */
+    public EventVersions.Version getCatalogVersion() {
+        return eventVersions.catalog();
+    }
+
+    /**
+     * Flux des places restantes de l'événement (vide s'il n'est pas publié).
+     */
+    public Optional<SseEmitter> subscribeToAvailability(Long id) {
+        return availabilityStream.subscribe(id);
+    }
+
+    /**
+     * Rythme des inscriptions, remplissage et date de complet estimée (compteurs en mémoire, sans lire les inscriptions).
+     */
+    public Optional<EventStatsDto> getStats(Long id) {
+        return getEvent(id).map(event -> {
+            int available = seatInventory.peek(id);
+            return registrationStats.stats(id, event.totalSeats(), available < 0 ? event.availableSeats() : available);
+        });
     }
 
     public Optional<EventResponseDtos> getEvent(Long id) {
-        return eventRepository.findByIdAndStatus(id, "PUBLISHED").map(this::toResponse);
+        return eventCache.get(id, key -> eventRepository.findByIdAndStatus(key, "PUBLISHED").map(this::toResponse));
     }
 
     @Transactional
     public Optional<EventResponseDtos> updateEvent(Long id, EventResponseDtos eventDetails) {
         return eventRepository.findById(id).map(existingEvent -> {
+            String previousCategory = existingEvent.getCategory();
+            String previousCity = existingEvent.getLocationCity();
+            String previousAddress = existingEvent.getLocationAddress();
+            boolean imageChanged = !Objects.equals(existingEvent.getImageUrl(), eventDetails.imageUrl());
             existingEvent.setTitle(eventDetails.title());
             existingEvent.setDescription(eventDetails.description());
             existingEvent.setCategory(eventDetails.category());
-            existingEvent.setImageUrl(eventDetails.imageUrl());
+            // Variantes de l'ancienne image : reprises de l'index ou recalculées après l'enregistrement
+            boolean newVariants = imageChanged && replaceImage(existingEvent, eventDetails.imageUrl());
             existingEvent.setEventDate(eventDetails.eventDate());
             existingEvent.setLocationCity(eventDetails.city());
             existingEvent.setLocationAddress(eventDetails.address());
+            // Sans coordonnées fournies, on ne géocode que si le lieu a changé
+            if (eventDetails.latitude() != null || existingEvent.getLatitude() == null
+                    || !Objects.equals(previousCity, eventDetails.city())
+                    || !Objects.equals(previousAddress, eventDetails.address())) {
+                locate(existingEvent, eventDetails.latitude(), eventDetails.longitude());
+            }
             existingEvent.setTotalSeats(eventDetails.totalSeats());
             existingEvent.setAvailableSeats(eventDetails.availableSeats());
             existingEvent.setStatus(eventDetails.status());
             Event savedEvent = eventRepository.save(existingEvent);
+            // Le nombre de places saisi par l'organisateur remplace le compteur en mémoire
+            TransactionCallbacks.afterCommit(() -> {
+                eventCache.invalidate(id);
+                eventCatalog.saved(savedEvent);
+                searchCache.invalidate(previousCategory, previousCity);
+                searchCache.invalidate(savedEvent.getCategory(), savedEvent.getLocationCity());
+                if ("PUBLISHED".equals(savedEvent.getStatus())) {
+                    seatInventory.reset(id, savedEvent.getAvailableSeats());
+                    // Places ajoutées : d'abord à la liste d'attente
+                    waitlistService.fill(id);
+                } else {
+                    seatInventory.forget(id);
+                }
+                eventVersions.saved(savedEvent);
+                if (newVariants) {
+                    generateImageVariants(id, savedEvent.getImageUrl());
+                }
+            });
+            return toResponse(savedEvent);
+        });
+    }
+
+    /**
+     * Remplace l'image par celle envoyée directement à S3 sous cette clé (voir ImageUploads).
+     *
+     * @throws IllegalArgumentException si l'envoi est inconnu, expiré ou non conforme
+     */
+    @Transactional
+    public Optional<EventResponseDtos> attachImage(Long id, String imageKey) {
+        return eventRepository.findById(id).map(event -> {
+            String imageUrl = imageUploads.complete(imageKey);
+            boolean newVariants = replaceImage(event, imageUrl);
+            Event savedEvent = eventRepository.save(event);
+            TransactionCallbacks.afterCommit(() -> {
+                eventCache.invalidate(id);
+                eventCatalog.saved(savedEvent);
+                searchCache.invalidate(savedEvent.getCategory(), savedEvent.getLocationCity());
+                eventVersions.saved(savedEvent);
+                if (newVariants) {
+                    generateImageVariants(id, imageUrl);
+                }
+            });
             return toResponse(savedEvent);
         });
     }
@@ -91,18 +364,96 @@ public class EventService {
     // =================================================================
     @Transactional
     public boolean deleteEvent(Long id) {
-        if (eventRepository.existsById(id)) {
+        Optional<Event> event = eventRepository.findById(id);
+        if (event.isPresent()) {
             // 1. D'abord, on supprime les inscriptions liées (pour éviter l'erreur Foreign Key)
             registrationRepository.deleteByEventId(id);
+            waitlistEntryRepository.deleteByEventId(id);
+            registrationRollupRepository.deleteByEventId(id);
+            imageAssets.release(event.get().getImageUrl());
 
             // 2. Ensuite, on supprime l'événement
             eventRepository.deleteById(id);
+            TransactionCallbacks.afterCommit(() -> {
+                seatInventory.forget(id);
+                eventCatalog.removed(id);
+                eventCache.invalidate(id);
+                searchCache.invalidate(event.get().getCategory(), event.get().getLocationCity());
+                eventVersions.removed(id);
+                registrationStats.forget(id);
+            });
             return true;
         }
         return false;
     }
     // =================================================================
 
+    // Change l'image d'un événement : une référence rendue, une prise, et les variantes déjà calculées pour ce contenu.
+    // Vrai s'il reste des variantes à calculer
+    private boolean replaceImage(Event event, String imageUrl) {
+        imageAssets.release(event.getImageUrl());
+        imageAssets.acquire(imageUrl);
+        event.setImageUrl(imageUrl);
+        event.setImageSrcset(imageUrl == null ? null : imageAssets.srcset(imageUrl).orElse(null));
+        return imageUrl != null && event.getImageSrcset() == null;
+    }
+
+    // En tâche de fond : l'événement est servi avec l'original seul jusqu'à l'enregistrement des variantes
+    private void generateImageVariants(Long id, String imageUrl) {
+        if (imageUrl == null || imageUrl.isEmpty()) {
+            return;
+        }
+        imageVariants.generate(imageUrl).thenAccept(srcset -> {
+            srcset.ifPresent(value -> imageAssets.variantsGenerated(imageUrl, value));
+            if (srcset.isPresent() && eventRepository.updateImageSrcset(id, imageUrl, srcset.get(), LocalDateTime.now()) > 0) {
+                eventRepository.findById(id).ifPresent(event -> {
+                    eventCache.invalidate(id);
+                    eventCatalog.saved(event);
+                    searchCache.invalidate(event.getCategory(), event.getLocationCity());
+                    eventVersions.saved(event);
+                });
+            }
+        });
+    }
+
+    // Les résultats mis en cache gardent leur nombre de places d'origine : on relit le compteur en mémoire
+    private List<EventSummaryDto> withCurrentSeats(List<EventSummaryDto> events) {
+        return events.stream().map(event -> {
+            int available = seatInventory.peek(event.id());
+            return available < 0 ? event : event.withAvailableSeats(available);
+        }).toList();
+    }
+
+    // Charge les événements trouvés par l'index en respectant son ordre
+    private List<EventSummaryDto> load(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // Par tranches pour garder des listes IN de taille raisonnable
+        Map<Long, EventSummaryDto> events = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += LOAD_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + LOAD_CHUNK_SIZE));
+            eventRepository.findSummaries(chunk, "PUBLISHED").forEach(event -> events.put(event.id(), event));
+        }
+        return ids.stream().map(events::get).filter(Objects::nonNull).toList();
+    }
+
+    private static int geoLimit(Integer limit) {
+        return limit == null ? DEFAULT_GEO_LIMIT : Math.min(Math.max(limit, 1), MAX_GEO_LIMIT);
+    }
+
+    // Coordonnées saisies si elles sont complètes, sinon celles du géocodeur (ou aucune)
+    private void locate(Event event, Double latitude, Double longitude) {
+        if (latitude != null && longitude != null) {
+            event.setLatitude(latitude);
+            event.setLongitude(longitude);
+            return;
+        }
+        Optional<Geocoder.Coordinates> coordinates = geocoder.locate(event.getLocationAddress(), event.getLocationCity());
+        event.setLatitude(coordinates.map(Geocoder.Coordinates::latitude).orElse(null));
+        event.setLongitude(coordinates.map(Geocoder.Coordinates::longitude).orElse(null));
+    }
+
     private EventResponseDtos toResponse(Event event) {
         return new EventResponseDtos(
                 event.getId(),
@@ -110,12 +461,15 @@ public class EventService {
                 event.getDescription(),
                 event.getCategory(),
                 event.getImageUrl(),
+                event.getImageSrcset(),
                 event.getEventDate(),
                 event.getLocationCity(),
                 event.getLocationAddress(),
                 event.getTotalSeats(),
                 event.getAvailableSeats(),
-                event.getStatus()
+                event.getStatus(),
+                event.getLatitude(),
+                event.getLongitude()
         );
     }
 
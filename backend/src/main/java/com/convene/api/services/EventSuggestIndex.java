@@ -0,0 +1,484 @@
+package com.convene.api.services;
+
+import com.convene.api.dtos.SuggestionDto;
+import com.convene.api.models.Event;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Complétion de la barre de recherche (GET /api/events/suggest) : titres, villes et catégories
+ * des événements publiés, rangés dans un arbre radix (préfixes compressés) tenu à jour par EventCatalog.
+ *
+ * Chaque nœud qui couvre plus de MAX_SUGGESTIONS complétions garde ses meilleures complétions ;
+ * une requête descend le préfixe et lit ce résultat, sans accès à la base. Après un changement,
+ * seuls les nœuds du chemin modifié sont recalculés, à la première lecture qui en a besoin.
+ *
+ * Le poids d'un événement combine le nombre d'inscrits (lu dans SeatInventory) et la proximité de sa date ;
+ * une ville ou une catégorie cumule le poids de ses événements. Les poids sont revus périodiquement
+ * car les inscriptions ne passent pas par EventCatalog.
+ */
+@Service
+public class EventSuggestIndex implements EventCatalogListener {
+
+    public static final int MAX_SUGGESTIONS = 10;
+    // Les titres plus longs sont complétés sur leurs premiers caractères seulement
+    private static final int MAX_KEY_LENGTH = 80;
+    // Nombre d'événements repesés entre deux prises du verrou
+    private static final int REWEIGHT_BATCH = 1000;
+    private static final Comparator<Completion> BY_WEIGHT =
+            Comparator.comparingDouble((Completion completion) -> completion.weight).reversed()
+                    .thenComparing(completion -> completion.label);
+
+    enum Kind {
+        TITLE("title"), CITY("city"), CATEGORY("category");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+    }
+
+    private final SeatInventory seatInventory;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("", null);
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    // type + clé normalisée -> complétion
+    private final Map<String, Completion> completions = new HashMap<>();
+
+    public EventSuggestIndex(SeatInventory seatInventory) {
+        this.seatInventory = seatInventory;
+    }
+
+    @Override
+    public void index(Event event) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(event.getId());
+            if (!"PUBLISHED".equals(event.getStatus())) {
+                return;
+            }
+            Entry entry = new Entry(event.getTitle().trim(), event.getLocationCity().trim(), event.getCategory().trim(),
+                    event.getTotalSeats() == null ? 0 : event.getTotalSeats(), (int) event.getEventDate().toEpochDay());
+            int available = seatInventory.peek(event.getId());
+            if (available < 0 && event.getAvailableSeats() != null) {
+                available = event.getAvailableSeats();
+            }
+            entry.registered = available < 0 ? 0 : entry.totalSeats - available;
+            entry.weight = weight(entry.registered, entry.day - LocalDate.now().toEpochDay());
+            entries.put(event.getId(), entry);
+            contribute(entry, entry.weight, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long eventId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(eventId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            completions.clear();
+            root.children = Node.NONE;
+            root.childCount = 0;
+            root.size = 0;
+            root.top = null;
+            root.dirty = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Après le chargement complet, on calcule tous les résultats d'un coup plutôt qu'à la première requête
+    @Override
+    public void rebuilt() {
+        lock.writeLock().lock();
+        try {
+            refresh(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Les {@code limit} meilleures complétions de {@code prefix} (au plus MAX_SUGGESTIONS).
+     */
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        String key = key(prefix);
+        if (key == null) {
+            return List.of();
+        }
+        int count = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        lock.readLock().lock();
+        try {
+            Node node = find(key);
+            if (node == null) {
+                return List.of();
+            }
+            if (!node.dirty || node.size <= MAX_SUGGESTIONS) {
+                return toDtos(best(node), count);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Résultat périmé par une modification : recalcul du sous-arbre sous le verrou d'écriture
+        lock.writeLock().lock();
+        try {
+            Node node = find(key);
+            if (node == null) {
+                return List.of();
+            }
+            refresh(node);
+            return toDtos(best(node), count);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reprend le poids des événements dont le nombre d'inscrits ou l'écart à la date a changé.
+     */
+    @Scheduled(fixedDelayString = "${convene.suggest.reweight-interval-ms:60000}")
+    public void reweight() {
+        long today = LocalDate.now().toEpochDay();
+        Iterator<Map.Entry<Long, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            lock.writeLock().lock();
+            try {
+                for (int i = 0; i < REWEIGHT_BATCH && iterator.hasNext(); i++) {
+                    Map.Entry<Long, Entry> next = iterator.next();
+                    Entry entry = next.getValue();
+                    if (entries.get(next.getKey()) != entry) {
+                        continue;
+                    }
+                    int available = seatInventory.peek(next.getKey());
+                    if (available >= 0) {
+                        entry.registered = entry.totalSeats - available;
+                    }
+                    double weight = weight(entry.registered, entry.day - today);
+                    if (Math.abs(weight - entry.weight) > 1e-9) {
+                        contribute(entry, weight - entry.weight, 0);
+                        entry.weight = weight;
+                    }
+                }
+                refresh(root);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Poids d'un événement : log du nombre d'inscrits, multiplié par un bonus décroissant avec
+     * l'éloignement de la date (les événements passés restent proposés, loin derrière).
+     */
+    static double weight(int registered, long daysAhead) {
+        double popularity = 1 + Math.log1p(Math.max(0, registered));
+        double timeliness = daysAhead < 0 ? 0.1 : 1 + 1.0 / (1 + daysAhead / 30.0);
+        return popularity * timeliness;
+    }
+
+    // Minuscules, sans accents, espaces réduits
+    static String key(String text) {
+        String folded = EventSearchIndex.fold(text);
+        if (folded == null) {
+            return null;
+        }
+        String key = folded.replaceAll("\\s+", " ");
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private void removeLocked(Long eventId) {
+        Entry previous = entries.remove(eventId);
+        if (previous != null) {
+            contribute(previous, -previous.weight, -1);
+        }
+    }
+
+    private void contribute(Entry entry, double weight, int count) {
+        contribute(Kind.TITLE, entry.title, weight, count);
+        contribute(Kind.CITY, entry.city, weight, count);
+        contribute(Kind.CATEGORY, entry.category, weight, count);
+    }
+
+    private void contribute(Kind kind, String label, double weight, int count) {
+        String key = key(label);
+        if (key == null) {
+            return;
+        }
+        String id = kind.ordinal() + key;
+        Completion completion = completions.get(id);
+        if (completion == null) {
+            completion = new Completion(kind, label);
+            completion.node = insert(key);
+            completion.node.completions[kind.ordinal()] = completion;
+            for (Node node = completion.node; node != null; node = node.parent) {
+                node.size++;
+            }
+            completions.put(id, completion);
+        }
+        completion.weight += weight;
+        completion.count += count;
+        if (count > 0) {
+            completion.label = label;
+        }
+        if (completion.count <= 0) {
+            completions.remove(id);
+            detach(completion);
+        } else {
+            markDirty(completion.node);
+        }
+    }
+
+    private void detach(Completion completion) {
+        Node node = completion.node;
+        node.completions[completion.kind.ordinal()] = null;
+        for (Node n = node; n != null; n = n.parent) {
+            n.size--;
+        }
+        markDirty(node);
+        // Les nœuds devenus vides sont retirés
+        while (node.parent != null && node.size == 0) {
+            node.parent.removeChild(node.edge.charAt(0));
+            node = node.parent;
+        }
+    }
+
+    // Les ancêtres d'un nœud périmé le sont aussi : on peut s'arrêter au premier déjà marqué
+    private static void markDirty(Node node) {
+        for (Node n = node; n != null && !n.dirty; n = n.parent) {
+            n.dirty = true;
+        }
+    }
+
+    private Node insert(String key) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i), node);
+                node.putChild(child);
+                return child;
+            }
+            int common = commonPrefix(child.edge, key, i);
+            if (common < child.edge.length()) {
+                // Coupe l'arête au point de divergence
+                Node middle = new Node(child.edge.substring(0, common), node);
+                node.putChild(middle);
+                child.edge = child.edge.substring(common);
+                child.parent = middle;
+                middle.putChild(child);
+                middle.size = child.size;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    // Nœud qui couvre toutes les clés commençant par le préfixe
+    private Node find(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.child(prefix.charAt(i));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefix(child.edge, prefix, i);
+            if (i + common == prefix.length()) {
+                return child;
+            }
+            if (common < child.edge.length()) {
+                return null;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    private static int commonPrefix(String edge, String key, int offset) {
+        int max = Math.min(edge.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && edge.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Recalcule les meilleures complétions des nœuds périmés du sous-arbre.
+     */
+    private static void refresh(Node node) {
+        if (!node.dirty) {
+            return;
+        }
+        for (int i = 0; i < node.childCount; i++) {
+            refresh(node.children[i]);
+        }
+        node.top = null;
+        if (node.size > MAX_SUGGESTIONS) {
+            node.top = best(node).toArray(Completion[]::new);
+        }
+        node.dirty = false;
+    }
+
+    // Les petits sous-arbres sont parcourus à la demande, les grands lisent le résultat des enfants
+    private static List<Completion> best(Node node) {
+        if (node.top != null && !node.dirty) {
+            return Arrays.asList(node.top);
+        }
+        List<Completion> candidates = new ArrayList<>();
+        for (Completion completion : node.completions) {
+            if (completion != null) {
+                candidates.add(completion);
+            }
+        }
+        for (int i = 0; i < node.childCount; i++) {
+            candidates.addAll(best(node.children[i]));
+        }
+        candidates.sort(BY_WEIGHT);
+        return candidates.size() > MAX_SUGGESTIONS ? candidates.subList(0, MAX_SUGGESTIONS) : candidates;
+    }
+
+    private static List<SuggestionDto> toDtos(List<Completion> completions, int count) {
+        return completions.stream()
+                .limit(count)
+                .map(completion -> new SuggestionDto(completion.label, completion.kind.label, completion.count))
+                .toList();
+    }
+
+    /**
+     * Texte proposé : libellé affiché (dernier vu), poids et nombre d'événements cumulés.
+     */
+    private static final class Completion {
+        private final Kind kind;
+        private String label;
+        private double weight;
+        private int count;
+        private Node node;
+
+        private Completion(Kind kind, String label) {
+            this.kind = kind;
+            this.label = label;
+        }
+    }
+
+    private static final class Entry {
+        private final String title;
+        private final String city;
+        private final String category;
+        private final int totalSeats;
+        private final int day;
+        private int registered;
+        private double weight;
+
+        private Entry(String title, String city, String category, int totalSeats, int day) {
+            this.title = title;
+            this.city = city;
+            this.category = category;
+            this.totalSeats = totalSeats;
+            this.day = day;
+        }
+    }
+
+    /**
+     * Nœud de l'arbre radix : {@code edge} est le morceau de clé depuis le parent,
+     * les enfants sont triés par premier caractère.
+     */
+    private static final class Node {
+        private static final Node[] NONE = new Node[0];
+
+        private String edge;
+        private Node parent;
+        private Node[] children = NONE;
+        private int childCount;
+        private final Completion[] completions = new Completion[Kind.values().length];
+        // complétions dans le sous-arbre
+        private int size;
+        private Completion[] top;
+        private boolean dirty;
+
+        private Node(String edge, Node parent) {
+            this.edge = edge;
+            this.parent = parent;
+        }
+
+        Node child(char c) {
+            int i = indexOf(c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        // Ajoute ou remplace l'enfant qui commence par le même caractère
+        void putChild(Node child) {
+            char c = child.edge.charAt(0);
+            int i = indexOf(c);
+            if (i >= 0) {
+                children[i] = child;
+                return;
+            }
+            int at = -i - 1;
+            if (childCount == children.length) {
+                children = Arrays.copyOf(children, Math.max(2, childCount * 2));
+            }
+            System.arraycopy(children, at, children, at + 1, childCount - at);
+            children[at] = child;
+            childCount++;
+        }
+
+        void removeChild(char c) {
+            int i = indexOf(c);
+            if (i >= 0) {
+                System.arraycopy(children, i + 1, children, i, childCount - i - 1);
+                children[--childCount] = null;
+            }
+        }
+
+        private int indexOf(char c) {
+            int low = 0;
+            int high = childCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char value = children[mid].edge.charAt(0);
+                if (value < c) {
+                    low = mid + 1;
+                } else if (value > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -low - 1;
+        }
+    }
+}
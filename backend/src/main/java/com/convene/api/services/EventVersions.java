@@ -0,0 +1,99 @@
+package com.convene.api.services;
+
+import com.convene.api.models.Event;
+import com.convene.api.repositories.EventRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions du catalogue pour les GET conditionnels (ETag / Last-Modified), tenues en mémoire :
+ * EventController peut répondre 304 sans charger l'événement ni sérialiser la réponse.
+ *
+ * EventService signale chaque changement une fois tous les caches invalidés (et non via EventCatalog,
+ * au milieu de la diffusion) : une nouvelle version ne peut pas être associée à un ancien contenu.
+ *
+ * Une fiche est identifiée par (id, updatedAt, places restantes) ; une liste par le nombre de changements
+ * du catalogue et des places depuis le démarrage, préfixé par la date de démarrage pour ne pas
+ * retrouver un ETag d'une exécution précédente.
+ */
+@Service
+public class EventVersions {
+
+    private final EventRepository eventRepository;
+    private final SeatInventory seatInventory;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    // id -> updatedAt (epoch ms) des événements publiés
+    private final Map<Long, Long> updatedAt = new ConcurrentHashMap<>();
+    private final AtomicLong catalogChanges = new AtomicLong();
+    private volatile long catalogChangedAt = System.currentTimeMillis();
+
+    public EventVersions(EventRepository eventRepository, SeatInventory seatInventory) {
+        this.eventRepository = eventRepository;
+        this.seatInventory = seatInventory;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        for (EventRepository.UpdatedAt row : eventRepository.findAllUpdatedAt()) {
+            updatedAt.put(row.getId(), toMillis(row.getUpdatedAt()));
+        }
+        changed();
+    }
+
+    public void saved(Event event) {
+        if ("PUBLISHED".equals(event.getStatus()) && event.getUpdatedAt() != null) {
+            updatedAt.put(event.getId(), toMillis(event.getUpdatedAt()));
+        } else {
+            updatedAt.remove(event.getId());
+        }
+        changed();
+    }
+
+    public void removed(Long eventId) {
+        updatedAt.remove(eventId);
+        changed();
+    }
+
+    /**
+     * Version de la fiche d'un événement publié, ou vide s'il n'est pas en mémoire.
+     */
+    public Optional<Version> event(Long eventId) {
+        Long modified = updatedAt.get(eventId);
+        int available = seatInventory.peek(eventId);
+        if (modified == null || available < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new Version("\"" + eventId + "-" + Long.toString(modified, 36) + "-" + available + "\"",
+                Math.max(modified, seatInventory.changedAt(eventId))));
+    }
+
+    /**
+     * Version commune aux listes (recherche, pages, facettes) : change avec tout événement ou toute place.
+     */
+    public Version catalog() {
+        return new Version("\"" + epoch + "-" + catalogChanges.get() + "-" + seatInventory.version() + "\"",
+                Math.max(catalogChangedAt, seatInventory.lastChangedAt()));
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private void changed() {
+        catalogChangedAt = System.currentTimeMillis();
+        catalogChanges.incrementAndGet();
+    }
+
+    /**
+     * ETag fort (entre guillemets) et date de dernière modification en epoch ms.
+     */
+    public record Version(String etag, long lastModified) {}
+}
@@ -0,0 +1,39 @@
+package com.convene.api.services;
+
+/**
+ * Rectangle de recherche en degrés (WGS 84). Si {@code west > east}, le rectangle traverse l'antiméridien.
+ */
+public record GeoBox(double south, double west, double north, double east) {
+
+    public GeoBox {
+        if (!(south >= -90 && north <= 90 && south <= north && west >= -180 && west <= 180 && east >= -180 && east <= 180)) {
+            throw new IllegalArgumentException("Zone invalide");
+        }
+    }
+
+    /**
+     * Lit "sud,ouest,nord,est", par exemple "33.4,-7.8,33.7,-7.4".
+     * @throws IllegalArgumentException si la zone est mal formée
+     */
+    public static GeoBox parse(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Zone invalide");
+        }
+        try {
+            return new GeoBox(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()),
+                    Double.parseDouble(parts[2].trim()), Double.parseDouble(parts[3].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Zone invalide");
+        }
+    }
+
+    boolean contains(double latitude, double longitude) {
+        if (latitude < south || latitude > north) {
+            return false;
+        }
+        return west <= east
+                ? longitude >= west && longitude <= east
+                : longitude >= west || longitude <= east;
+    }
+}
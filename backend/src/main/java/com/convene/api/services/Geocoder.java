@@ -0,0 +1,18 @@
+package com.convene.api.services;
+
+import java.util.Optional;
+
+/**
+ * Résolution d'une adresse en coordonnées (WGS 84) pour la recherche géographique.
+ * L'implémentation par défaut est StaticCityGeocoder ; un service externe peut la remplacer
+ * en déclarant son propre bean {@code @Primary}.
+ */
+public interface Geocoder {
+
+    /**
+     * Coordonnées de l'adresse, ou vide si elle n'est pas reconnue.
+     */
+    Optional<Coordinates> locate(String address, String city);
+
+    record Coordinates(double latitude, double longitude) {}
+}
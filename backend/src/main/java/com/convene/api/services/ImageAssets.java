@@ -0,0 +1,275 @@
+package com.convene.api.services;
+
+import com.convene.api.models.ImageAsset;
+import com.convene.api.repositories.ImageAssetRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Images d'événement dédupliquées par contenu. Chaque fichier est rangé sous le SHA-256 de ses octets
+ * (S3Service.contentKey) et indexé dans la table image_assets : un fichier déjà connu n'est pas renvoyé à S3,
+ * et ses variantes déjà calculées sont reprises.
+ *
+ * La table compte aussi les événements qui affichent chaque image. Une image qui n'est plus affichée est supprimée
+ * de S3 (original et variantes) après un délai de grâce, pour qu'un envoi du même fichier en cours la retrouve.
+ * Les images envoyées mais jamais rattachées ne sont pas supprimées, comme avant l'index.
+ * Les suppressions S3 passent par un thread dédié : ni une requête HTTP ni une tâche planifiée n'attend S3.
+ */
+@Service
+public class ImageAssets {
+
+    private final S3Service s3Service;
+    private final ImageAssetRepository assetRepository;
+    private final Duration unusedGrace;
+    private final ExecutorService deleter;
+
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong bytesStored = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private final AtomicLong putNanos = new AtomicLong();
+    private final AtomicLong hashNanos = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+
+    public ImageAssets(S3Service s3Service,
+                       ImageAssetRepository assetRepository,
+                       @Value("${convene.images.unused-grace-ms:3600000}") long unusedGraceMs,
+                       @Value("${convene.images.delete-threads:2}") int deleteThreads) {
+        this.s3Service = s3Service;
+        this.assetRepository = assetRepository;
+        this.unusedGrace = Duration.ofMillis(unusedGraceMs);
+        this.deleter = Executors.newFixedThreadPool(deleteThreads, runnable -> {
+            Thread thread = new Thread(runnable, "image-deleter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deleter.shutdown();
+    }
+
+    /**
+     * Range l'image sous la clé de son contenu et renvoie son URL publique ; sans envoi si le contenu est déjà connu.
+     *
+     * @throws IllegalArgumentException si le fichier n'est pas une image de 5 Mo au plus
+     */
+    public String store(MultipartFile file, String folder) throws IOException {
+        S3Service.validateImage(file.getContentType(), file.getSize());
+        long start = System.nanoTime();
+        String hash;
+        try (InputStream content = file.getInputStream()) {
+            hash = S3Service.sha256(content);
+        }
+        hashNanos.addAndGet(System.nanoTime() - start);
+        String key = s3Service.contentKey(folder, hash, file.getOriginalFilename());
+
+        // Supprimée par sweep() entre la lecture et deduplicated : renvoyée comme un nouveau contenu
+        Optional<ImageAsset> known = assetRepository.findByStorageKey(key);
+        if (known.isPresent() && deduplicated(key, file.getSize())) {
+            return known.get().getUrl();
+        }
+        start = System.nanoTime();
+        String url = s3Service.putImage(file, key);
+        putNanos.addAndGet(System.nanoTime() - start);
+        bytesStored.addAndGet(file.getSize());
+        stored.incrementAndGet();
+        assetRepository.insertIfAbsent(key, hash, url, file.getContentType(), file.getSize(), LocalDateTime.now());
+        return url;
+    }
+
+    /**
+     * Envoie en flux une image reçue comme corps brut (POST /api/images/stream, 5 Mo au plus) et l'indexe
+     * sous sa clé aléatoire une fois stockée. Comme les autres images, elle est alors comptée par les événements
+     * qui l'affichent et supprimée par sweep() quand plus aucun ne l'affiche ; jamais rattachée, elle reste
+     * dans le bucket comme les autres envois non rattachés.
+     *
+     * @throws IllegalArgumentException si le corps n'est pas une image de 5 Mo au plus
+     */
+    public CompletableFuture<String> storeStream(InputStream body, String contentType, String filename, String folder)
+            throws IOException {
+        HashingInputStream hashing = new HashingInputStream(body);
+        // Le corps est entièrement lu au retour : l'empreinte et la taille sont connues
+        return s3Service.uploadImageStream(hashing, contentType, filename, folder).thenApply(url -> {
+            registered(s3Service.keyOf(url), hashing.hash(), url, contentType, hashing.size());
+            return url;
+        });
+    }
+
+    /**
+     * Image déjà stockée sous cette clé, s'il y en a une.
+     */
+    public Optional<ImageAsset> find(String key) {
+        return assetRepository.findByStorageKey(key);
+    }
+
+    /**
+     * Indexe une image envoyée directement à S3 sous la clé de son contenu (voir ImageUploads).
+     */
+    public void registered(String key, String hash, String url, String contentType, long size) {
+        stored.incrementAndGet();
+        assetRepository.insertIfAbsent(key, hash, url, contentType, size, LocalDateTime.now());
+    }
+
+    /**
+     * Envoi évité : le contenu était déjà stocké sous cette clé. Repousse sa suppression s'il n'est plus affiché.
+     *
+     * @return false si l'image vient d'être supprimée par sweep() : le contenu doit être renvoyé
+     */
+    public boolean deduplicated(String key, long size) {
+        // 0 ligne : image affichée, jamais rattachée (non concernées par sweep) ou déjà supprimée
+        if (assetRepository.touchUnused(key, LocalDateTime.now()) == 0 && assetRepository.findByStorageKey(key).isEmpty()) {
+            return false;
+        }
+        deduplicated.incrementAndGet();
+        bytesSaved.addAndGet(size);
+        return true;
+    }
+
+    /**
+     * Un événement affiche désormais cette image. Sans effet pour une image hors de l'index (envoyée avant lui).
+     */
+    public void acquire(String imageUrl) {
+        references(imageUrl, 1);
+    }
+
+    /**
+     * Un événement n'affiche plus cette image.
+     */
+    public void release(String imageUrl) {
+        references(imageUrl, -1);
+    }
+
+    /**
+     * Variantes déjà calculées pour cette image par un autre événement.
+     */
+    public Optional<String> srcset(String imageUrl) {
+        String key = s3Service.keyOf(imageUrl);
+        return key == null ? Optional.empty()
+                : assetRepository.findByStorageKey(key).map(ImageAsset::getImageSrcset);
+    }
+
+    public void variantsGenerated(String imageUrl, String srcset) {
+        String key = s3Service.keyOf(imageUrl);
+        if (key != null) {
+            assetRepository.updateImageSrcset(key, srcset);
+        }
+    }
+
+    /**
+     * Supprime de S3 les images qui ne sont plus affichées depuis le délai de grâce, avec leurs variantes.
+     */
+    @Scheduled(fixedDelayString = "${convene.images.unused-sweep-ms:600000}")
+    public void sweep() {
+        LocalDateTime before = LocalDateTime.now().minus(unusedGrace);
+        List<ImageAsset> unused;
+        do {
+            unused = assetRepository.findTop100ByRefCountAndReleasedAtBefore(0, before);
+            for (ImageAsset asset : unused) {
+                if (assetRepository.deleteIfUnused(asset.getId(), before) > 0) {
+                    String key = asset.getStorageKey();
+                    deleteLater(key);
+                    for (int width : ImageVariants.WIDTHS) {
+                        deleteLater(S3Service.variantKey(key, ImageVariants.suffix(width)));
+                    }
+                    deleted.incrementAndGet();
+                }
+            }
+        } while (unused.size() == 100);
+    }
+
+    /**
+     * Supprime l'objet de S3 en tâche de fond, sur le thread des suppressions.
+     */
+    public void deleteLater(String key) {
+        deleter.execute(() -> s3Service.deleteObject(key));
+    }
+
+    public Map<String, Object> stats() {
+        long puts = stored.get();
+        long hits = deduplicated.get();
+        long putBytes = bytesStored.get();
+        // Temps d'envoi évité, estimé au débit moyen des envois faits par l'API
+        double savedMs = putBytes == 0 ? 0.0 : bytesSaved.get() * (putNanos.get() / 1e6) / putBytes;
+        return Map.of(
+                "stored", puts,
+                "deduplicated", hits,
+                "dedupRatio", puts + hits == 0 ? 0.0 : (double) hits / (puts + hits),
+                "bytesSaved", bytesSaved.get(),
+                "uploadMsSaved", savedMs,
+                "hashMs", hashNanos.get() / 1e6,
+                "deleted", deleted.get()
+        );
+    }
+
+    // SHA-256 et taille des octets lus, sans les garder
+    private static final class HashingInputStream extends FilterInputStream {
+
+        private final MessageDigest digest;
+        private long size;
+
+        private HashingInputStream(InputStream in) {
+            super(in);
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                digest.update((byte) b);
+                size++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = in.read(buffer, offset, length);
+            if (read > 0) {
+                digest.update(buffer, offset, read);
+                size += read;
+            }
+            return read;
+        }
+
+        private String hash() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        private long size() {
+            return size;
+        }
+    }
+
+    private void references(String imageUrl, int delta) {
+        String key = s3Service.keyOf(imageUrl);
+        if (key != null) {
+            assetRepository.addReferences(key, delta, LocalDateTime.now());
+        }
+    }
+}
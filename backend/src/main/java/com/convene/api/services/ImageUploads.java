@@ -0,0 +1,179 @@
+package com.convene.api.services;
+
+import com.convene.api.dtos.PresignedUploadDto;
+import com.convene.api.models.ImageAsset;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Images envoyées directement par le navigateur à S3, sur une URL PUT pré-signée : l'API ne lit aucun octet d'image.
+ *
+ * Les clés émises sont gardées en mémoire jusqu'à leur expiration. À la fin de l'envoi, le client transmet sa clé :
+ * elle n'est acceptée qu'une fois, après vérification de l'objet par une requête HEAD (taille et type).
+ * Les envois jamais terminés sont supprimés de S3 à l'expiration de leur clé.
+ *
+ * Si le client donne le SHA-256 du fichier, la clé est celle du contenu (voir ImageAssets) et S3 vérifie
+ * les octets reçus. Un contenu déjà stocké n'est pas renvoyé : la clé est rendue sans URL d'envoi.
+ */
+@Service
+public class ImageUploads {
+
+    private static final Pattern FOLDER = Pattern.compile("[a-z0-9-]+");
+    // Un PUT commencé juste avant l'expiration de l'URL peut encore se terminer
+    private static final Duration COMPLETION_GRACE = Duration.ofMinutes(10);
+
+    private final S3Service s3Service;
+    private final ImageAssets imageAssets;
+    private final int maxPending;
+    private final ConcurrentHashMap<String, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong refused = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+
+    public ImageUploads(S3Service s3Service,
+                        ImageAssets imageAssets,
+                        @Value("${convene.images.max-pending-uploads:10000}") int maxPending) {
+        this.s3Service = s3Service;
+        this.imageAssets = imageAssets;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Signe l'envoi d'une image (mêmes règles que S3Service.uploadImage : image/*, 5 Mo au plus).
+     *
+     * @param sha256 SHA-256 du fichier en hexadécimal, ou null (clé aléatoire, sans déduplication)
+     * @throws IllegalArgumentException si le dossier, le type, la taille ou l'empreinte ne conviennent pas
+     * @throws TooManyUploadsException si trop d'envois sont en attente (réessayer plus tard)
+     */
+    public PresignedUploadDto presign(String folder, String filename, String contentType, long size, String sha256) {
+        if (folder == null || !FOLDER.matcher(folder).matches()) {
+            throw new IllegalArgumentException("Invalid folder");
+        }
+        // Pas de purge ici : elle ferait jusqu'à maxPending suppressions S3 sur le thread de la requête
+        if (pending.size() >= maxPending) {
+            throw new TooManyUploadsException();
+        }
+        if (sha256 != null) {
+            S3Service.validateImage(contentType, size);
+            String key = s3Service.contentKey(folder, sha256, filename);
+            ImageAsset known = imageAssets.find(key).orElse(null);
+            // Déjà stocké : le navigateur n'envoie rien (sauf si sweep() vient de le supprimer)
+            if (known != null && known.getSize() == size && imageAssets.deduplicated(key, size)) {
+                Instant expiresAt = Instant.now().plus(COMPLETION_GRACE);
+                track(key, new Pending(contentType, size, sha256, known.getUrl(), expiresAt, 1));
+                issued.incrementAndGet();
+                return new PresignedUploadDto(null, Map.of(), key, known.getUrl(), expiresAt);
+            }
+        }
+        PresignedUploadDto upload = s3Service.presignImageUpload(folder, filename, contentType, size, sha256);
+        track(upload.key(), new Pending(contentType, size, sha256, null, upload.expiresAt().plus(COMPLETION_GRACE), 1));
+        issued.incrementAndGet();
+        return upload;
+    }
+
+    /**
+     * Valide l'image envoyée sous cette clé et renvoie son URL publique. Une image non conforme est supprimée.
+     *
+     * @throws IllegalArgumentException si la clé est inconnue, expirée ou déjà utilisée, ou si l'objet manque ou ne convient pas
+     */
+    public String complete(String key) {
+        Pending upload = key == null ? null : claim(key);
+        if (upload == null || upload.expiresAt().isBefore(Instant.now())) {
+            refused.incrementAndGet();
+            throw new IllegalArgumentException("Unknown or expired upload");
+        }
+        if (upload.storedUrl() != null) {
+            completed.incrementAndGet();
+            return upload.storedUrl();
+        }
+        S3Service.StoredObject object = s3Service.describe(key).orElse(null);
+        if (object == null) {
+            refused.incrementAndGet();
+            throw new IllegalArgumentException("Image has not been uploaded");
+        }
+        // La signature fixe déjà taille et type : on vérifie tout de même ce que S3 a stocké
+        if (object.size() != upload.size() || !upload.contentType().equals(object.contentType())) {
+            refused.incrementAndGet();
+            // Une clé de contenu peut servir à d'autres envois du même fichier : on la garde
+            if (upload.sha256() == null) {
+                s3Service.deleteObject(key);
+            }
+            throw new IllegalArgumentException("Uploaded image does not match the signed upload");
+        }
+        if (upload.sha256() != null) {
+            imageAssets.registered(key, upload.sha256(), object.url(), object.contentType(), object.size());
+        }
+        completed.incrementAndGet();
+        return object.url();
+    }
+
+    /**
+     * Oublie les clés expirées et supprime les objets éventuellement envoyés sans être rattachés.
+     */
+    @Scheduled(fixedDelayString = "${convene.images.pending-purge-ms:60000}")
+    public void purge() {
+        Instant now = Instant.now();
+        pending.forEach((key, upload) -> {
+            if (upload.expiresAt().isBefore(now) && pending.remove(key, upload)) {
+                abandoned.incrementAndGet();
+                // Un contenu déjà indexé est peut-être affiché ailleurs
+                if (upload.storedUrl() == null && (upload.sha256() == null || imageAssets.find(key).isEmpty())) {
+                    imageAssets.deleteLater(key);
+                }
+            }
+        });
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "pending", pending.size(),
+                "issued", issued.get(),
+                "completed", completed.get(),
+                "refused", refused.get(),
+                "abandoned", abandoned.get()
+        );
+    }
+
+    // Deux envois du même contenu partagent une clé : chacun pourra la valider une fois
+    private void track(String key, Pending upload) {
+        pending.merge(key, upload, (current, added) -> new Pending(current.contentType(), current.size(),
+                current.sha256(), current.storedUrl() != null ? current.storedUrl() : added.storedUrl(),
+                current.expiresAt().isAfter(added.expiresAt()) ? current.expiresAt() : added.expiresAt(),
+                current.claims() + 1));
+    }
+
+    private Pending claim(String key) {
+        Pending[] claimed = new Pending[1];
+        pending.computeIfPresent(key, (k, upload) -> {
+            claimed[0] = upload;
+            return upload.claims() > 1 ? new Pending(upload.contentType(), upload.size(), upload.sha256(),
+                    upload.storedUrl(), upload.expiresAt(), upload.claims() - 1) : null;
+        });
+        return claimed[0];
+    }
+
+    /**
+     * Trop d'envois en attente : le client réessaie plus tard (503).
+     */
+    public static class TooManyUploadsException extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        public TooManyUploadsException() {
+            super("Too many uploads in progress");
+        }
+    }
+
+    // storedUrl : contenu déjà stocké, rien n'a été envoyé
+    private record Pending(String contentType, long size, String sha256, String storedUrl, Instant expiresAt, int claims) {
+    }
+}
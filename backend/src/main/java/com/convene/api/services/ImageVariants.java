@@ -0,0 +1,338 @@
+package com.convene.api.services;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Variantes redimensionnées des images d'événement (vignette, carte, bannière), calculées en tâche de fond
+ * après l'envoi : une carte de la liste télécharge quelques dizaines de Ko au lieu de l'original (jusqu'à 5 Mo).
+ *
+ * Le travail passe par un pool borné (threads et file d'attente) : une rafale d'envois n'occupe pas
+ * les threads des requêtes et ne garde pas des dizaines d'images décodées en mémoire. File pleine,
+ * l'image est refusée et l'événement garde l'original seul.
+ * Les variantes sont en JPEG : ImageIO n'écrit pas le WebP.
+ */
+@Service
+public class ImageVariants {
+
+    // Vignette, carte, bannière
+    static final int[] WIDTHS = {320, 640, 1280};
+    static final String CONTENT_TYPE = "image/jpeg";
+
+    private static final String JPEG_METADATA = "javax_imageio_jpeg_image_1.0";
+
+    private final S3Service s3Service;
+    private final ThreadPoolExecutor workers;
+    private final long maxPixels;
+    private final float quality;
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong renderNanos = new AtomicLong();
+
+    public ImageVariants(S3Service s3Service,
+                         @Value("${convene.images.workers:2}") int workers,
+                         @Value("${convene.images.queue-capacity:100}") int queueCapacity,
+                         @Value("${convene.images.max-pixels:50000000}") long maxPixels,
+                         @Value("${convene.images.jpeg-quality:0.8}") float quality) {
+        this.s3Service = s3Service;
+        this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        this.maxPixels = maxPixels;
+        this.quality = quality;
+    }
+
+    /**
+     * Calcule et stocke les variantes de l'image, puis renvoie son srcset (variantes et original avec leur largeur).
+     * Vide si l'image n'est pas dans notre bucket ; en échec si la file d'attente est pleine ou si l'image est illisible.
+     */
+    public CompletableFuture<Optional<String>> generate(String imageUrl) {
+        try {
+            return CompletableFuture.supplyAsync(() -> process(imageUrl), workers);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Suffixe de la clé d'une variante : events/abc.png -> events/abc-640w.jpg
+    static String suffix(int width) {
+        return "-" + width + "w.jpg";
+    }
+
+    public Map<String, Object> stats() {
+        long count = processed.get();
+        return Map.of(
+                "queued", workers.getQueue().size(),
+                "active", workers.getActiveCount(),
+                "processed", count,
+                "rejected", rejected.get(),
+                "failed", failed.get(),
+                "avgRenderMs", count == 0 ? 0.0 : renderNanos.get() / 1e6 / count
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private Optional<String> process(String imageUrl) {
+        try {
+            Optional<byte[]> original = s3Service.downloadImage(imageUrl);
+            if (original.isEmpty()) {
+                return Optional.empty();
+            }
+            long start = System.nanoTime();
+            Rendition rendition = render(original.get());
+            renderNanos.addAndGet(System.nanoTime() - start);
+
+            StringJoiner srcset = new StringJoiner(", ");
+            for (Variant variant : rendition.variants()) {
+                String url = s3Service.uploadVariant(imageUrl, suffix(variant.width()), variant.content(), CONTENT_TYPE);
+                srcset.add(url + " " + variant.width() + "w");
+            }
+            srcset.add(imageUrl + " " + rendition.width() + "w");
+            processed.incrementAndGet();
+            return Optional.of(srcset.toString());
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            System.err.println("Échec des variantes de " + imageUrl + " : " + e.getMessage());
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            System.err.println("Échec des variantes de " + imageUrl + " : " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Décode l'image et produit les variantes plus étroites que l'original, de la plus petite à la plus grande
+     * (aucun agrandissement). Largeur et variantes tiennent compte de l'orientation EXIF des photos.
+     */
+    Rendition render(byte[] original) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(original))) {
+            Iterator<ImageReader> readers = input == null ? Collections.emptyIterator() : ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("Format d'image non reconnu");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, false);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                // Refusé avant le décodage : une petite image compressée peut annoncer des milliards de pixels
+                if ((long) width * height > maxPixels) {
+                    throw new IllegalArgumentException("Image trop grande : " + width + "x" + height);
+                }
+                int orientation = orientation(reader.getImageMetadata(0));
+                boolean quarterTurn = orientation >= 5;
+                int displayedWidth = quarterTurn ? height : width;
+
+                // Décodage direct à résolution réduite (au moins deux fois la plus grande variante) :
+                // moins de pixels à décompresser et à redimensionner
+                int largest = WIDTHS[WIDTHS.length - 1];
+                int subsampling = Math.max(1, displayedWidth / (2 * largest));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage image = orient(opaque(reader.read(0, param)), orientation);
+
+                List<Variant> variants = new ArrayList<>();
+                // Chaque variante part de la précédente, plus grande
+                for (int i = WIDTHS.length - 1; i >= 0; i--) {
+                    if (WIDTHS[i] < displayedWidth) {
+                        image = scale(image, WIDTHS[i]);
+                        variants.add(new Variant(WIDTHS[i], encode(image)));
+                    }
+                }
+                Collections.reverse(variants);
+                return new Rendition(displayedWidth, variants);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Réductions successives de moitié puis au format final : rapide, sans le crénelage d'une seule grande réduction
+    private static BufferedImage scale(BufferedImage image, int targetWidth) {
+        int targetHeight = Math.max(1, (int) Math.round((double) image.getHeight() * targetWidth / image.getWidth()));
+        BufferedImage current = image;
+        while (current.getWidth() > targetWidth) {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = width == targetWidth ? targetHeight : Math.max(targetHeight, current.getHeight() / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    // JPEG n'a pas de transparence : fond blanc, comme sur les cartes
+    private static BufferedImage opaque(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+
+    // Les navigateurs appliquent l'orientation EXIF de l'original : les variantes doivent être tournées pareil
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        // Matrices (m00, m10, m01, m11, m02, m12) de l'image stockée vers l'image affichée
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);       // miroir horizontal
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height); // demi-tour
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);      // miroir vertical
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);            // symétrie sur la diagonale
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);      // quart de tour horaire
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width); // symétrie sur l'antidiagonale
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);       // quart de tour antihoraire
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+        boolean quarterTurn = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(quarterTurn ? height : width, quarterTurn ? width : height,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = oriented.createGraphics();
+        try {
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return oriented;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Orientation EXIF (1 à 8) d'un JPEG, 1 si absente : balise 0x0112 de l'IFD0 du segment APP1 "Exif".
+     */
+    static int orientation(IIOMetadata metadata) {
+        if (metadata == null || !JPEG_METADATA.equals(metadata.getNativeMetadataFormatName())) {
+            return 1;
+        }
+        Node markers = ((IIOMetadataNode) metadata.getAsTree(JPEG_METADATA)).getElementsByTagName("markerSequence").item(0);
+        for (Node marker = markers == null ? null : markers.getFirstChild(); marker != null; marker = marker.getNextSibling()) {
+            if (marker instanceof IIOMetadataNode node && "unknown".equals(node.getNodeName())
+                    && "225".equals(node.getAttribute("MarkerTag")) && node.getUserObject() instanceof byte[] app1) {
+                int orientation = exifOrientation(app1);
+                if (orientation > 0) {
+                    return orientation;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static int exifOrientation(byte[] app1) {
+        // "Exif\0\0" puis un en-tête TIFF : ordre des octets, 42, position de l'IFD0
+        if (app1.length < 14 || app1[0] != 'E' || app1[1] != 'x' || app1[2] != 'i' || app1[3] != 'f') {
+            return 0;
+        }
+        int tiff = 6;
+        boolean littleEndian = app1[tiff] == 'I';
+        int ifd = tiff + read(app1, tiff + 4, 4, littleEndian);
+        if (ifd < tiff || ifd + 2 > app1.length) {
+            return 0;
+        }
+        int entries = read(app1, ifd, 2, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > app1.length) {
+                return 0;
+            }
+            if (read(app1, entry, 2, littleEndian) == 0x0112) {
+                int orientation = read(app1, entry + 8, 2, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 0;
+            }
+        }
+        return 0;
+    }
+
+    private static int read(byte[] bytes, int offset, int length, boolean littleEndian) {
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            int b = bytes[offset + (littleEndian ? length - 1 - i : i)] & 0xFF;
+            value = (value << 8) | b;
+        }
+        return value;
+    }
+
+    record Variant(int width, byte[] content) {
+    }
+
+    record Rendition(int width, List<Variant> variants) {
+    }
+}
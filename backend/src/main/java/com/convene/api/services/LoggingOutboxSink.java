@@ -0,0 +1,19 @@
+package com.convene.api.services;
+
+import com.convene.api.models.OutboxMessage;
+import org.springframework.stereotype.Component;
+
+/**
+ * Destinataire par défaut de l'outbox : écrit chaque message dans les logs.
+ * Aucun envoi d'email ni de notification n'est encore branché ; sans ce sink, les messages seraient
+ * marqués SENT sans la moindre trace. Le contenu (emails des participants) n'est pas journalisé.
+ */
+@Component
+public class LoggingOutboxSink implements OutboxSink {
+
+    @Override
+    public void deliver(OutboxMessage message) {
+        System.out.println("Outbox " + message.getType() + " #" + message.getId()
+                + " (événement " + message.getEventId() + ")");
+    }
+}
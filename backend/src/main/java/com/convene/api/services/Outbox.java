@@ -0,0 +1,47 @@
+package com.convene.api.services;
+
+import com.convene.api.models.OutboxMessage;
+import com.convene.api.repositories.OutboxMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Écrit les messages de l'outbox dans la transaction de l'appelant :
+ * ils ne sont visibles par OutboxDispatcher que si l'inscription est validée.
+ */
+@Service
+@RequiredArgsConstructor
+public class Outbox {
+
+    public static final String REGISTRATION_CONFIRMED = "REGISTRATION_CONFIRMED";
+    public static final String REGISTRATION_CANCELLED = "REGISTRATION_CANCELLED";
+    public static final String WAITLIST_PROMOTED = "WAITLIST_PROMOTED";
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String type, Long eventId, Map<String, ?> payload) {
+        OutboxMessage message = new OutboxMessage();
+        message.setType(type);
+        message.setEventId(eventId);
+        message.setPayload(toJson(payload));
+        message.setNextAttemptAt(LocalDateTime.now());
+        outboxMessageRepository.save(message);
+    }
+
+    private String toJson(Map<String, ?> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Payload outbox invalide", e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.convene.api.services;
+
+import com.convene.api.models.OutboxMessage;
+import com.convene.api.repositories.OutboxMessageRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vide l'outbox en tâche de fond : lots de messages, envoyés en parallèle (borné) aux OutboxSink.
+ *
+ * Un message n'est marqué SENT qu'après succès de tous ses destinataires ;
+ * en cas d'échec il est retenté plus tard (attente croissante), puis marqué FAILED.
+ * Les messages SENT sont supprimés après la durée de rétention, pour que la table ne grossisse pas sans fin.
+ * L'attente d'un lot est bornée : un destinataire bloqué ne retient pas le thread des tâches planifiées,
+ * ses messages sont reprogrammés comme un échec.
+ */
+@Service
+public class OutboxDispatcher {
+
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final List<OutboxSink> sinks;
+    private final ExecutorService senders;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration sentRetention;
+    private final Duration deliveryTimeout;
+
+    public OutboxDispatcher(OutboxMessageRepository outboxMessageRepository,
+                            List<OutboxSink> sinks,
+                            @Value("${convene.outbox.parallelism:4}") int parallelism,
+                            @Value("${convene.outbox.batch-size:100}") int batchSize,
+                            @Value("${convene.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${convene.outbox.sent-retention-hours:168}") long sentRetentionHours,
+                            @Value("${convene.outbox.delivery-timeout-ms:30000}") long deliveryTimeoutMs) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.sinks = sinks;
+        this.senders = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.sentRetention = Duration.ofHours(sentRetentionHours);
+        this.deliveryTimeout = Duration.ofMillis(deliveryTimeoutMs);
+    }
+
+    @Scheduled(fixedDelayString = "${convene.outbox.poll-interval-ms:1000}")
+    public void dispatchPending() {
+        List<OutboxMessage> batch;
+        do {
+            batch = outboxMessageRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                    OutboxMessage.PENDING, LocalDateTime.now(), Limit.of(batchSize));
+            if (!batch.isEmpty()) {
+                dispatch(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Supprime les messages envoyés depuis plus longtemps que la rétention (7 jours par défaut), par lots.
+     */
+    @Scheduled(fixedDelayString = "${convene.outbox.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        LocalDateTime before = LocalDateTime.now().minus(sentRetention);
+        while (outboxMessageRepository.deleteSentBefore(before, PURGE_BATCH_SIZE) == PURGE_BATCH_SIZE) {
+            // Lot suivant
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+    }
+
+    private void dispatch(List<OutboxMessage> batch) {
+        Queue<Long> sent = new ConcurrentLinkedQueue<>();
+        CompletableFuture<?>[] deliveries = batch.stream()
+                .map(message -> CompletableFuture.runAsync(() -> {
+                    if (deliver(message)) {
+                        sent.add(message.getId());
+                    }
+                }, senders))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(deliveries).orTimeout(deliveryTimeout.toMillis(), TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            // Envois encore en cours : retentés plus tard ; s'ils aboutissent entre-temps, le message part deux fois
+            for (int i = 0; i < deliveries.length; i++) {
+                if (!deliveries[i].isDone()) {
+                    failed(batch.get(i), "Delivery timed out after " + deliveryTimeout.toMillis() + " ms");
+                }
+            }
+        }
+
+        if (!sent.isEmpty()) {
+            outboxMessageRepository.markSent(sent, LocalDateTime.now());
+        }
+    }
+
+    private boolean deliver(OutboxMessage message) {
+        try {
+            for (OutboxSink sink : sinks) {
+                if (sink.supports(message.getType())) {
+                    sink.deliver(message);
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            failed(message, e.getMessage());
+            return false;
+        }
+    }
+
+    private void failed(OutboxMessage message, String error) {
+        int attempts = message.getAttempts() + 1;
+        String status = attempts >= maxAttempts ? OutboxMessage.FAILED : OutboxMessage.PENDING;
+        outboxMessageRepository.markFailed(message.getId(), status,
+                LocalDateTime.now().plus(backoff(attempts)), truncate(error));
+    }
+
+    // 2s, 4s, 8s... plafonné à 5 minutes
+    private Duration backoff(int attempts) {
+        Duration delay = Duration.ofSeconds(1L << Math.min(attempts, 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 255 ? error.substring(0, 255) : error;
+    }
+}
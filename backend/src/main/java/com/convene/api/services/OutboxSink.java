@@ -0,0 +1,19 @@
+package com.convene.api.services;
+
+import com.convene.api.models.OutboxMessage;
+
+/**
+ * Destination des messages de l'outbox (email, statistiques, notifications...).
+ * Chaque bean qui implémente cette interface reçoit les messages qu'il accepte.
+ *
+ * La livraison est "au moins une fois" : un même message peut arriver plusieurs fois,
+ * l'implémentation doit donc être idempotente (l'id du message sert de clé).
+ */
+public interface OutboxSink {
+
+    default boolean supports(String type) {
+        return true;
+    }
+
+    void deliver(OutboxMessage message) throws Exception;
+}
@@ -0,0 +1,156 @@
+package com.convene.api.services;
+
+import com.convene.api.dtos.ParticipantDto;
+import com.convene.api.repositories.EventRepository;
+import com.convene.api.repositories.RegistrationRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Export des participants d'un événement (CSV ou NDJSON) écrit au fil de la lecture :
+ * les lignes passent de la base à la réponse par un tampon fixe, sans liste intermédiaire,
+ * donc la mémoire reste bornée quel que soit le nombre d'inscrits.
+ */
+@Service
+@RequiredArgsConstructor
+public class ParticipantExport {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final RegistrationRepository registrationRepository;
+    private final EventRepository eventRepository;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Format inconnu (csv ou ndjson)");
+            }
+        }
+    }
+
+    public boolean exists(Long eventId) {
+        return eventRepository.existsById(eventId);
+    }
+
+    /**
+     * Écrit tous les participants de l'événement dans {@code out} (qui n'est pas fermé).
+     * Renvoie le nombre de lignes écrites.
+     */
+    @Transactional(readOnly = true)
+    public long write(Long eventId, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long count;
+        try (Stream<ParticipantDto> participants = registrationRepository.streamParticipants(eventId)) {
+            count = format == Format.CSV ? writeCsv(participants, writer) : writeNdjson(participants, writer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // Client parti en cours de route
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static long writeCsv(Stream<ParticipantDto> participants, Writer writer) throws IOException {
+        writer.write("registration_id,email,status,registration_date,expires_at\r\n");
+        long[] count = {0};
+        participants.forEach(participant -> {
+            try {
+                writer.write(String.valueOf(participant.registrationId()));
+                writer.write(',');
+                writer.write(csv(participant.email()));
+                writer.write(',');
+                writer.write(csv(participant.status()));
+                writer.write(',');
+                writer.write(date(participant.registrationDate()));
+                writer.write(',');
+                writer.write(date(participant.expiresAt()));
+                writer.write("\r\n");
+                count[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return count[0];
+    }
+
+    private static long writeNdjson(Stream<ParticipantDto> participants, Writer writer) throws IOException {
+        long[] count = {0};
+        JsonGenerator json = JSON.createGenerator(writer);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        participants.forEach(participant -> {
+            try {
+                json.writeStartObject();
+                json.writeNumberField("registrationId", participant.registrationId());
+                json.writeStringField("email", participant.email());
+                json.writeStringField("status", participant.status());
+                json.writeStringField("registrationDate", nullableDate(participant.registrationDate()));
+                json.writeStringField("expiresAt", nullableDate(participant.expiresAt()));
+                json.writeEndObject();
+                json.writeRaw('\n');
+                count[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        json.flush();
+        return count[0];
+    }
+
+    // RFC 4180, et neutralisation des formules pour les tableurs (=, +, -, @ en tête de cellule)
+    static String csv(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String date(LocalDateTime value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static String nullableDate(LocalDateTime value) {
+        return value == null ? null : value.toString();
+    }
+}
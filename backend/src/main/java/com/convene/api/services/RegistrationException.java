@@ -0,0 +1,38 @@
+package com.convene.api.services;
+
+/**
+ * Refus d'inscription, avec un motif exploitable par le contrôleur.
+ */
+public class RegistrationException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason {
+        EVENT_NOT_FOUND("Événement non trouvé"),
+        SOLD_OUT("Désolé, cet événement est complet."),
+        ALREADY_REGISTERED("Vous êtes déjà inscrit à cet événement."),
+        REGISTRATION_NOT_FOUND("Inscription introuvable"),
+        QUEUE_FULL("Trop de demandes pour cet événement, réessayez dans un instant."),
+        ALREADY_WAITLISTED("Vous êtes déjà sur la liste d'attente de cet événement."),
+        NOT_WAITLISTED("Vous n'êtes pas sur la liste d'attente de cet événement."),
+        SEATS_AVAILABLE("Il reste des places pour cet événement : inscrivez-vous directement."),
+        HOLD_NOT_FOUND("Aucune réservation temporaire en cours pour cet événement (expirée ?).");
+
+        private final String message;
+
+        Reason(String message) {
+            this.message = message;
+        }
+    }
+
+    private final Reason reason;
+
+    public RegistrationException(Reason reason) {
+        super(reason.message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
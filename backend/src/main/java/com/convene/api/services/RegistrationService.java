@@ -1,14 +1,27 @@
 package com.convene.api.services;
 
+import com.convene.api.dtos.BatchRegistrationRequestDto;
+import com.convene.api.dtos.BatchRegistrationResponseDto;
+import com.convene.api.dtos.EventSummaryDto;
+import com.convene.api.dtos.RegistrationDto;
 import com.convene.api.models.Event;
 import com.convene.api.models.Registration;
 import com.convene.api.repositories.EventRepository;
 import com.convene.api.repositories.RegistrationRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -16,46 +29,148 @@ public class RegistrationService {
 
     private final RegistrationRepository registrationRepository;
     private final EventRepository eventRepository;
+    private final SeatInventory seatInventory;
+    private final Outbox outbox;
+    private final WaitlistService waitlistService;
+    private final SeatHoldExpirer seatHoldExpirer;
+    private final RegistrationStats registrationStats;
 
     /**
      * Inscrire un utilisateur à un événement
      */
     @Transactional // Important : Si une étape échoue, tout est annulé (rollback)
     public Registration registerUser(String userEmail, Long eventId) {
-        
-        // 1. Vérifier si l'événement existe
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new RuntimeException("Événement non trouvé"));
-
-        // 2. Vérifier si l'utilisateur est déjà inscrit
-        if (registrationRepository.existsByParticipantEmailAndEventId(userEmail, eventId)) {
-            throw new RuntimeException("Vous êtes déjà inscrit à cet événement.");
+        Registration saved = claimSeat(userEmail, eventId, "CONFIRMED", null);
+        TransactionCallbacks.afterCommit(() -> registrationStats.registered(eventId, 1));
+
+        // Le reste (email, statistiques...) passe par l'outbox, hors de cette transaction
+        recordConfirmation(saved);
+        return saved;
+    }
+
+    /**
+     * Réserver une place pour un temps limité (parcours de paiement).
+     * Sans confirmation avant expiresAt, la place est rendue automatiquement.
+     */
+    @Transactional
+    public Registration holdSeat(String userEmail, Long eventId, Duration ttl) {
+        Registration saved = claimSeat(userEmail, eventId, "HELD", LocalDateTime.now().plus(ttl));
+        TransactionCallbacks.afterCommit(() -> seatHoldExpirer.track(saved.getId(), saved.getExpiresAt()));
+        return saved;
+    }
+
+    /**
+     * Confirmer une réservation temporaire avant son expiration.
+     */
+    @Transactional
+    public Registration confirmHold(String userEmail, Long eventId) {
+        if (registrationRepository.confirmHold(userEmail, eventId, LocalDateTime.now()) == 0) {
+            throw new RegistrationException(RegistrationException.Reason.HOLD_NOT_FOUND);
         }
+        Registration registration = registrationRepository.findByParticipantEmailAndEventId(userEmail, eventId)
+                .orElseThrow(() -> new RegistrationException(RegistrationException.Reason.HOLD_NOT_FOUND));
+        recordConfirmation(registration);
+        TransactionCallbacks.afterCommit(() -> registrationStats.registered(eventId, 1));
+        return registration;
+    }
 
-        // 3. Vérifier s'il reste des places
-        if (event.getAvailableSeats() <= 0) {
-            throw new RuntimeException("Désolé, cet événement est complet.");
+    /**
+     * Abandonner une réservation temporaire.
+     */
+    @Transactional
+    public void releaseHold(String userEmail, Long eventId) {
+        Registration registration = registrationRepository.findByParticipantEmailAndEventId(userEmail, eventId)
+                .filter(r -> "HELD".equals(r.getStatus()))
+                .orElseThrow(() -> new RegistrationException(RegistrationException.Reason.HOLD_NOT_FOUND));
+        registrationRepository.delete(registration);
+        freeSeat(eventId);
+    }
+
+    /**
+     * Inscrire un groupe à un événement.
+     * Les places sont réservées en une fois, les doublons repérés en une requête
+     * et les inscriptions insérées par lots JDBC.
+     */
+    @Transactional
+    public BatchRegistrationResponseDto registerGroup(Long eventId, List<String> emails, BatchRegistrationRequestDto.Mode mode) {
+        if (!seatInventory.contains(eventId)) {
+            throw new RegistrationException(RegistrationException.Reason.EVENT_NOT_FOUND);
         }
 
-        // 4. Créer l'inscription
-        Registration registration = new Registration();
-        registration.setParticipantEmail(userEmail);
-        registration.setEvent(event);
-        registration.setStatus("CONFIRMED");
+        // 1. Dédoublonner la liste (emails en minuscules) en gardant l'ordre, puis écarter les emails déjà inscrits
+        Set<String> requested = new LinkedHashSet<>();
+        emails.forEach(email -> requested.add(email.trim().toLowerCase(Locale.ROOT)));
+        Set<String> alreadyRegistered = registrationRepository.findRegisteredEmails(eventId, requested);
+        List<String> candidates = requested.stream().filter(email -> !alreadyRegistered.contains(email)).toList();
+
+        // 2. Réserver les places d'un coup
+        int granted;
+        if (mode == BatchRegistrationRequestDto.Mode.PARTIAL) {
+            granted = seatInventory.claimUpTo(eventId, candidates.size());
+        } else if (seatInventory.tryClaim(eventId, candidates.size())) {
+            granted = candidates.size();
+        } else {
+            throw new RegistrationException(RegistrationException.Reason.SOLD_OUT);
+        }
+        int claimed = granted;
+        TransactionCallbacks.afterRollback(() -> seatInventory.release(eventId, claimed));
 
-        // 5. Décrémenter le nombre de places disponibles
-        event.setAvailableSeats(event.getAvailableSeats() - 1);
-        eventRepository.save(event);
+        // 3. Insérer les inscriptions (ids par séquence, donc INSERT groupés)
+        Event event = eventRepository.getReferenceById(eventId);
+        List<Registration> registrations = new ArrayList<>(granted);
+        for (String email : candidates.subList(0, granted)) {
+            Registration registration = new Registration();
+            registration.setParticipantEmail(email);
+            registration.setEvent(event);
+            registration.setStatus("CONFIRMED");
+            registrations.add(registration);
+        }
+        try {
+            registrationRepository.saveAllAndFlush(registrations);
+        } catch (DataIntegrityViolationException e) {
+            // Un membre du groupe s'est inscrit seul entre-temps : le client peut renvoyer la demande
+            throw new RegistrationException(RegistrationException.Reason.ALREADY_REGISTERED);
+        }
+        registrations.forEach(this::recordConfirmation);
+        TransactionCallbacks.afterCommit(() -> registrationStats.registered(eventId, claimed));
 
-        // 6. Sauvegarder l'inscription
-        return registrationRepository.save(registration);
+        // 4. Résultat email par email
+        Set<String> registered = new HashSet<>(candidates.subList(0, granted));
+        List<BatchRegistrationResponseDto.Outcome> outcomes = requested.stream()
+                .map(email -> new BatchRegistrationResponseDto.Outcome(email,
+                        registered.contains(email) ? BatchRegistrationResponseDto.Status.REGISTERED
+                                : alreadyRegistered.contains(email) ? BatchRegistrationResponseDto.Status.ALREADY_REGISTERED
+                                : BatchRegistrationResponseDto.Status.SOLD_OUT))
+                .toList();
+        return new BatchRegistrationResponseDto(eventId, requested.size(), granted, outcomes);
+    }
+
+    /**
+     * Récupérer toutes les inscriptions d'un utilisateur avec leur événement (une seule requête)
+     */
+    public List<RegistrationDto> getUserRegistrations(String userEmail) {
+        // La colonne available_seats est mise à jour en différé : on relit le compteur en mémoire
+        return registrationRepository.findSummariesByParticipantEmail(userEmail).stream().map(registration -> {
+            int available = seatInventory.peek(registration.event().id());
+            return available < 0 ? registration : registration.withAvailableSeats(available);
+        }).toList();
     }
 
     /**
-     * Récupérer toutes les inscriptions d'un utilisateur
+     * Inscription avec le résumé de son événement, lu par une requête de projection : ni entité ni proxy Hibernate,
+     * donc sérialisable après la fin de la session (la salle d'attente inscrit sur ses propres threads).
      */
-    public List<Registration> getUserRegistrations(String userEmail) {
-        return registrationRepository.findByParticipantEmail(userEmail);
+    public RegistrationDto toDto(Registration registration) {
+        Long eventId = registration.getEvent().getId();
+        EventSummaryDto event = eventRepository.findSummaries(List.of(eventId), "PUBLISHED").stream()
+                .findFirst()
+                .map(summary -> {
+                    int available = seatInventory.peek(eventId);
+                    return available < 0 ? summary : summary.withAvailableSeats(available);
+                })
+                .orElse(null);
+        return new RegistrationDto(registration.getId(), registration.getStatus(), registration.getRegistrationDate(),
+                registration.getExpiresAt(), event);
     }
 
     /**
@@ -64,18 +179,64 @@ public class RegistrationService {
     @Transactional
     public void cancelRegistration(String userEmail, Long eventId) {
         Registration registration = registrationRepository.findByParticipantEmailAndEventId(userEmail, eventId)
-                .orElseThrow(() -> new RuntimeException("Inscription introuvable"));
-
-        // On remet la place disponible
-        Event event = registration.getEvent();
-        event.setAvailableSeats(event.getAvailableSeats() + 1);
-        eventRepository.save(event);
+                .orElseThrow(() -> new RegistrationException(RegistrationException.Reason.REGISTRATION_NOT_FOUND));
 
         // On supprime l'inscription
         registrationRepository.delete(registration);
+        // Une réservation temporaire abandonnée n'est pas une désinscription (comme releaseHold)
+        if (!"HELD".equals(registration.getStatus())) {
+            outbox.record(Outbox.REGISTRATION_CANCELLED, eventId,
+                    Map.of("registrationId", registration.getId(), "email", userEmail));
+            TransactionCallbacks.afterCommit(() -> registrationStats.cancelled(eventId, 1));
+        }
+
+        freeSeat(eventId);
     }
 
     public List<Registration> getEventRegistrations(Long eventId) {
         return registrationRepository.findByEventId(eventId);
     }
+
+    /**
+     * Réserve une place dans le stock en mémoire puis insère l'inscription.
+     */
+    private Registration claimSeat(String userEmail, Long eventId, String status, LocalDateTime expiresAt) {
+        // 1. Refus immédiat si l'événement est inconnu ou complet, sans MySQL
+        if (!seatInventory.contains(eventId)) {
+            throw new RegistrationException(RegistrationException.Reason.EVENT_NOT_FOUND);
+        }
+        if (!seatInventory.tryClaim(eventId, 1)) {
+            throw new RegistrationException(RegistrationException.Reason.SOLD_OUT);
+        }
+        // Si l'insertion échoue, la place est rendue
+        TransactionCallbacks.afterRollback(() -> seatInventory.release(eventId, 1));
+
+        // 2. Créer l'inscription (la colonne available_seats est mise à jour en différé par SeatInventory)
+        Registration registration = new Registration();
+        registration.setParticipantEmail(userEmail);
+        registration.setEvent(eventRepository.getReferenceById(eventId));
+        registration.setStatus(status);
+        registration.setExpiresAt(expiresAt);
+
+        // 3. Sauvegarder : la contrainte unique (event_id, participant_email) détecte les doublons
+        try {
+            return registrationRepository.saveAndFlush(registration);
+        } catch (DataIntegrityViolationException e) {
+            throw new RegistrationException(RegistrationException.Reason.ALREADY_REGISTERED);
+        }
+    }
+
+    // La place va d'abord au premier de la liste d'attente, sinon elle retourne au stock
+    private void freeSeat(Long eventId) {
+        if (waitlistService.promote(eventId, 1) == 0) {
+            TransactionCallbacks.afterCommit(() -> seatInventory.release(eventId, 1));
+        } else {
+            TransactionCallbacks.afterCommit(() -> registrationStats.registered(eventId, 1));
+        }
+    }
+
+    private void recordConfirmation(Registration registration) {
+        outbox.record(Outbox.REGISTRATION_CONFIRMED, registration.getEvent().getId(),
+                Map.of("registrationId", registration.getId(), "email", registration.getParticipantEmail()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,242 @@
+package com.convene.api.services;
+
+import com.convene.api.dtos.EventStatsDto;
+import com.convene.api.models.RegistrationRollup;
+import com.convene.api.repositories.RegistrationRollupRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Rythme des inscriptions par événement, tenu en mémoire à partir des appels de RegistrationService.
+ *
+ * Chaque événement actif a deux anneaux de compteurs : 60 minutes (taux récent) et 24 heures (historique court),
+ * soit environ 1,5 Ko. Les écarts sont reportés régulièrement, en addition, sur la table registration_rollups
+ * (une ligne par événement et par heure), rechargée au démarrage. Aucune lecture ne parcourt les inscriptions.
+ */
+@Service
+public class RegistrationStats {
+
+    static final int MINUTES = 60;
+    static final int HOURS = 24;
+
+    private final RegistrationRollupRepository rollupRepository;
+    private final ConcurrentHashMap<Long, Series> series = new ConcurrentHashMap<>();
+    // Avant cette minute, l'anneau des minutes est vide (redémarrage) : le taux porte sur moins d'une heure
+    private final long startMinute = minute(System.currentTimeMillis());
+
+    public RegistrationStats(RegistrationRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    /**
+     * Recharge les dernières 24 heures depuis la table de cumul.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long now = System.currentTimeMillis();
+        LocalDateTime since = hourStart(minute(now) / 60 - HOURS + 1);
+        for (RegistrationRollup rollup : rollupRepository.findByHourStartGreaterThanEqual(since)) {
+            long hour = rollup.getHourStart().atZone(ZoneId.systemDefault()).toEpochSecond() / 3600;
+            update(rollup.getEventId(), current -> current.restore(hour, rollup.getRegistered(), rollup.getCancelled()));
+        }
+    }
+
+    public void registered(Long eventId, int count) {
+        record(eventId, count, 0, System.currentTimeMillis());
+    }
+
+    public void cancelled(Long eventId, int count) {
+        record(eventId, 0, count, System.currentTimeMillis());
+    }
+
+    void record(Long eventId, int registered, int cancelled, long nowMillis) {
+        if (registered > 0 || cancelled > 0) {
+            long minute = minute(nowMillis);
+            update(eventId, current -> current.add(minute, registered, cancelled));
+        }
+    }
+
+    public void forget(Long eventId) {
+        series.remove(eventId);
+    }
+
+    public EventStatsDto stats(Long eventId, int totalSeats, int availableSeats) {
+        return stats(eventId, totalSeats, availableSeats, System.currentTimeMillis());
+    }
+
+    EventStatsDto stats(Long eventId, int totalSeats, int availableSeats, long nowMillis) {
+        long now = minute(nowMillis);
+        int[] lastHour = new int[2];
+        List<EventStatsDto.HourlyCount> hourly = new ArrayList<>(HOURS);
+        Series current = series.get(eventId);
+        if (current != null) {
+            current.read(now, lastHour, hourly);
+        } else {
+            for (long hour = now / 60 - HOURS + 1; hour <= now / 60; hour++) {
+                hourly.add(new EventStatsDto.HourlyCount(hourStart(hour), 0, 0));
+            }
+        }
+
+        long registered24h = hourly.stream().mapToLong(EventStatsDto.HourlyCount::registered).sum();
+        long cancelled24h = hourly.stream().mapToLong(EventStatsDto.HourlyCount::cancelled).sum();
+        double window = Math.max(1, Math.min(MINUTES, now - startMinute + 1)) / 60.0;
+        double registrationsPerHour = lastHour[0] / window;
+        double cancellationsPerHour = lastHour[1] / window;
+        // Remplissage net sur l'heure écoulée, sinon sur la journée
+        double netPerHour = registrationsPerHour - cancellationsPerHour;
+        if (netPerHour <= 0) {
+            netPerHour = (registered24h - cancelled24h) / (double) HOURS;
+        }
+
+        boolean soldOut = availableSeats <= 0;
+        LocalDateTime projectedSellOut = null;
+        if (!soldOut && netPerHour > 0) {
+            long millis = (long) (availableSeats / netPerHour * 3_600_000);
+            projectedSellOut = LocalDateTime.ofInstant(Instant.ofEpochMilli(nowMillis + millis), ZoneId.systemDefault());
+        }
+        double fill = totalSeats > 0 ? 100.0 * (totalSeats - Math.max(availableSeats, 0)) / totalSeats : 0;
+        return new EventStatsDto(eventId, totalSeats, availableSeats, fill, registrationsPerHour, cancellationsPerHour,
+                registered24h, cancelled24h, soldOut, projectedSellOut, hourly);
+    }
+
+    /**
+     * Reporte les compteurs accumulés depuis le dernier passage sur registration_rollups,
+     * et oublie les événements sans activité depuis 24 heures.
+     */
+    @Scheduled(fixedDelayString = "${convene.stats.rollup-interval-ms:300000}")
+    @PreDestroy
+    public synchronized void flush() {
+        long idleBefore = minute(System.currentTimeMillis()) - HOURS * 60L;
+        series.forEach((eventId, current) -> {
+            Map<Long, int[]> pending = current.drain();
+            pending.forEach((hour, counts) -> {
+                try {
+                    rollupRepository.addCounts(eventId, hourStart(hour), counts[0], counts[1]);
+                } catch (RuntimeException e) {
+                    // On garde l'écart pour le prochain passage
+                    current.restorePending(hour, counts);
+                    System.err.println("Échec du cumul des inscriptions : " + e.getMessage());
+                }
+            });
+            series.computeIfPresent(eventId, (id, idle) -> idle.idleSince(idleBefore) ? null : idle);
+        });
+    }
+
+    // Modification sous le verrou de la map : un passage de flush() ne peut pas retirer la série en même temps
+    private void update(Long eventId, Consumer<Series> change) {
+        series.compute(eventId, (id, current) -> {
+            Series target = current != null ? current : new Series();
+            change.accept(target);
+            return target;
+        });
+    }
+
+    private static long minute(long millis) {
+        return millis / 60_000;
+    }
+
+    private static LocalDateTime hourStart(long hour) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(hour * 3600), ZoneId.systemDefault());
+    }
+
+    private static final class Series {
+        private final int[] minuteRegistered = new int[MINUTES];
+        private final int[] minuteCancelled = new int[MINUTES];
+        private final long[] minuteStamp = new long[MINUTES];
+        private final int[] hourRegistered = new int[HOURS];
+        private final int[] hourCancelled = new int[HOURS];
+        private final long[] hourStamp = new long[HOURS];
+        // Compteurs pas encore reportés en base, par heure
+        private final Map<Long, int[]> pending = new HashMap<>();
+        private long lastMinute;
+
+        private Series() {
+            Arrays.fill(minuteStamp, -1);
+            Arrays.fill(hourStamp, -1);
+        }
+
+        private synchronized void add(long minute, int registered, int cancelled) {
+            int slot = (int) (minute % MINUTES);
+            if (minuteStamp[slot] <= minute) {
+                if (minuteStamp[slot] != minute) {
+                    minuteStamp[slot] = minute;
+                    minuteRegistered[slot] = 0;
+                    minuteCancelled[slot] = 0;
+                }
+                minuteRegistered[slot] += registered;
+                minuteCancelled[slot] += cancelled;
+            }
+            addHour(minute / 60, registered, cancelled);
+            int[] counts = pending.computeIfAbsent(minute / 60, h -> new int[2]);
+            counts[0] += registered;
+            counts[1] += cancelled;
+            lastMinute = Math.max(lastMinute, minute);
+        }
+
+        // Historique relu depuis la base : compté dans l'anneau des heures, pas à reporter
+        private synchronized void restore(long hour, int registered, int cancelled) {
+            addHour(hour, registered, cancelled);
+            lastMinute = Math.max(lastMinute, hour * 60);
+        }
+
+        private void addHour(long hour, int registered, int cancelled) {
+            int slot = (int) (hour % HOURS);
+            if (hourStamp[slot] > hour) {
+                return; // Plus vieux que 24 heures
+            }
+            if (hourStamp[slot] != hour) {
+                hourStamp[slot] = hour;
+                hourRegistered[slot] = 0;
+                hourCancelled[slot] = 0;
+            }
+            hourRegistered[slot] += registered;
+            hourCancelled[slot] += cancelled;
+        }
+
+        private synchronized void read(long now, int[] lastHour, List<EventStatsDto.HourlyCount> hourly) {
+            for (int slot = 0; slot < MINUTES; slot++) {
+                if (minuteStamp[slot] > now - MINUTES && minuteStamp[slot] <= now) {
+                    lastHour[0] += minuteRegistered[slot];
+                    lastHour[1] += minuteCancelled[slot];
+                }
+            }
+            long currentHour = now / 60;
+            for (long hour = currentHour - HOURS + 1; hour <= currentHour; hour++) {
+                int slot = (int) (hour % HOURS);
+                boolean known = hourStamp[slot] == hour;
+                hourly.add(new EventStatsDto.HourlyCount(hourStart(hour),
+                        known ? hourRegistered[slot] : 0, known ? hourCancelled[slot] : 0));
+            }
+        }
+
+        private synchronized Map<Long, int[]> drain() {
+            Map<Long, int[]> drained = new HashMap<>(pending);
+            pending.clear();
+            return drained;
+        }
+
+        private synchronized void restorePending(long hour, int[] counts) {
+            int[] current = pending.computeIfAbsent(hour, h -> new int[2]);
+            current[0] += counts[0];
+            current[1] += counts[1];
+        }
+
+        private synchronized boolean idleSince(long minute) {
+            return pending.isEmpty() && lastMinute < minute;
+        }
+    }
+}
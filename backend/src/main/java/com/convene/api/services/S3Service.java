@@ -1,37 +1,103 @@
 package com.convene.api.services;
 
+import com.convene.api.dtos.PresignedUploadDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.SdkHttpRequest;
+import software.amazon.awssdk.http.auth.aws.signer.AwsV4FamilyHttpSigner;
+import software.amazon.awssdk.http.auth.aws.signer.AwsV4HttpSigner;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
 
 @Service
 public class S3Service {
 
+    public static final long MAX_IMAGE_SIZE = 5 * 1024 * 1024;
+
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
     private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
+    private final AwsCredentialsProvider credentialsProvider;
     private final String bucketName;
     private final String cloudfrontUrl;
     private final String region;
+    private final String endpoint;
+    private final int partSize;
+    private final int partsInFlight;
+    private final long maxStreamSize;
+    private final Duration presignTtl;
+    // Part buffers shared by all streaming uploads: bounds their heap usage to maxBuffers * partSize
+    private final Semaphore buffers;
 
     public S3Service(@Autowired(required = false) S3Client s3Client,
+                     @Autowired(required = false) S3AsyncClient s3AsyncClient,
+                     @Autowired(required = false) AwsCredentialsProvider s3CredentialsProvider,
                      @Value("${aws.s3.bucket-name}") String bucketName,
                      @Value("${aws.s3.cloudfront-url:}") String cloudfrontUrl,
-                     @Value("${aws.s3.region:us-east-1}") String region) {
+                     @Value("${aws.s3.region:us-east-1}") String region,
+                     @Value("${aws.s3.endpoint:}") String endpoint,
+                     @Value("${aws.s3.upload.part-size:8388608}") int partSize,
+                     @Value("${aws.s3.upload.parts-in-flight:4}") int partsInFlight,
+                     @Value("${aws.s3.upload.max-buffers:16}") int maxBuffers,
+                     @Value("${aws.s3.upload.max-size:5242880}") long maxStreamSize,
+                     @Value("${aws.s3.presign.ttl-seconds:600}") long presignTtlSeconds) {
         this.s3Client = s3Client;
+        this.s3AsyncClient = s3AsyncClient;
+        this.credentialsProvider = s3CredentialsProvider;
         this.bucketName = bucketName;
         this.cloudfrontUrl = cloudfrontUrl;
         this.region = region;
+        this.endpoint = endpoint;
+        this.partSize = partSize;
+        this.partsInFlight = partsInFlight;
+        // Same 5MB rule as every other image upload: the setting can only lower it
+        this.maxStreamSize = Math.min(maxStreamSize, MAX_IMAGE_SIZE);
+        this.buffers = new Semaphore(maxBuffers);
+        this.presignTtl = Duration.ofSeconds(presignTtlSeconds);
     }
 
     /**
-     * Uploads an image file to S3 and returns the public URL
+     * Uploads an image file to S3 under a content-addressed key (see {@link #contentKey}) and returns the public URL.
+     * Uploading the same bytes again writes the same object.
      *
      * @param file The image file to upload
      * @param folder The folder path in S3 (e.g., "events", "users")
@@ -40,34 +106,38 @@ public class S3Service {
      * @throws S3Exception if S3 upload fails
      */
     public String uploadImage(MultipartFile file, String folder) throws IOException {
+        validateImage(file.getContentType(), file.getSize());
+        String hash;
+        try (InputStream content = file.getInputStream()) {
+            hash = sha256(content);
+        }
+        return putImage(file, contentKey(folder, hash, file.getOriginalFilename()));
+    }
+
+    /**
+     * Uploads an image file to S3 under the given key and returns the public URL
+     *
+     * @param file The image file to upload
+     * @param key The object key, from {@link #contentKey}
+     * @return The public URL of the uploaded image
+     * @throws IOException if file reading fails
+     * @throws S3Exception if S3 upload fails
+     */
+    public String putImage(MultipartFile file, String key) throws IOException {
         if (s3Client == null) {
             throw new IllegalStateException("S3 client is not configured. Please set AWS credentials.");
         }
 
-        // Validate file type
         String contentType = file.getContentType();
-        if (contentType == null || !contentType.startsWith("image/")) {
-            throw new IllegalArgumentException("File must be an image");
-        }
-
-        // Validate file size (max 5MB)
-        if (file.getSize() > 5 * 1024 * 1024) {
-            throw new IllegalArgumentException("File size must be less than 5MB");
-        }
-
-        // Generate unique filename
-        String originalFilename = file.getOriginalFilename();
-        String extension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        }
-        String fileName = folder + "/" + UUID.randomUUID() + extension;
+        validateImage(contentType, file.getSize());
 
         // Upload to S3
         PutObjectRequest putObjectRequest = PutObjectRequest.builder()
                 .bucket(bucketName)
-                .key(fileName)
+                .key(key)
                 .contentType(contentType)
+                // A content-addressed key always holds the same bytes
+                .cacheControl("public, max-age=31536000, immutable")
                 .build();
 
         try {
@@ -82,12 +152,213 @@ public class S3Service {
             throw e;
         }
 
-        // Return URL (use CloudFront if configured, otherwise S3 URL)
-        if (cloudfrontUrl != null && !cloudfrontUrl.isEmpty()) {
-            return cloudfrontUrl + "/" + fileName;
-        } else {
-            return String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, region, fileName);
+        return publicUrl(key);
+    }
+
+    /**
+     * Streams an image to S3 while it is being read (e.g. a raw request body), without holding the whole file.
+     * Files larger than one part go through a multipart upload whose parts are sent in parallel as they are read
+     * (at most partsInFlight per upload, and maxBuffers part buffers for the whole server).
+     * If reading fails (client disconnected, size limit exceeded) the pending parts are cancelled
+     * and the multipart upload is aborted.
+     * Images follow the same rules as {@link #validateImage} (at most 5MB, or aws.s3.upload.max-size if lower);
+     * the object gets a random key, see {@code ImageAssets.storeStream} for its indexing and cleanup.
+     *
+     * @param body The image content, read on the calling thread
+     * @param contentType The image MIME type
+     * @param originalFilename The client file name, used for the extension (may be null)
+     * @param folder The folder path in S3 (e.g., "events", "users")
+     * @return The public URL of the image, completed once the object is stored
+     * @throws IOException if reading the body fails
+     */
+    public CompletableFuture<String> uploadImageStream(InputStream body, String contentType, String originalFilename,
+                                                       String folder) throws IOException {
+        if (s3AsyncClient == null) {
+            throw new IllegalStateException("S3 client is not configured. Please set AWS credentials.");
+        }
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new IllegalArgumentException("File must be an image");
+        }
+        String key = newKey(folder, originalFilename);
+
+        byte[] first = acquireBuffer();
+        int length;
+        try {
+            length = body.readNBytes(first, 0, partSize);
+        } catch (IOException e) {
+            buffers.release();
+            throw e;
+        }
+        if (length == 0) {
+            buffers.release();
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (length > maxStreamSize) {
+            buffers.release();
+            throw new IllegalArgumentException(tooLarge());
+        }
+        if (length < partSize) {
+            // Fits in a single part: one PutObject, straight from the buffer
+            return s3AsyncClient.putObject(
+                            request -> request.bucket(bucketName).key(key).contentType(contentType).contentLength((long) length),
+                            AsyncRequestBody.fromRemainingByteBufferUnsafe(ByteBuffer.wrap(first, 0, length)))
+                    .whenComplete((response, error) -> buffers.release())
+                    .thenApply(response -> publicUrl(key));
+        }
+        return new MultipartUpload(key, contentType).run(body, first);
+    }
+
+    /**
+     * Signs a PUT URL so that the browser sends an image straight to S3, without going through the API.
+     * The content type and the exact size are part of the signature: S3 refuses any other upload on that URL.
+     *
+     * @param folder The folder path in S3 (e.g., "events", "users")
+     * @param originalFilename The client file name, used for the extension (may be null)
+     * @param contentType The image MIME type
+     * @param size The file size in bytes
+     * @param sha256 The SHA-256 of the file (hex), or null. When given, the object gets a content-addressed key
+     *               and S3 checks the uploaded bytes against it
+     * @return The URL to PUT the file to, the headers to send with it, the object key and its public URL
+     */
+    public PresignedUploadDto presignImageUpload(String folder, String originalFilename, String contentType, long size,
+                                                 String sha256) {
+        if (credentialsProvider == null) {
+            throw new IllegalStateException("S3 client is not configured. Please set AWS credentials.");
+        }
+        validateImage(contentType, size);
+        String key = sha256 != null ? contentKey(folder, sha256, originalFilename) : newKey(folder, originalFilename);
+
+        SdkHttpRequest.Builder request = SdkHttpRequest.builder()
+                .method(SdkHttpMethod.PUT)
+                .uri(objectUri(key))
+                .putHeader("Content-Type", contentType)
+                .putHeader("Content-Length", Long.toString(size));
+        if (sha256 != null) {
+            request.putHeader("x-amz-checksum-sha256", Base64.getEncoder().encodeToString(HexFormat.of().parseHex(sha256)))
+                    .putHeader("Cache-Control", "public, max-age=31536000, immutable");
+        }
+        // Query string signature, payload not signed (the browser sends it later)
+        SdkHttpRequest signed = AwsV4HttpSigner.create().sign(signing -> signing
+                .identity(credentialsProvider.resolveCredentials())
+                .request(request.build())
+                .putProperty(AwsV4HttpSigner.SERVICE_SIGNING_NAME, "s3")
+                .putProperty(AwsV4HttpSigner.REGION_NAME, region)
+                .putProperty(AwsV4HttpSigner.AUTH_LOCATION, AwsV4FamilyHttpSigner.AuthLocation.QUERY_STRING)
+                .putProperty(AwsV4HttpSigner.EXPIRATION_DURATION, presignTtl)
+                .putProperty(AwsV4HttpSigner.PAYLOAD_SIGNING_ENABLED, false)
+                .putProperty(AwsV4HttpSigner.DOUBLE_URL_ENCODE, false)
+                .putProperty(AwsV4HttpSigner.NORMALIZE_PATH, false)).request();
+        Instant expiresAt = Instant.now().plus(presignTtl);
+        // Host and Content-Length are set by the browser itself (and Content-Length from the file, so it matches)
+        Map<String, String> headers = new HashMap<>();
+        signed.forEachHeader((name, values) -> {
+            if (!name.equalsIgnoreCase("host") && !name.equalsIgnoreCase("content-length")) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return new PresignedUploadDto(signed.getUri().toString(), headers, key, publicUrl(key), expiresAt);
+    }
+
+    /**
+     * Reads the size and type of an object without downloading it (HEAD request).
+     *
+     * @param key The object key
+     * @return The object description, or empty if there is no object under that key
+     * @throws S3Exception if the request fails
+     */
+    public Optional<StoredObject> describe(String key) {
+        if (s3Client == null) {
+            throw new IllegalStateException("S3 client is not configured. Please set AWS credentials.");
+        }
+        try {
+            HeadObjectResponse head = s3Client.headObject(request -> request.bucket(bucketName).key(key));
+            return Optional.of(new StoredObject(key, publicUrl(key), head.contentLength(), head.contentType()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes an object by key (e.g. an upload that was never completed).
+     */
+    public void deleteObject(String key) {
+        if (s3Client == null) {
+            return;
+        }
+        try {
+            s3Client.deleteObject(builder -> builder.bucket(bucketName).key(key));
+        } catch (Exception e) {
+            // Log error but don't throw (object might not exist)
+            System.err.println("Failed to delete object from S3: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks the rules shared by every image upload: an image MIME type and at most 5MB.
+     *
+     * @throws IllegalArgumentException if the image does not follow them
+     */
+    public static void validateImage(String contentType, long size) {
+        // Validate file type
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new IllegalArgumentException("File must be an image");
+        }
+
+        // Validate file size (max 5MB)
+        if (size > MAX_IMAGE_SIZE) {
+            throw new IllegalArgumentException("File size must be less than 5MB");
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+    }
+
+    /**
+     * Downloads an image previously uploaded to this bucket.
+     *
+     * @param imageUrl The public URL returned by an upload
+     * @return The image content, or empty if the URL does not point to this bucket
+     * @throws S3Exception if the download fails
+     */
+    public Optional<byte[]> downloadImage(String imageUrl) {
+        String key = imageUrl == null ? null : extractKeyFromUrl(imageUrl);
+        if (s3Client == null || key == null) {
+            return Optional.empty();
         }
+        return Optional.of(s3Client.getObjectAsBytes(request -> request.bucket(bucketName).key(key)).asByteArray());
+    }
+
+    /**
+     * Stores a derived version of an image (e.g. a resized copy) next to the original,
+     * under the original key with the given suffix: events/abc.png -> events/abc-640w.jpg
+     *
+     * @param imageUrl The public URL of the original image
+     * @param suffix Appended to the original file name, extension included
+     * @param content The derived image
+     * @param contentType The derived image MIME type
+     * @return The public URL of the derived image
+     * @throws S3Exception if S3 upload fails
+     */
+    public String uploadVariant(String imageUrl, String suffix, byte[] content, String contentType) {
+        String key = imageUrl == null ? null : extractKeyFromUrl(imageUrl);
+        if (s3Client == null || key == null) {
+            throw new IllegalStateException("Image is not stored in bucket " + bucketName);
+        }
+        String variantKey = variantKey(key, suffix);
+        s3Client.putObject(PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(variantKey)
+                        .contentType(contentType)
+                        // Variant keys are never overwritten with different content
+                        .cacheControl("public, max-age=31536000, immutable")
+                        .build(),
+                RequestBody.fromBytes(content));
+        return publicUrl(variantKey);
     }
 
     /**
@@ -112,12 +383,231 @@ public class S3Service {
         }
     }
 
+    /**
+     * Content-addressed key: the SHA-256 of the bytes, with the file extension (lower case).
+     * Identical files share one key, whatever their name: events/3a7bd3e2...c1.png
+     *
+     * @throws IllegalArgumentException if the hash is not a hex SHA-256
+     */
+    public String contentKey(String folder, String sha256, String originalFilename) {
+        if (sha256 == null || !SHA256.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("Invalid SHA-256");
+        }
+        String extension = "";
+        if (originalFilename != null && originalFilename.contains(".")) {
+            extension = originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase(Locale.ROOT);
+        }
+        return folder + "/" + sha256 + extension;
+    }
+
+    /**
+     * Hex SHA-256 of a stream, read in small chunks (the content is never held in memory).
+     */
+    public static String sha256(InputStream content) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        for (int read; (read = content.read(buffer)) > 0; ) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * The object key behind a public URL, or null if the URL does not point to this bucket.
+     */
+    public String keyOf(String imageUrl) {
+        return imageUrl == null ? null : extractKeyFromUrl(imageUrl);
+    }
+
+    /**
+     * Key of a derived version of an image: events/abc.png + "-640w.jpg" -> events/abc-640w.jpg
+     */
+    public static String variantKey(String key, String suffix) {
+        int extension = key.lastIndexOf('.');
+        return (extension > key.lastIndexOf('/') ? key.substring(0, extension) : key) + suffix;
+    }
+
+    private String newKey(String folder, String originalFilename) {
+        String extension = "";
+        if (originalFilename != null && originalFilename.contains(".")) {
+            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        }
+        return folder + "/" + UUID.randomUUID() + extension;
+    }
+
+    // Where the object is written: the configured S3-compatible endpoint (path style) or the bucket's AWS host
+    private URI objectUri(String key) {
+        if (endpoint != null && !endpoint.isEmpty()) {
+            return URI.create(endpoint.replaceAll("/+$", "") + "/" + bucketName + "/" + key);
+        }
+        return URI.create(String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, region, key));
+    }
+
+    private String publicUrl(String key) {
+        // Return URL (use CloudFront if configured, otherwise S3 URL)
+        if (cloudfrontUrl != null && !cloudfrontUrl.isEmpty()) {
+            return cloudfrontUrl + "/" + key;
+        } else {
+            return String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, region, key);
+        }
+    }
+
+    private String tooLarge() {
+        return "File size must be less than " + maxStreamSize / (1024 * 1024) + "MB";
+    }
+
+    // Waits for a free part buffer (backpressure on the reading thread when all are in use)
+    private byte[] acquireBuffer() throws InterruptedIOException {
+        try {
+            buffers.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an upload buffer");
+        }
+        return new byte[partSize];
+    }
+
+    /**
+     * One multipart upload: parts are uploaded as soon as they are read, the object is completed
+     * once all of them succeed, and the upload is aborted on the first failure.
+     */
+    private final class MultipartUpload {
+
+        private final String key;
+        private final CompletableFuture<String> uploadId;
+        private final Semaphore inFlight = new Semaphore(partsInFlight);
+        private final List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        // SDK requests, cancelled directly on abort (cancelling a dependent future would not stop them)
+        private final Queue<CompletableFuture<?>> requests = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean aborted = new AtomicBoolean();
+        private volatile Throwable failure;
+
+        private MultipartUpload(String key, String contentType) {
+            this.key = key;
+            this.uploadId = s3AsyncClient
+                    .createMultipartUpload(request -> request.bucket(bucketName).key(key).contentType(contentType))
+                    .thenApply(CreateMultipartUploadResponse::uploadId);
+        }
+
+        private CompletableFuture<String> run(InputStream body, byte[] first) throws IOException {
+            inFlight.acquireUninterruptibly();
+            byte[] buffer = first;
+            int length = partSize;
+            long total = length;
+            try {
+                while (length > 0 && failure == null) {
+                    send(parts.size() + 1, buffer, length);
+                    buffer = null;
+                    buffer = take();
+                    length = body.readNBytes(buffer, 0, partSize);
+                    total += length;
+                    if (total > maxStreamSize) {
+                        throw new IllegalArgumentException(tooLarge());
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                abort();
+                throw e;
+            } finally {
+                if (buffer != null) {
+                    give(buffer);
+                }
+            }
+            if (failure != null) {
+                abort();
+                return CompletableFuture.failedFuture(failure);
+            }
+
+            return CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                    .thenCompose(ignored -> uploadId)
+                    .thenCompose(id -> s3AsyncClient.completeMultipartUpload(request -> request
+                            .bucket(bucketName).key(key).uploadId(id)
+                            .multipartUpload(upload -> upload.parts(parts.stream().map(CompletableFuture::join).toList()))))
+                    .handle((response, error) -> {
+                        if (error != null) {
+                            abort();
+                            throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+                        }
+                        return publicUrl(key);
+                    });
+        }
+
+        private void send(int partNumber, byte[] buffer, int length) {
+            CompletableFuture<CompletedPart> part = uploadId
+                    .thenCompose(id -> track(s3AsyncClient.uploadPart(
+                            request -> request.bucket(bucketName).key(key).uploadId(id)
+                                    .partNumber(partNumber).contentLength((long) length),
+                            AsyncRequestBody.fromRemainingByteBufferUnsafe(ByteBuffer.wrap(buffer, 0, length)))))
+                    .thenApply(response -> CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+            part.whenComplete((completed, error) -> {
+                if (error != null && failure == null) {
+                    failure = error;
+                }
+                give(buffer);
+            });
+            parts.add(part);
+        }
+
+        private <T> CompletableFuture<T> track(CompletableFuture<T> request) {
+            requests.add(request);
+            if (aborted.get()) {
+                request.cancel(true);
+            }
+            return request;
+        }
+
+        private byte[] take() throws InterruptedIOException {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for an upload slot");
+            }
+            try {
+                return acquireBuffer();
+            } catch (InterruptedIOException e) {
+                inFlight.release();
+                throw e;
+            }
+        }
+
+        private void give(byte[] buffer) {
+            buffers.release();
+            inFlight.release();
+        }
+
+        private void abort() {
+            if (!aborted.compareAndSet(false, true)) {
+                return;
+            }
+            requests.forEach(request -> request.cancel(true));
+            uploadId.thenCompose(id -> s3AsyncClient.abortMultipartUpload(
+                            request -> request.bucket(bucketName).key(key).uploadId(id)))
+                    .exceptionally(e -> {
+                        // Log error but don't throw: a bucket lifecycle rule can still clean up incomplete uploads
+                        System.err.println("Failed to abort multipart upload " + key + ": " + e.getMessage());
+                        return null;
+                    });
+        }
+    }
+
+    /**
+     * An object stored in the bucket, as described by a HEAD request.
+     */
+    public record StoredObject(String key, String url, long size, String contentType) {
+    }
+
     private String extractKeyFromUrl(String url) {
         // Extract key from S3 URL or CloudFront URL
         if (url.contains(bucketName + ".s3")) {
             // S3 URL format: https://bucket.s3.region.amazonaws.com/key
-            int index = url.indexOf(bucketName) + bucketName.length() + 1;
-            return url.substring(index);
+            int index = url.indexOf('/', url.indexOf(bucketName + ".s3"));
+            return index < 0 ? null : url.substring(index + 1);
         } else if (cloudfrontUrl != null && url.contains(cloudfrontUrl)) {
             // CloudFront URL format: https://cloudfront-url/key
             return url.substring(cloudfrontUrl.length() + 1);
@@ -0,0 +1,198 @@
+package com.convene.api.services;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Places restantes poussées en direct aux pages d'événement (Server-Sent Events).
+ *
+ * Un canal par événement regroupe ses abonnés. Un ticker compare le compteur de SeatInventory
+ * à la dernière valeur envoyée : toutes les réservations et annulations survenues entre deux passages
+ * donnent un seul message, construit une fois pour tout le canal.
+ * Un abonné inactif ne tient aucun thread (requête asynchrone Servlet) ; les envois passent par un pool borné,
+ * un canal à la fois, pour qu'un client lent ne retarde que les abonnés de son événement.
+ */
+@Service
+public class SeatAvailabilityStream {
+
+    static final String AVAILABILITY = "availability";
+    static final String CLOSED = "closed";
+
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("").build();
+
+    private final SeatInventory seatInventory;
+    private final ExecutorService senders;
+    private final long timeoutMs;
+    private final long heartbeatMs;
+    private final int maxSubscribers;
+
+    private final ConcurrentHashMap<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicLong pushes = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long lastHeartbeat = System.currentTimeMillis();
+
+    public SeatAvailabilityStream(SeatInventory seatInventory,
+                                  @Value("${convene.seats.stream-parallelism:4}") int parallelism,
+                                  @Value("${convene.seats.stream-timeout-ms:1800000}") long timeoutMs,
+                                  @Value("${convene.seats.stream-heartbeat-ms:15000}") long heartbeatMs,
+                                  @Value("${convene.seats.stream-max-subscribers:50000}") int maxSubscribers) {
+        this.seatInventory = seatInventory;
+        this.senders = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "seat-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeoutMs = timeoutMs;
+        this.heartbeatMs = heartbeatMs;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * Abonne un client aux places restantes de l'événement (vide s'il est inconnu ou non publié).
+     * Le premier message part tout de suite avec la valeur courante.
+     *
+     * @throws IllegalStateException si le nombre maximal d'abonnés du serveur est atteint
+     */
+    public Optional<SseEmitter> subscribe(Long eventId) {
+        int seats = seatInventory.available(eventId);
+        if (seats < 0) {
+            return Optional.empty();
+        }
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new IllegalStateException("Trop d'abonnés");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        // Ajout dans compute : un désabonnement concurrent ne peut pas retirer le canal entre-temps
+        Channel channel = channels.compute(eventId, (id, existing) -> {
+            Channel target = existing != null ? existing : new Channel(id, seats);
+            target.emitters.add(emitter);
+            return target;
+        });
+        emitter.onCompletion(() -> unsubscribe(channel, emitter));
+        emitter.onTimeout(() -> unsubscribe(channel, emitter));
+        emitter.onError(e -> unsubscribe(channel, emitter));
+        try {
+            emitter.send(availability(eventId, seats));
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(channel, emitter);
+        }
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Envoie les changements de places aux canaux concernés (au plus un message par canal et par passage),
+     * un commentaire vide de temps en temps pour garder les connexions ouvertes et repérer les clients partis,
+     * et "closed" quand l'événement a été supprimé ou dépublié.
+     */
+    @Scheduled(fixedDelayString = "${convene.seats.stream-interval-ms:250}")
+    public void push() {
+        long now = System.currentTimeMillis();
+        boolean heartbeat = now - lastHeartbeat >= heartbeatMs;
+        if (heartbeat) {
+            lastHeartbeat = now;
+        }
+        for (Channel channel : channels.values()) {
+            int seats = seatInventory.peek(channel.eventId);
+            if ((seats != channel.lastSent || heartbeat) && channel.sending.compareAndSet(false, true)) {
+                // Canal encore occupé par le passage précédent : le changement partira au suivant
+                senders.execute(() -> {
+                    try {
+                        send(channel, seats);
+                    } finally {
+                        channel.sending.set(false);
+                    }
+                });
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "channels", channels.size(),
+                "subscribers", subscribers.get(),
+                "pushes", pushes.get(),
+                "dropped", dropped.get()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+        channels.values().forEach(channel -> channel.emitters.forEach(SseEmitter::complete));
+    }
+
+    private void send(Channel channel, int seats) {
+        boolean closed = seats < 0;
+        Set<ResponseBodyEmitter.DataWithMediaType> message = closed ? closed(channel.eventId)
+                : seats != channel.lastSent ? availability(channel.eventId, seats)
+                : HEARTBEAT;
+        channel.lastSent = seats;
+        for (SseEmitter emitter : channel.emitters) {
+            try {
+                emitter.send(message);
+                pushes.incrementAndGet();
+                if (closed) {
+                    unsubscribe(channel, emitter);
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client parti : la connexion est libérée tout de suite
+                dropped.incrementAndGet();
+                unsubscribe(channel, emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private void unsubscribe(Channel channel, SseEmitter emitter) {
+        if (channel.emitters.remove(emitter)) {
+            subscribers.decrementAndGet();
+            channels.computeIfPresent(channel.eventId, (id, current) ->
+                    current == channel && current.emitters.isEmpty() ? null : current);
+        }
+    }
+
+    private static Set<ResponseBodyEmitter.DataWithMediaType> availability(Long eventId, int seats) {
+        return SseEmitter.event()
+                .name(AVAILABILITY)
+                .data("{\"eventId\":" + eventId + ",\"availableSeats\":" + seats + "}")
+                .build();
+    }
+
+    private static Set<ResponseBodyEmitter.DataWithMediaType> closed(Long eventId) {
+        return SseEmitter.event()
+                .name(CLOSED)
+                .data("{\"eventId\":" + eventId + "}")
+                .build();
+    }
+
+    private static final class Channel {
+        private final Long eventId;
+        private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile int lastSent;
+
+        private Channel(Long eventId, int lastSent) {
+            this.eventId = eventId;
+            this.lastSent = lastSent;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.convene.api.services;
+
+import com.convene.api.models.Registration;
+import com.convene.api.repositories.RegistrationRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Expiration des réservations temporaires (statut HELD).
+ *
+ * Chaque réservation est placée dans une DelayQueue : aucun balayage de table,
+ * un seul thread qui dort jusqu'à la prochaine échéance puis traite toutes celles arrivées à terme
+ * en un lot (une suppression, une remise en stock par événement).
+ */
+@Service
+public class SeatHoldExpirer {
+
+    private final RegistrationRepository registrationRepository;
+    private final WaitlistService waitlistService;
+    private final SeatInventory seatInventory;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long retryDelayMs;
+
+    private final DelayQueue<Hold> holds = new DelayQueue<>();
+    private Thread worker;
+
+    public SeatHoldExpirer(RegistrationRepository registrationRepository,
+                           WaitlistService waitlistService,
+                           SeatInventory seatInventory,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${convene.holds.expiry-batch-size:500}") int batchSize,
+                           @Value("${convene.holds.retry-delay-ms:5000}") long retryDelayMs) {
+        this.registrationRepository = registrationRepository;
+        this.waitlistService = waitlistService;
+        this.seatInventory = seatInventory;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retryDelayMs = retryDelayMs;
+    }
+
+    /**
+     * Recharge les réservations en cours (après un redémarrage) puis lance le thread d'expiration.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (RegistrationRepository.HeldSeat held : registrationRepository.findAllHeld()) {
+            track(held.getId(), held.getExpiresAt());
+        }
+        worker = new Thread(this::run, "seat-hold-expirer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    public void track(Long registrationId, LocalDateTime expiresAt) {
+        long deadline = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        holds.add(new Hold(registrationId, deadline));
+    }
+
+    /**
+     * Attend la prochaine échéance puis renvoie toutes les réservations expirées (au plus batchSize).
+     */
+    List<Long> nextBatch() throws InterruptedException {
+        List<Hold> expired = new ArrayList<>();
+        expired.add(holds.take());
+        holds.drainTo(expired, batchSize - 1);
+        return expired.stream().map(Hold::registrationId).toList();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                process(nextBatch());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Expire le lot ; en cas d'échec (base indisponible, conflit...), le lot est remis dans la file
+     * et réessayé après retryDelayMs : sans cela, ses places ne reviendraient qu'au prochain redémarrage.
+     */
+    void process(List<Long> registrationIds) {
+        try {
+            expire(registrationIds);
+        } catch (RuntimeException e) {
+            System.err.println("Échec de l'expiration des réservations, nouvel essai dans " + retryDelayMs + " ms : "
+                    + e.getMessage());
+            long retryAt = System.currentTimeMillis() + retryDelayMs;
+            for (Long registrationId : registrationIds) {
+                holds.add(new Hold(registrationId, retryAt));
+            }
+        }
+    }
+
+    private void expire(List<Long> registrationIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Déjà confirmées ou annulées : ignorées
+            List<Registration> expired = registrationRepository.findByIdInAndStatusAndExpiresAtLessThanEqual(
+                    registrationIds, "HELD", LocalDateTime.now());
+            if (expired.isEmpty()) {
+                return;
+            }
+            registrationRepository.deleteAllInBatch(expired);
+
+            Map<Long, Long> seatsByEvent = expired.stream()
+                    .collect(Collectors.groupingBy(registration -> registration.getEvent().getId(), Collectors.counting()));
+            seatsByEvent.forEach((eventId, seats) -> {
+                // Les places libérées vont d'abord à la liste d'attente
+                int freed = seats.intValue() - waitlistService.promote(eventId, seats.intValue());
+                if (freed > 0) {
+                    TransactionCallbacks.afterCommit(() -> seatInventory.release(eventId, freed));
+                }
+            });
+        });
+    }
+
+    private record Hold(Long registrationId, long deadline) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadline, ((Hold) other).deadline);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.convene.api.services;
+
+import com.convene.api.repositories.EventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stock de places disponibles tenu en mémoire (un compteur atomique par événement).
+ *
+ * Les réservations se font par CAS sur le compteur, sans passer par MySQL.
+ * Les écarts sont cumulés puis reportés sur events.available_seats en différé (write-behind) :
+ * une seule requête conditionnelle par événement modifié, quel que soit le nombre d'inscriptions.
+ * Les écarts pas encore reportés ne sont jamais jetés : ils suivent les remises à niveau du compteur,
+ * et un arrêt brutal qui les perd est rattrapé au démarrage en recomptant les inscriptions.
+ */
+@Service
+@RequiredArgsConstructor
+public class SeatInventory {
+
+    private final EventRepository eventRepository;
+
+    private final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+    // Nombre de changements de compteur et date du dernier (ETag / Last-Modified des listes)
+    private final LongAdder changes = new LongAdder();
+    private volatile long lastChangedAt = System.currentTimeMillis();
+
+    /**
+     * Reconstruit les compteurs au démarrage : places totales moins inscriptions enregistrées.
+     * La colonne available_seats n'est pas fiable ici (écarts perdus si l'arrêt précédent n'a pas pu les reporter) ;
+     * l'écart avec elle est reporté au prochain flush.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        for (EventRepository.SeatCount count : eventRepository.findAllSeatCounts()) {
+            int available = (int) Math.max(0, count.getTotalSeats() - count.getRegistrations());
+            Slot slot = new Slot(count.getAvailableSeats());
+            slot.available.set(available);
+            slot.pending.set(available - count.getAvailableSeats());
+            slots.put(count.getId(), slot);
+        }
+    }
+
+    /**
+     * Indique si l'événement existe et est publié (le charge depuis la base si besoin).
+     */
+    public boolean contains(Long eventId) {
+        return slot(eventId) != null;
+    }
+
+    /**
+     * Nombre de places restantes, ou -1 si l'événement est inconnu.
+     */
+    public int available(Long eventId) {
+        Slot slot = slot(eventId);
+        return slot == null ? -1 : slot.remaining();
+    }
+
+    /**
+     * Places restantes si l'événement est déjà en mémoire, -1 sinon (sans accès à la base).
+     */
+    public int peek(Long eventId) {
+        Slot slot = slots.get(eventId);
+        return slot == null ? -1 : slot.remaining();
+    }
+
+    /**
+     * Réserve des places par compare-and-set. Renvoie false s'il n'en reste pas assez.
+     */
+    public boolean tryClaim(Long eventId, int seats) {
+        Slot slot = slot(eventId);
+        if (slot == null) {
+            return false;
+        }
+        int current;
+        do {
+            current = slot.available.get();
+            if (current < seats) {
+                return false;
+            }
+        } while (!slot.available.compareAndSet(current, current - seats));
+        slot.pending.addAndGet(-seats);
+        touch(slot);
+        return true;
+    }
+
+    /**
+     * Réserve autant de places que possible, jusqu'à {@code seats}. Renvoie le nombre obtenu.
+     */
+    public int claimUpTo(Long eventId, int seats) {
+        Slot slot = slot(eventId);
+        if (slot == null) {
+            return 0;
+        }
+        int current;
+        int granted;
+        do {
+            current = slot.available.get();
+            granted = Math.min(current, seats);
+            if (granted <= 0) {
+                return 0;
+            }
+        } while (!slot.available.compareAndSet(current, current - granted));
+        slot.pending.addAndGet(-granted);
+        touch(slot);
+        return granted;
+    }
+
+    /**
+     * Rend des places (désinscription ou transaction annulée).
+     */
+    public void release(Long eventId, int seats) {
+        Slot slot = slots.get(eventId);
+        if (slot == null) {
+            return; // Événement supprimé entre-temps
+        }
+        slot.available.addAndGet(seats);
+        slot.pending.addAndGet(seats);
+        touch(slot);
+    }
+
+    /**
+     * Aligne le compteur sur une écriture directe en base (création, mise à jour). Les réservations pas encore
+     * reportées sur la colonne restent décomptées, et seront reportées sur la nouvelle valeur.
+     */
+    public synchronized void reset(Long eventId, int availableSeats) {
+        Slot slot = slots.computeIfAbsent(eventId, id -> new Slot(availableSeats));
+        // Décalage relatif : les CAS en cours sur le compteur ne sont pas perdus
+        slot.available.addAndGet(availableSeats - slot.base);
+        slot.base = availableSeats;
+        touch(slot);
+    }
+
+    public void forget(Long eventId) {
+        if (slots.remove(eventId) != null) {
+            touch(null);
+        }
+    }
+
+    /**
+     * Compteur croissant des changements de places, tous événements confondus.
+     */
+    public long version() {
+        return changes.sum();
+    }
+
+    /**
+     * Date (epoch ms) du dernier changement de places, tous événements confondus.
+     */
+    public long lastChangedAt() {
+        return lastChangedAt;
+    }
+
+    /**
+     * Date (epoch ms) du dernier changement de places de l'événement, 0 s'il n'est pas en mémoire.
+     */
+    public long changedAt(Long eventId) {
+        Slot slot = slots.get(eventId);
+        return slot == null ? 0 : slot.changedAt;
+    }
+
+    /**
+     * Reporte les écarts cumulés sur la table events (claimSeats / releaseSeats).
+     */
+    @Scheduled(fixedDelayString = "${convene.seats.flush-interval-ms:500}")
+    @PreDestroy
+    public synchronized void flush() {
+        slots.forEach((eventId, slot) -> {
+            int delta = slot.pending.getAndSet(0);
+            if (delta == 0) {
+                return;
+            }
+            try {
+                int updated = delta < 0
+                        ? eventRepository.claimSeats(eventId, -delta)
+                        : eventRepository.releaseSeats(eventId, delta);
+                if (updated == 0) {
+                    // La base ne suit plus la mémoire (événement modifié ou dépublié)
+                    resync(eventId, slot, delta);
+                } else {
+                    slot.base += delta;
+                }
+            } catch (RuntimeException e) {
+                // On remet l'écart de côté pour le prochain passage
+                slot.pending.addAndGet(delta);
+                System.err.println("Échec de la synchronisation des places : " + e.getMessage());
+            }
+        });
+    }
+
+    // Repart de la colonne et y applique l'écart refusé (borné aux places de l'événement) plutôt que de le jeter
+    private void resync(Long eventId, Slot slot, int delta) {
+        eventRepository.findByIdAndStatus(eventId, "PUBLISHED").ifPresentOrElse(event -> {
+            int seats = Math.max(0, Math.min(event.getTotalSeats(), event.getAvailableSeats() + delta));
+            eventRepository.overwriteSeats(eventId, seats);
+            slot.available.addAndGet(seats - (slot.base + delta));
+            slot.base = seats;
+            touch(slot);
+        }, () -> forget(eventId));
+    }
+
+    private void touch(Slot slot) {
+        long now = System.currentTimeMillis();
+        if (slot != null) {
+            slot.changedAt = now;
+        }
+        lastChangedAt = now;
+        changes.increment();
+    }
+
+    private Slot slot(Long eventId) {
+        Slot slot = slots.get(eventId);
+        if (slot != null) {
+            return slot;
+        }
+        // Événement pas encore connu : on le charge une seule fois depuis la base
+        return eventRepository.findByIdAndStatus(eventId, "PUBLISHED")
+                .map(event -> slots.computeIfAbsent(eventId, id -> new Slot(event.getAvailableSeats())))
+                .orElse(null);
+    }
+
+    private static final class Slot {
+        private final AtomicInteger available;
+        private final AtomicInteger pending = new AtomicInteger();
+        // Valeur de la colonne available_seats au dernier report (sous le verrou de SeatInventory)
+        private int base;
+        private volatile long changedAt = System.currentTimeMillis();
+
+        private Slot(int available) {
+            this.available = new AtomicInteger(available);
+            this.base = available;
+        }
+
+        // Le compteur peut passer sous zéro si l'organisateur retire des places déjà réservées
+        private int remaining() {
+            return Math.max(0, available.get());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.convene.api.services;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Géocodage local, sans appel réseau : chaque événement est placé au centre de sa ville.
+ * Suffisant pour "autour de moi" à l'échelle d'une agglomération ; l'adresse n'est pas utilisée.
+ */
+@Service
+public class StaticCityGeocoder implements Geocoder {
+
+    // Clés normalisées par EventSearchIndex.fold (minuscules, sans accents)
+    private static final Map<String, Coordinates> CITIES = Map.ofEntries(
+            Map.entry("new york", new Coordinates(40.7128, -74.0060)),
+            Map.entry("san francisco", new Coordinates(37.7749, -122.4194)),
+            Map.entry("austin", new Coordinates(30.2672, -97.7431)),
+            Map.entry("chicago", new Coordinates(41.8781, -87.6298)),
+            Map.entry("los angeles", new Coordinates(34.0522, -118.2437)),
+            Map.entry("seattle", new Coordinates(47.6062, -122.3321)),
+            Map.entry("boston", new Coordinates(42.3601, -71.0589)),
+            Map.entry("miami", new Coordinates(25.7617, -80.1918)),
+            Map.entry("montreal", new Coordinates(45.5019, -73.5674)),
+            Map.entry("toronto", new Coordinates(43.6532, -79.3832)),
+            Map.entry("london", new Coordinates(51.5072, -0.1276)),
+            Map.entry("paris", new Coordinates(48.8566, 2.3522)),
+            Map.entry("lyon", new Coordinates(45.7640, 4.8357)),
+            Map.entry("marseille", new Coordinates(43.2965, 5.3698)),
+            Map.entry("bruxelles", new Coordinates(50.8503, 4.3517)),
+            Map.entry("madrid", new Coordinates(40.4168, -3.7038)),
+            Map.entry("barcelone", new Coordinates(41.3874, 2.1686)),
+            Map.entry("berlin", new Coordinates(52.5200, 13.4050)),
+            Map.entry("casablanca", new Coordinates(33.5731, -7.5898)),
+            Map.entry("rabat", new Coordinates(34.0209, -6.8416)),
+            Map.entry("marrakech", new Coordinates(31.6295, -7.9811)),
+            Map.entry("fes", new Coordinates(34.0181, -5.0078)),
+            Map.entry("tanger", new Coordinates(35.7595, -5.8340)),
+            Map.entry("agadir", new Coordinates(30.4278, -9.5981)),
+            Map.entry("meknes", new Coordinates(33.8935, -5.5473)),
+            Map.entry("oujda", new Coordinates(34.6814, -1.9086)),
+            Map.entry("tetouan", new Coordinates(35.5889, -5.3626))
+    );
+
+    @Override
+    public Optional<Coordinates> locate(String address, String city) {
+        String key = EventSearchIndex.fold(city);
+        return key == null ? Optional.empty() : Optional.ofNullable(CITIES.get(key));
+    }
+}
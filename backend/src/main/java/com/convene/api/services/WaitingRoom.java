@@ -0,0 +1,262 @@
+package com.convene.api.services;
+
+import com.convene.api.dtos.RegistrationDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Salle d'attente devant les inscriptions.
+ *
+ * Chaque événement a sa file FIFO et un nombre limité d'inscriptions traitées en parallèle,
+ * ce qui borne l'usage du pool de connexions lors d'une ouverture très demandée.
+ * Une fois l'événement complet, les demandes sont refusées sans toucher MySQL.
+ */
+@Service
+public class WaitingRoom {
+
+    public enum Status { WAITING, PROCESSING, CONFIRMED, REJECTED }
+
+    private final RegistrationService registrationService;
+    private final SeatInventory seatInventory;
+    private final ExecutorService workers;
+    private final int defaultMaxConcurrency;
+    private final int defaultMaxQueue;
+    private final Duration ticketRetention;
+    private final long inlineWaitMs;
+
+    private final ConcurrentHashMap<Long, Room> rooms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    public WaitingRoom(RegistrationService registrationService,
+                       SeatInventory seatInventory,
+                       @Value("${convene.waiting-room.workers:8}") int workerCount,
+                       @Value("${convene.waiting-room.max-concurrency:4}") int defaultMaxConcurrency,
+                       @Value("${convene.waiting-room.max-queue:10000}") int defaultMaxQueue,
+                       @Value("${convene.waiting-room.ticket-retention-minutes:10}") long retentionMinutes,
+                       @Value("${convene.waiting-room.inline-wait-ms:1500}") long inlineWaitMs) {
+        this.registrationService = registrationService;
+        this.seatInventory = seatInventory;
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "waiting-room");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.defaultMaxConcurrency = defaultMaxConcurrency;
+        this.defaultMaxQueue = defaultMaxQueue;
+        this.ticketRetention = Duration.ofMinutes(retentionMinutes);
+        this.inlineWaitMs = inlineWaitMs;
+    }
+
+    /**
+     * Place la demande dans la file de l'événement et renvoie le ticket à suivre.
+     */
+    public Ticket enter(Long eventId, String email) {
+        rejectIfClosed(eventId);
+
+        // Mise en file dans compute : purge ne peut pas retirer la salle entre-temps (et en recréer une à côté)
+        Ticket[] entered = new Ticket[1];
+        Room room = rooms.compute(eventId, (id, existing) -> {
+            Room current = existing != null ? existing : new Room(defaultMaxConcurrency, defaultMaxQueue);
+            if (current.waiting.get() >= current.maxQueue) {
+                throw new RegistrationException(RegistrationException.Reason.QUEUE_FULL);
+            }
+            entered[0] = new Ticket(eventId, email, current.issued.incrementAndGet());
+            current.waiting.incrementAndGet();
+            current.queue.add(entered[0]);
+            return current;
+        });
+
+        Ticket ticket = entered[0];
+        tickets.put(ticket.token, ticket);
+        drain(room);
+        return ticket;
+    }
+
+    /**
+     * Attend brièvement le résultat pour répondre directement quand la file est courte.
+     * @throws TimeoutException si le ticket est toujours en attente : le client devra interroger la file.
+     */
+    public RegistrationDto await(Ticket ticket) throws TimeoutException {
+        try {
+            return ticket.result.get(inlineWaitMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw (RuntimeException) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException();
+        }
+    }
+
+    public Optional<Ticket> find(String token) {
+        return Optional.ofNullable(tickets.get(token));
+    }
+
+    /**
+     * Position dans la file (1 = prochain servi), 0 si le ticket n'attend plus.
+     */
+    public long position(Ticket ticket) {
+        if (ticket.status != Status.WAITING) {
+            return 0;
+        }
+        Room room = rooms.get(ticket.eventId);
+        return room == null ? 0 : Math.max(1, ticket.sequence - room.dequeued.get());
+    }
+
+    /**
+     * Réglages propres à un événement (null = valeur par défaut).
+     */
+    public void configure(Long eventId, Integer maxConcurrency, Integer maxQueue) {
+        Room room = rooms.compute(eventId, (id, existing) -> {
+            Room current = existing != null ? existing : new Room(defaultMaxConcurrency, defaultMaxQueue);
+            current.maxConcurrency = maxConcurrency != null ? Math.max(1, maxConcurrency) : defaultMaxConcurrency;
+            current.maxQueue = maxQueue != null ? Math.max(0, maxQueue) : defaultMaxQueue;
+            current.configured = maxConcurrency != null || maxQueue != null;
+            return current;
+        });
+        drain(room);
+    }
+
+    public RoomSnapshot snapshot(Long eventId) {
+        Room room = rooms.get(eventId);
+        if (room == null) {
+            return new RoomSnapshot(eventId, defaultMaxConcurrency, defaultMaxQueue, 0, 0);
+        }
+        return new RoomSnapshot(eventId, room.maxConcurrency, room.maxQueue, room.active.get(), room.waiting.get());
+    }
+
+    /**
+     * Oublie les tickets terminés depuis un moment.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purge() {
+        Instant limit = Instant.now().minus(ticketRetention);
+        tickets.values().removeIf(ticket -> ticket.result.isDone() && ticket.createdAt.isBefore(limit));
+        // Vérifié sous le verrou de l'entrée (comme enter) : une salle en service garde son budget de concurrence
+        rooms.keySet().forEach(eventId -> rooms.computeIfPresent(eventId,
+                (id, room) -> room.isIdle() && !room.configured ? null : room));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private void rejectIfClosed(Long eventId) {
+        int available = seatInventory.available(eventId);
+        if (available < 0) {
+            throw new RegistrationException(RegistrationException.Reason.EVENT_NOT_FOUND);
+        }
+        if (available == 0) {
+            throw new RegistrationException(RegistrationException.Reason.SOLD_OUT);
+        }
+    }
+
+    // Lance autant de tickets que la limite de l'événement le permet
+    private void drain(Room room) {
+        while (true) {
+            int active = room.active.get();
+            if (active >= room.maxConcurrency || room.queue.isEmpty()) {
+                return;
+            }
+            if (!room.active.compareAndSet(active, active + 1)) {
+                continue;
+            }
+            Ticket ticket = room.queue.poll();
+            if (ticket == null) {
+                room.active.decrementAndGet();
+                continue;
+            }
+            room.waiting.decrementAndGet();
+            room.dequeued.incrementAndGet();
+            ticket.status = Status.PROCESSING;
+            workers.execute(() -> process(room, ticket));
+        }
+    }
+
+    private void process(Room room, Ticket ticket) {
+        try {
+            rejectIfClosed(ticket.eventId);
+            // Sérialisé sur le thread de la requête, après la fin de la session : pas d'entité ni de proxy
+            ticket.complete(registrationService.toDto(registrationService.registerUser(ticket.email, ticket.eventId)));
+        } catch (RuntimeException e) {
+            ticket.fail(e);
+        } finally {
+            room.active.decrementAndGet();
+            drain(room);
+        }
+    }
+
+    private static final class Room {
+        private final ConcurrentLinkedQueue<Ticket> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger waiting = new AtomicInteger(); // size() est en O(n) sur la file
+        private final AtomicLong issued = new AtomicLong();
+        private final AtomicLong dequeued = new AtomicLong();
+        private volatile int maxConcurrency;
+        private volatile int maxQueue;
+        private volatile boolean configured;
+
+        private Room(int maxConcurrency, int maxQueue) {
+            this.maxConcurrency = maxConcurrency;
+            this.maxQueue = maxQueue;
+        }
+
+        private boolean isIdle() {
+            return active.get() == 0 && queue.isEmpty();
+        }
+    }
+
+    public static final class Ticket {
+        private final String token = UUID.randomUUID().toString();
+        private final Long eventId;
+        private final String email;
+        private final long sequence;
+        private final Instant createdAt = Instant.now();
+        private final CompletableFuture<RegistrationDto> result = new CompletableFuture<>();
+        private volatile Status status = Status.WAITING;
+        private volatile RuntimeException failure;
+
+        private Ticket(Long eventId, String email, long sequence) {
+            this.eventId = eventId;
+            this.email = email;
+            this.sequence = sequence;
+        }
+
+        private void complete(RegistrationDto registration) {
+            status = Status.CONFIRMED;
+            result.complete(registration);
+        }
+
+        private void fail(RuntimeException e) {
+            failure = e;
+            status = Status.REJECTED;
+            result.completeExceptionally(e);
+        }
+
+        public String getToken() { return token; }
+        public Long getEventId() { return eventId; }
+        public String getEmail() { return email; }
+        public Status getStatus() { return status; }
+        public CompletableFuture<RegistrationDto> getResult() { return result; }
+        public RuntimeException getFailure() { return failure; }
+    }
+
+    public record RoomSnapshot(Long eventId, int maxConcurrency, int maxQueue, int active, int waiting) {}
+}
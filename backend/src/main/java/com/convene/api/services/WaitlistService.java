@@ -0,0 +1,135 @@
+package com.convene.api.services;
+
+import com.convene.api.models.Registration;
+import com.convene.api.models.WaitlistEntry;
+import com.convene.api.repositories.EventRepository;
+import com.convene.api.repositories.RegistrationRepository;
+import com.convene.api.repositories.WaitlistEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Liste d'attente des événements complets.
+ * Une place libérée est donnée directement au premier de la file, dans la même transaction ;
+ * des places ajoutées par l'organisateur vont aussi d'abord à la file (fill).
+ */
+@Service
+@RequiredArgsConstructor
+public class WaitlistService {
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final RegistrationRepository registrationRepository;
+    private final EventRepository eventRepository;
+    private final SeatInventory seatInventory;
+    private final Outbox outbox;
+    private final RegistrationStats registrationStats;
+
+    /**
+     * Rejoindre la liste d'attente d'un événement complet. Renvoie la position (1 = prochain servi).
+     */
+    @Transactional
+    public long join(String userEmail, Long eventId) {
+        int available = seatInventory.available(eventId);
+        if (available < 0) {
+            throw new RegistrationException(RegistrationException.Reason.EVENT_NOT_FOUND);
+        }
+        if (available > 0) {
+            throw new RegistrationException(RegistrationException.Reason.SEATS_AVAILABLE);
+        }
+        if (registrationRepository.existsByParticipantEmailAndEventId(userEmail, eventId)) {
+            throw new RegistrationException(RegistrationException.Reason.ALREADY_REGISTERED);
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setEventId(eventId);
+        entry.setParticipantEmail(userEmail);
+        try {
+            entry = waitlistEntryRepository.saveAndFlush(entry);
+        } catch (DataIntegrityViolationException e) {
+            throw new RegistrationException(RegistrationException.Reason.ALREADY_WAITLISTED);
+        }
+        return waitlistEntryRepository.countByEventIdAndIdLessThan(eventId, entry.getId()) + 1;
+    }
+
+    public long position(String userEmail, Long eventId) {
+        WaitlistEntry entry = waitlistEntryRepository.findByEventIdAndParticipantEmail(eventId, userEmail)
+                .orElseThrow(() -> new RegistrationException(RegistrationException.Reason.NOT_WAITLISTED));
+        return waitlistEntryRepository.countByEventIdAndIdLessThan(eventId, entry.getId()) + 1;
+    }
+
+    @Transactional
+    public void leave(String userEmail, Long eventId) {
+        WaitlistEntry entry = waitlistEntryRepository.findByEventIdAndParticipantEmail(eventId, userEmail)
+                .orElseThrow(() -> new RegistrationException(RegistrationException.Reason.NOT_WAITLISTED));
+        waitlistEntryRepository.delete(entry);
+    }
+
+    /**
+     * Donne aux premiers de la file les places disponibles de l'événement (ex : l'organisateur en a ajouté).
+     * Appelé après la validation de la modification, d'où une transaction à part. Renvoie le nombre de promus.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int fill(Long eventId) {
+        long waiting = waitlistEntryRepository.countByEventId(eventId);
+        if (waiting == 0) {
+            return 0;
+        }
+        int seats = seatInventory.claimUpTo(eventId, (int) Math.min(waiting, Integer.MAX_VALUE));
+        if (seats == 0) {
+            return 0;
+        }
+        TransactionCallbacks.afterRollback(() -> seatInventory.release(eventId, seats));
+        int promoted = promote(eventId, seats);
+        // Personne pour les places restantes (file vidée entre-temps) : elles retournent au stock
+        TransactionCallbacks.afterCommit(() -> {
+            if (promoted < seats) {
+                seatInventory.release(eventId, seats - promoted);
+            }
+            if (promoted > 0) {
+                registrationStats.registered(eventId, promoted);
+            }
+        });
+        return promoted;
+    }
+
+    /**
+     * Donne jusqu'à {@code seats} places libérées aux premiers de la file.
+     * Appelé dans la transaction de la désinscription ; renvoie le nombre de places attribuées,
+     * les autres doivent être rendues au stock par l'appelant.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int promote(Long eventId, int seats) {
+        int promoted = 0;
+        while (promoted < seats) {
+            List<WaitlistEntry> next = waitlistEntryRepository.findByEventIdOrderByIdAsc(eventId, Limit.of(seats - promoted));
+            if (next.isEmpty()) {
+                break;
+            }
+            for (WaitlistEntry entry : next) {
+                waitlistEntryRepository.delete(entry);
+                // Inscrit entre-temps par un autre chemin : on passe au suivant
+                if (registrationRepository.existsByParticipantEmailAndEventId(entry.getParticipantEmail(), eventId)) {
+                    continue;
+                }
+
+                Registration registration = new Registration();
+                registration.setParticipantEmail(entry.getParticipantEmail());
+                registration.setEvent(eventRepository.getReferenceById(eventId));
+                registration.setStatus("CONFIRMED");
+                registration = registrationRepository.save(registration);
+
+                outbox.record(Outbox.WAITLIST_PROMOTED, eventId,
+                        Map.of("registrationId", registration.getId(), "email", entry.getParticipantEmail()));
+                promoted++;
+            }
+        }
+        return promoted;
+    }
+}
@@ -0,0 +1,231 @@
+package com.convene.api.controllers;
+
+import com.convene.api.dtos.EventResponseDtos;
+import com.convene.api.dtos.EventSummaryDto;
+import com.convene.api.repositories.EventRepository;
+import com.convene.api.services.EventService;
+import com.convene.api.services.EventVersions;
+import com.convene.api.services.SeatAvailabilityStream;
+import com.convene.api.services.SeatInventory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class EventControllerTests {
+
+    private static final EventVersions.Version CATALOG = new EventVersions.Version("\"abc-4-17\"", 1_767_225_600_000L);
+    private static final EventVersions.Version EVENT = new EventVersions.Version("\"7-xyz-42\"", 1_767_225_600_000L);
+
+    private final EventService eventService = mock(EventService.class);
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new EventController(eventService)).build();
+
+    @Test
+    void answersNotModifiedWithoutLoadingTheEvent() throws Exception {
+        when(eventService.getEventVersion(7L)).thenReturn(Optional.of(EVENT));
+        when(eventService.getEvent(7L)).thenReturn(Optional.of(detail(7L)));
+
+        MockHttpServletResponse first = mvc.perform(get("/api/events/7")).andReturn().getResponse();
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader("ETag")).isEqualTo(EVENT.etag());
+        assertThat(first.getHeader("Cache-Control")).isEqualTo("no-cache");
+
+        MockHttpServletResponse second = mvc.perform(get("/api/events/7").header("If-None-Match", EVENT.etag()))
+                .andReturn().getResponse();
+        assertThat(second.getStatus()).isEqualTo(304);
+        assertThat(second.getContentLength()).isZero();
+        verify(eventService).getEvent(7L);
+    }
+
+    @Test
+    void answersNotModifiedWithoutSearchingTheList() throws Exception {
+        when(eventService.getCatalogVersion()).thenReturn(CATALOG);
+
+        MockHttpServletResponse response = mvc.perform(get("/api/events").param("category", "Musique")
+                .header("If-None-Match", CATALOG.etag())).andReturn().getResponse();
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        verify(eventService, never()).getEvents(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void servesTheListWhenTheVersionChanged() throws Exception {
+        when(eventService.getCatalogVersion()).thenReturn(CATALOG);
+        when(eventService.getEvents(any(), any(), any(), any(), any(), any(), any())).thenReturn(summaries(3));
+
+        MockHttpServletResponse response = mvc.perform(get("/api/events").header("If-None-Match", "\"abc-3-17\""))
+                .andReturn().getResponse();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("ETag")).isEqualTo(CATALOG.etag());
+    }
+
+    @Test
+    void unknownEventsFallBackToTheFullPath() throws Exception {
+        when(eventService.getEventVersion(anyLong())).thenReturn(Optional.empty());
+        when(eventService.getEvent(8L)).thenReturn(Optional.empty());
+
+        assertThat(mvc.perform(get("/api/events/8").header("If-None-Match", "*")).andReturn().getResponse().getStatus())
+                .isEqualTo(404);
+    }
+
+    @Test
+    void streamsCoalescedSeatChangesUntilTheEventCloses() throws Exception {
+        SeatInventory seatInventory = new SeatInventory(mock(EventRepository.class));
+        SeatAvailabilityStream stream = new SeatAvailabilityStream(seatInventory, 1, 60_000, 60_000, 10);
+        when(eventService.subscribeToAvailability(anyLong())).thenAnswer(call -> stream.subscribe(call.getArgument(0)));
+        seatInventory.reset(7L, 10);
+
+        MvcResult result = mvc.perform(get("/api/events/7/availability/stream")).andReturn();
+        MockHttpServletResponse response = result.getResponse();
+        assertThat(result.getRequest().isAsyncStarted()).isTrue();
+        assertThat(response.getContentType()).startsWith("text/event-stream");
+        await(() -> content(response).contains("\"availableSeats\":10"));
+
+        // Trois réservations entre deux passages : un seul message, avec la dernière valeur
+        seatInventory.tryClaim(7L, 1);
+        seatInventory.tryClaim(7L, 2);
+        seatInventory.tryClaim(7L, 3);
+        stream.push();
+        await(() -> content(response).contains("\"availableSeats\":4"));
+        assertThat(content(response)).doesNotContain("\"availableSeats\":9").doesNotContain("\"availableSeats\":7");
+        assertThat(content(response).split("event:availability", -1)).hasSize(3);
+
+        seatInventory.forget(7L);
+        stream.push();
+        await(() -> content(response).contains("event:closed"));
+        // Le canal est retiré juste après le dernier désabonnement
+        await(() -> stream.stats().get("subscribers").equals(0) && stream.stats().get("channels").equals(0));
+
+        assertThat(mvc.perform(get("/api/events/8/availability/stream")).andReturn().getResponse().getStatus())
+                .isEqualTo(404);
+        verify(eventService).subscribeToAvailability(eq(8L));
+    }
+
+    /**
+     * Octets et temps CPU d'un rechargement de la liste (1000 événements) avec et sans If-None-Match.
+     * La recherche elle-même est simulée (mock) : seul le coût HTTP + sérialisation est mesuré.
+     * Lancer avec -Dconvene.benchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "convene.benchmark", matches = "true")
+    void benchmarkRepeatedPageLoads() throws Exception {
+        when(eventService.getCatalogVersion()).thenReturn(CATALOG);
+        when(eventService.getEvents(any(), any(), any(), any(), any(), any(), any())).thenReturn(summaries(1_000));
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        for (boolean conditional : new boolean[]{false, true, false, true}) {
+            int rounds = 300;
+            long bytes = 0;
+            long cpu = threads.getCurrentThreadCpuTime();
+            for (int i = 0; i < rounds; i++) {
+                var request = get("/api/events");
+                if (conditional) {
+                    request.header("If-None-Match", CATALOG.etag());
+                }
+                bytes += mvc.perform(request).andReturn().getResponse().getContentAsByteArray().length;
+            }
+            System.out.printf(Locale.ROOT, "%s : %,d octets et %.0f µs CPU par chargement%n",
+                    conditional ? "If-None-Match (304)" : "sans condition (200)",
+                    bytes / rounds, (threads.getCurrentThreadCpuTime() - cpu) / 1e3 / rounds);
+        }
+    }
+
+    /**
+     * Mémoire par abonné inactif et délai de diffusion d'un changement à 20 000 abonnés (MockMvc, sans réseau).
+     * Lancer avec -Dconvene.benchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "convene.benchmark", matches = "true")
+    void benchmarkIdleSubscribers() throws Exception {
+        SeatInventory seatInventory = new SeatInventory(mock(EventRepository.class));
+        SeatAvailabilityStream stream = new SeatAvailabilityStream(seatInventory, 4, 3_600_000, 3_600_000, 100_000);
+        when(eventService.subscribeToAvailability(anyLong())).thenAnswer(call -> stream.subscribe(call.getArgument(0)));
+        int events = 50;
+        int clients = 20_000;
+        for (long id = 1; id <= events; id++) {
+            seatInventory.reset(id, 1_000_000);
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heap = runtime.totalMemory() - runtime.freeMemory();
+        List<MockHttpServletResponse> responses = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            responses.add(mvc.perform(get("/api/events/" + (1 + i % events) + "/availability/stream"))
+                    .andReturn().getResponse());
+        }
+        System.gc();
+        System.out.printf(Locale.ROOT, "%,d abonnés : ~%,d octets par abonné (requête et réponse simulées comprises), %d threads%n",
+                clients, (runtime.totalMemory() - runtime.freeMemory() - heap) / clients,
+                ManagementFactory.getThreadMXBean().getThreadCount());
+
+        for (int round = 0; round < 5; round++) {
+            // 1000 inscriptions réparties sur les événements, puis un passage du ticker
+            for (int i = 0; i < 1_000; i++) {
+                seatInventory.tryClaim(1L + i % events, 1);
+            }
+            long sent = (long) stream.stats().get("pushes") + clients;
+            long begin = System.nanoTime();
+            stream.push();
+            await(() -> (long) stream.stats().get("pushes") >= sent);
+            System.out.printf(Locale.ROOT, "1 000 changements fusionnés, %,d messages diffusés en %.1f ms%n",
+                    clients, (System.nanoTime() - begin) / 1e6);
+        }
+        String last = "\"availableSeats\":" + (1_000_000 - 5 * 1_000 / events) + "}\n\n";
+        assertThat(responses).allMatch(response -> content(response).endsWith(last));
+    }
+
+    private static String content(MockHttpServletResponse response) {
+        try {
+            return response.getContentAsString();
+        } catch (java.io.UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("délai dépassé").isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static EventResponseDtos detail(Long id) {
+        return new EventResponseDtos(id, "Concert", "Description", "Musique", null, null, LocalDate.of(2026, 6, 1),
+                "Rabat", "Centre", 100, 42, "PUBLISHED", 34.02, -6.84);
+    }
+
+    private static List<EventSummaryDto> summaries(int count) {
+        List<EventSummaryDto> events = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            events.add(new EventSummaryDto(id, "Événement " + id, "Une description de deux cents caractères au plus, "
+                    + "comme celles de la liste des événements.", "Musique", "https://bucket.s3.amazonaws.com/events/"
+                    + id + ".jpg", null, LocalDate.of(2026, 6, 1), "Rabat", "12 avenue Mohammed V", 100, 42, "PUBLISHED",
+                    34.02, -6.84));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,43 @@
+package com.convene.api.controllers;
+
+import com.convene.api.services.ParticipantExport;
+import com.convene.api.services.RegistrationService;
+import com.convene.api.services.WaitingRoom;
+import com.convene.api.services.WaitlistService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class RegistrationControllerTests {
+
+    private final ParticipantExport participantExport = mock(ParticipantExport.class);
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new RegistrationController(mock(RegistrationService.class),
+            mock(WaitingRoom.class), mock(WaitlistService.class), participantExport)).build();
+
+    @Test
+    void compressesTheExportOnlyWhenGzipHasAPositiveWeight() throws Exception {
+        when(participantExport.exists(1L)).thenReturn(true);
+
+        assertThat(contentEncoding("gzip, deflate")).isEqualTo("gzip");
+        assertThat(contentEncoding("br;q=1.0, gzip;q=0.5")).isEqualTo("gzip");
+        assertThat(contentEncoding("*")).isEqualTo("gzip");
+        assertThat(contentEncoding("gzip;q=0")).isNull();
+        assertThat(contentEncoding("GZIP; q=0.0, *")).isNull();
+        assertThat(contentEncoding("br, *;q=0")).isNull();
+        assertThat(contentEncoding(null)).isNull();
+    }
+
+    private String contentEncoding(String acceptEncoding) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/registrations/event/1/export");
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return mvc.perform(request).andReturn().getResponse().getHeader("Content-Encoding");
+    }
+}
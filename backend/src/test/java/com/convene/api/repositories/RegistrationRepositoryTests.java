@@ -0,0 +1,168 @@
+package com.convene.api.repositories;
+
+import com.convene.api.dtos.RegistrationDto;
+import com.convene.api.models.Event;
+import com.convene.api.models.Registration;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Nombre de requêtes SQL de "mes inscriptions", sans base de données : Hibernate (dialecte MySQL) exécute
+ * la vraie requête du repository sur une connexion JDBC simulée qui compte les statements et renvoie N lignes.
+ */
+class RegistrationRepositoryTests {
+
+    private final List<String> statements = new ArrayList<>();
+    private List<Object[]> rows = List.of();
+    private final SessionFactory sessionFactory = sessionFactory();
+
+    @AfterEach
+    void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void loadsRegistrationsWithTheirEventInOneStatement() throws Exception {
+        String jpql = RegistrationRepository.class.getMethod("findSummariesByParticipantEmail", String.class)
+                .getAnnotation(Query.class).value();
+
+        for (int count : new int[]{1, 10, 500}) {
+            rows = rows(count);
+            statements.clear();
+            List<RegistrationDto> registrations = sessionFactory.fromSession(session -> {
+                List<RegistrationDto> result = session.createQuery(jpql, RegistrationDto.class)
+                        .setParameter("email", "alice@example.com")
+                        .getResultList();
+                // Sérialisation JSON simulée : tous les champs de l'événement sont lus
+                result.forEach(registration -> registration.event().toString());
+                return result;
+            });
+
+            assertThat(registrations).hasSize(count);
+            assertThat(statements).hasSize(1);
+            assertThat(statements.get(0)).containsIgnoringCase("join").containsIgnoringCase("participant_email");
+            RegistrationDto last = registrations.get(count - 1);
+            assertThat(last.id()).isEqualTo((long) count);
+            assertThat(last.event().title()).isEqualTo("Événement " + count);
+            assertThat(last.event().city()).isEqualTo("Rabat");
+            assertThat(last.registrationDate()).isEqualTo(LocalDateTime.of(2026, 1, 1, 10, 0));
+        }
+    }
+
+    private SessionFactory sessionFactory() {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(Event.class)
+                .addAnnotatedClass(Registration.class)
+                .setProperty(AvailableSettings.DIALECT, "org.hibernate.dialect.MySQLDialect")
+                .setProperty("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "none")
+                // Nommage des colonnes de Spring Boot (participantEmail -> participant_email)
+                .setProperty(AvailableSettings.PHYSICAL_NAMING_STRATEGY,
+                        "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy");
+        configuration.getProperties().put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource());
+        return configuration.buildSessionFactory();
+    }
+
+    private static List<Object[]> rows(int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            // Même ordre que la projection de la requête
+            rows.add(new Object[]{id, "CONFIRMED", LocalDateTime.of(2026, 1, 1, 10, 0), null,
+                    1000 + id, "Événement " + id, "Description", "Musique", null, null, LocalDate.of(2026, 6, 1),
+                    "Rabat", "Centre", 100, 42, "PUBLISHED", null, null});
+        }
+        return rows;
+    }
+
+    private DataSource dataSource() {
+        Connection connection = proxy(Connection.class, (self, method, args) -> switch (method.getName()) {
+            case "prepareStatement" -> {
+                statements.add((String) args[0]);
+                yield statement();
+            }
+            case "getAutoCommit", "isValid" -> true;
+            default -> defaultValue(method.getReturnType());
+        });
+        return proxy(DataSource.class, (self, method, args) ->
+                method.getName().equals("getConnection") ? connection : defaultValue(method.getReturnType()));
+    }
+
+    private PreparedStatement statement() {
+        return proxy(PreparedStatement.class, (self, method, args) ->
+                method.getName().equals("executeQuery") ? resultSet(rows) : defaultValue(method.getReturnType()));
+    }
+
+    // Lignes lues par position, converties selon le getter appelé par Hibernate
+    private static ResultSet resultSet(List<Object[]> rows) {
+        int[] row = {-1};
+        Object[] last = {null};
+        return proxy(ResultSet.class, (self, method, args) -> {
+            String name = method.getName();
+            if (name.equals("next")) {
+                return ++row[0] < rows.size();
+            }
+            if (name.equals("wasNull")) {
+                return last[0] == null;
+            }
+            if (name.startsWith("get") && args != null && args[0] instanceof Integer column) {
+                Object value = rows.get(row[0])[column - 1];
+                last[0] = value;
+                if (value == null) {
+                    return defaultValue(method.getReturnType());
+                }
+                return switch (name) {
+                    case "getLong" -> ((Number) value).longValue();
+                    case "getInt" -> ((Number) value).intValue();
+                    case "getDouble" -> ((Number) value).doubleValue();
+                    case "getString" -> value.toString();
+                    case "getDate" -> java.sql.Date.valueOf((LocalDate) value);
+                    case "getTimestamp" -> Timestamp.valueOf((LocalDateTime) value);
+                    default -> value;
+                };
+            }
+            return defaultValue(method.getReturnType());
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) ->
+                switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    case "toString" -> type.getSimpleName();
+                    default -> handler.invoke(self, method, args);
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class || type == long.class || type == short.class || type == byte.class) {
+            return type == long.class ? 0L : type == int.class ? 0 : type == short.class ? (short) 0 : (byte) 0;
+        }
+        if (type == double.class || type == float.class) {
+            return type == double.class ? 0d : 0f;
+        }
+        return null;
+    }
+}
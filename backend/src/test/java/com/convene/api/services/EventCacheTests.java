@@ -0,0 +1,79 @@
+package com.convene.api.services;
+
+import com.convene.api.dtos.EventResponseDtos;
+import com.convene.api.repositories.EventRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EventCacheTests {
+
+    private final SeatInventory seatInventory = new SeatInventory(mock(EventRepository.class));
+    private final EventCache cache = new EventCache(seatInventory, 100, 300);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesRepeatedReadsFromMemoryWithLiveSeatCounts() {
+        seatInventory.reset(1L, 50);
+        assertThat(cache.get(1L, this::load)).map(EventResponseDtos::availableSeats).contains(50);
+
+        seatInventory.tryClaim(1L, 3);
+        assertThat(cache.get(1L, this::load)).map(EventResponseDtos::availableSeats).contains(47);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void reloadsAfterInvalidation() {
+        cache.get(1L, this::load);
+        cache.invalidate(1L);
+        cache.get(1L, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void staysWithinMaxSize() {
+        for (long id = 1; id <= 1_000; id++) {
+            cache.get(id, this::load);
+        }
+
+        assertThat((int) cache.stats().get("size")).isLessThanOrEqualTo(100);
+        assertThat((long) cache.stats().get("evictions")).isEqualTo(900L);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyReadRatherThanTheLowestIds() {
+        for (long id = 1; id <= 100; id++) {
+            cache.get(id, this::load);
+        }
+        // Les petits ids sont relus : ce sont les autres qui doivent partir
+        for (long id = 1; id <= 50; id++) {
+            cache.get(id, this::load);
+        }
+        for (long id = 101; id <= 120; id++) {
+            cache.get(id, this::load);
+        }
+
+        // Chargement sans résultat : rien n'est ajouté pendant la vérification
+        AtomicInteger evicted = new AtomicInteger();
+        for (long id = 1; id <= 50; id++) {
+            cache.get(id, missing -> {
+                evicted.incrementAndGet();
+                return Optional.empty();
+            });
+        }
+        assertThat(evicted.get()).isLessThanOrEqualTo(2);
+    }
+
+    private Optional<EventResponseDtos> load(Long id) {
+        loads.incrementAndGet();
+        return Optional.of(new EventResponseDtos(id, "Concert", "", "Musique", null, null, LocalDate.of(2026, 6, 1),
+                "Rabat", "Centre", 50, 50, "PUBLISHED", null, null));
+    }
+}
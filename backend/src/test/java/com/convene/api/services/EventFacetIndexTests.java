@@ -0,0 +1,135 @@
+package com.convene.api.services;
+
+import com.convene.api.dtos.EventFacetsDto;
+import com.convene.api.dtos.EventFacetsDto.FacetCount;
+import com.convene.api.models.Event;
+import com.convene.api.repositories.EventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EventFacetIndexTests {
+
+    private static final String[] CATEGORIES = {"Musique", "Sport", "Théâtre", "Atelier", "Conférence"};
+    private static final String[] CITIES = {"Casablanca", "Rabat", "Marrakech", "Fès", "Tanger"};
+
+    private final EventSearchIndex searchIndex = new EventSearchIndex(new SeatInventory(mock(EventRepository.class)));
+    private final EventFacetIndex facets = new EventFacetIndex(searchIndex);
+
+    @Test
+    void matchesBruteForceCountsForRandomFilters() {
+        Random random = new Random(7);
+        List<Event> events = generate(random, 20_000);
+        events.forEach(facets::index);
+        // Quelques modifications et suppressions
+        for (int i = 0; i < 2_000; i++) {
+            Event event = events.get(random.nextInt(events.size()));
+            event.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            event.setEventDate(event.getEventDate().plusDays(random.nextInt(90) - 45));
+            facets.index(event);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            Event removed = events.remove(random.nextInt(events.size()));
+            facets.remove(removed.getId());
+        }
+
+        for (int i = 0; i < 200; i++) {
+            String category = random.nextBoolean() ? CATEGORIES[random.nextInt(CATEGORIES.length)] : null;
+            String city = random.nextBoolean() ? CITIES[random.nextInt(CITIES.length)].toUpperCase(Locale.ROOT) : null;
+            LocalDate start = random.nextBoolean() ? LocalDate.of(2026, 1, 1).plusDays(random.nextInt(700)) : null;
+            LocalDate end = random.nextBoolean() ? LocalDate.of(2026, 1, 1).plusDays(random.nextInt(700)) : null;
+
+            EventFacetsDto result = facets.facets(null, category, city, start, end, "month");
+
+            assertThat(result.total()).isEqualTo(count(events, category, city, start, end));
+            for (FacetCount facet : result.categories()) {
+                assertThat(facet.count()).isEqualTo(count(events, facet.value(), city, start, end));
+            }
+            for (FacetCount facet : result.cities()) {
+                assertThat(facet.count()).isEqualTo(count(events, category, facet.value(), start, end));
+            }
+            assertThat(result.dates().stream().mapToLong(FacetCount::count).sum()).isEqualTo(result.total());
+        }
+    }
+
+    @Test
+    void countsSearchMatchesAndWeeklyBuckets() {
+        facets.index(indexed(1L, "Concert de jazz", "Musique", "Rabat", LocalDate.of(2026, 3, 2)));
+        facets.index(indexed(2L, "Jazz au parc", "Musique", "Fès", LocalDate.of(2026, 3, 4)));
+        facets.index(indexed(3L, "Match de jazz-ball", "Sport", "Rabat", LocalDate.of(2026, 3, 12)));
+        facets.index(indexed(4L, "Marathon", "Sport", "Rabat", LocalDate.of(2026, 3, 12)));
+
+        EventFacetsDto result = facets.facets("jazz", null, "rabat", null, null, "week");
+
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.categories()).containsExactly(new FacetCount("Musique", 1), new FacetCount("Sport", 1));
+        assertThat(result.cities()).containsExactly(new FacetCount("Rabat", 2), new FacetCount("Fès", 1));
+        assertThat(result.dates()).containsExactly(new FacetCount("2026-03-02", 1), new FacetCount("2026-03-09", 1));
+    }
+
+    /**
+     * Temps de réponse sur 1M événements. Lancer avec -Dconvene.benchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "convene.benchmark", matches = "true")
+    void benchmarkOneMillionEvents() {
+        Random random = new Random(7);
+        generate(random, 1_000_000).forEach(facets::index);
+        LocalDate start = LocalDate.of(2026, 2, 10);
+        LocalDate end = LocalDate.of(2026, 9, 20);
+
+        int rounds = 10_000;
+        for (int i = 0; i < 1_000; i++) {
+            facets.facets(null, "Musique", null, start, end, "month");
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            facets.facets(null, i % 2 == 0 ? "Musique" : null, i % 3 == 0 ? "Rabat" : null, start, end, "month");
+        }
+        System.out.printf(Locale.ROOT, "1,000,000 événements : %.1f µs par appel%n",
+                (System.nanoTime() - begin) / 1e3 / rounds);
+    }
+
+    private static long count(List<Event> events, String category, String city, LocalDate start, LocalDate end) {
+        return events.stream()
+                .filter(e -> category == null || e.getCategory().equalsIgnoreCase(category))
+                .filter(e -> city == null || e.getLocationCity().equalsIgnoreCase(city))
+                .filter(e -> start == null || !e.getEventDate().isBefore(start))
+                .filter(e -> end == null || !e.getEventDate().isAfter(end))
+                .count();
+    }
+
+    private Event indexed(Long id, String title, String category, String city, LocalDate date) {
+        Event event = event(id, title, category, city, date);
+        searchIndex.index(event);
+        return event;
+    }
+
+    private static List<Event> generate(Random random, int size) {
+        List<Event> events = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            events.add(event(id, "Événement " + id, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    CITIES[random.nextInt(CITIES.length)], LocalDate.of(2026, 1, 1).plusDays(random.nextInt(730))));
+        }
+        return events;
+    }
+
+    private static Event event(Long id, String title, String category, String city, LocalDate date) {
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle(title);
+        event.setCategory(category);
+        event.setLocationCity(city);
+        event.setEventDate(date);
+        event.setStatus("PUBLISHED");
+        return event;
+    }
+}
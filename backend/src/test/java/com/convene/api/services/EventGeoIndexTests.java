@@ -0,0 +1,195 @@
+package com.convene.api.services;
+
+import com.convene.api.models.Event;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class EventGeoIndexTests {
+
+    private static final String[] CATEGORIES = {"Musique", "Sport", "Théâtre", "Atelier"};
+    // Centres autour desquels les événements sont tirés
+    private static final double[][] CENTERS = {
+            {33.5731, -7.5898}, {34.0209, -6.8416}, {31.6295, -7.9811}, {48.8566, 2.3522},
+            {40.7128, -74.0060}, {37.7749, -122.4194}, {64.1466, -21.9426}, {-33.8688, 151.2093}
+    };
+
+    private final EventGeoIndex index = new EventGeoIndex();
+
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(11);
+        List<Event> events = generate(random, 50_000);
+        events.forEach(index::index);
+        for (int i = 0; i < 2_000; i++) {
+            Event removed = events.remove(random.nextInt(events.size()));
+            index.remove(removed.getId());
+        }
+        Map<Long, Event> byId = events.stream().collect(Collectors.toMap(Event::getId, e -> e));
+
+        for (int i = 0; i < 300; i++) {
+            double[] center = CENTERS[random.nextInt(CENTERS.length)];
+            double latitude = center[0] + random.nextGaussian() * 0.5;
+            double longitude = center[1] + random.nextGaussian() * 0.5;
+            Double radius = random.nextBoolean() ? 1 + random.nextDouble() * 50 : null;
+            String category = random.nextInt(4) == 0 ? CATEGORIES[random.nextInt(CATEGORIES.length)] : null;
+            LocalDate start = random.nextInt(4) == 0 ? LocalDate.of(2026, 1, 1).plusDays(random.nextInt(300)) : null;
+            int limit = 1 + random.nextInt(50);
+
+            // Une seule distance par événement : la recalculer dans le comparateur coûtait n log n haversines
+            List<Long> expected = events.stream()
+                    .filter(e -> category == null || e.getCategory().equals(category))
+                    .filter(e -> start == null || !e.getEventDate().isBefore(start))
+                    .map(e -> new Candidate(e.getId(), distance(e, latitude, longitude)))
+                    .filter(c -> radius == null || c.distance() <= radius)
+                    .sorted(Comparator.comparingDouble(Candidate::distance).thenComparing(Candidate::id))
+                    .limit(limit)
+                    .map(Candidate::id)
+                    .toList();
+
+            List<Long> actual = index.nearest(latitude, longitude, radius, category, null, start, null, null, limit);
+            assertThat(actual).hasSameSizeAs(expected);
+            // Les distances doivent coïncider (l'ordre exact peut différer à quelques ulp près)
+            for (int k = 0; k < expected.size(); k++) {
+                assertThat(distance(byId.get(actual.get(k)), latitude, longitude))
+                        .isCloseTo(distance(byId.get(expected.get(k)), latitude, longitude), offset(1e-6));
+            }
+        }
+    }
+
+    @Test
+    void followsUpdatesRemovalsAndFilters() {
+        Event casablanca = event(1L, 33.5731, -7.5898, "Musique", LocalDate.of(2026, 5, 1));
+        Event rabat = event(2L, 34.0209, -6.8416, "Sport", LocalDate.of(2026, 5, 2));
+        Event paris = event(3L, 48.8566, 2.3522, "Musique", LocalDate.of(2026, 5, 3));
+        List.of(casablanca, rabat, paris).forEach(index::index);
+
+        assertThat(index.nearest(33.6, -7.6, null, null, null, null, null, null, 3)).containsExactly(1L, 2L, 3L);
+        assertThat(index.nearest(33.6, -7.6, 100.0, null, null, null, null, null, 3)).containsExactly(1L, 2L);
+        assertThat(index.nearest(33.6, -7.6, null, "musique", null, null, null, null, 3)).containsExactly(1L, 3L);
+        assertThat(index.nearest(33.6, -7.6, null, null, null, null, null, new long[]{2L, 3L}, 3)).containsExactly(2L, 3L);
+
+        // Déplacé à Paris, puis dépublié
+        rabat.setLatitude(48.86);
+        rabat.setLongitude(2.35);
+        index.index(rabat);
+        assertThat(index.nearest(48.8566, 2.3522, 10.0, null, null, null, null, null, 5)).containsExactly(3L, 2L);
+        rabat.setStatus("DRAFT");
+        index.index(rabat);
+        index.remove(1L);
+        assertThat(index.nearest(33.6, -7.6, null, null, null, null, null, null, 5)).containsExactly(3L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void findsEventsInBoxByDate() {
+        index.index(event(1L, 33.57, -7.59, "Musique", LocalDate.of(2026, 5, 3)));
+        index.index(event(2L, 33.60, -7.50, "Musique", LocalDate.of(2026, 5, 1)));
+        index.index(event(3L, 34.02, -6.84, "Musique", LocalDate.of(2026, 5, 2)));
+        index.index(event(4L, -16.5, 179.9, "Sport", LocalDate.of(2026, 5, 4)));
+        index.index(event(5L, -16.6, -179.9, "Sport", LocalDate.of(2026, 5, 5)));
+
+        assertThat(index.within(GeoBox.parse("33.4,-7.8,33.7,-7.4"), null, null, null, null, null, 10))
+                .containsExactly(2L, 1L);
+        assertThat(index.within(GeoBox.parse("33,-8,35,-6"), null, null, null, null, null, 2))
+                .containsExactly(2L, 3L);
+        // Rectangle qui traverse l'antiméridien
+        assertThat(index.within(GeoBox.parse("-17,179,-16,-179"), null, null, null, null, null, 10))
+                .containsExactly(4L, 5L);
+        assertThat(index.within(GeoBox.parse("-90,-180,90,180"), "sport", null, null, null, null, 10))
+                .containsExactly(4L, 5L);
+    }
+
+    /**
+     * k plus proches voisins sur 1M événements. Lancer avec -Dconvene.benchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "convene.benchmark", matches = "true")
+    void benchmarkOneMillionEvents() {
+        Random random = new Random(11);
+        generate(random, 1_000_000).forEach(index::index);
+
+        int rounds = 20_000;
+        double[][] probes = new double[rounds][];
+        for (int i = 0; i < rounds; i++) {
+            double[] center = CENTERS[random.nextInt(CENTERS.length)];
+            probes[i] = new double[]{center[0] + random.nextGaussian() * 0.2, center[1] + random.nextGaussian() * 0.2};
+        }
+        for (int i = 0; i < 5_000; i++) {
+            index.nearest(probes[i][0], probes[i][1], null, null, null, null, null, null, 20);
+        }
+        long begin = System.nanoTime();
+        for (double[] probe : probes) {
+            index.nearest(probe[0], probe[1], null, null, null, null, null, null, 20);
+        }
+        System.out.printf(Locale.ROOT, "1,000,000 événements, 20 plus proches : %.1f µs par appel%n",
+                (System.nanoTime() - begin) / 1e3 / rounds);
+
+        begin = System.nanoTime();
+        for (double[] probe : probes) {
+            index.nearest(probe[0], probe[1], 25.0, "Musique", null, null, null, null, 20);
+        }
+        System.out.printf(Locale.ROOT, "1,000,000 événements, 20 plus proches (catégorie, 25 km) : %.1f µs par appel%n",
+                (System.nanoTime() - begin) / 1e3 / rounds);
+
+        // Zones peu denses : beaucoup plus d'anneaux à parcourir
+        int sparseRounds = 1_000;
+        begin = System.nanoTime();
+        for (int i = 0; i < sparseRounds; i++) {
+            index.nearest(-60 + random.nextDouble() * 130, -180 + random.nextDouble() * 360, null, null, null, null, null,
+                    null, 20);
+        }
+        System.out.printf(Locale.ROOT, "1,000,000 événements, 20 plus proches (zone peu dense) : %.1f µs par appel%n",
+                (System.nanoTime() - begin) / 1e3 / sparseRounds);
+    }
+
+    private record Candidate(Long id, double distance) {}
+
+    private static double distance(Event event, double latitude, double longitude) {
+        return EventGeoIndex.distanceKm(latitude, longitude, event.getLatitude(), event.getLongitude());
+    }
+
+    // Agglomérations denses (écart type d'environ 20 km) et quelques événements isolés
+    private static List<Event> generate(Random random, int size) {
+        List<Event> events = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            double latitude;
+            double longitude;
+            if (random.nextInt(10) == 0) {
+                latitude = -60 + random.nextDouble() * 130;
+                longitude = -180 + random.nextDouble() * 360;
+            } else {
+                double[] center = CENTERS[random.nextInt(CENTERS.length)];
+                latitude = center[0] + random.nextGaussian() * 0.2;
+                longitude = center[1] + random.nextGaussian() * 0.2;
+            }
+            events.add(event(id, latitude, longitude, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    LocalDate.of(2026, 1, 1).plusDays(random.nextInt(365))));
+        }
+        return events;
+    }
+
+    private static Event event(Long id, double latitude, double longitude, String category, LocalDate date) {
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle("Événement " + id);
+        event.setCategory(category);
+        event.setLocationCity("Ville");
+        event.setLatitude(latitude);
+        event.setLongitude(longitude);
+        event.setEventDate(date);
+        event.setStatus("PUBLISHED");
+        return event;
+    }
+}
@@ -0,0 +1,94 @@
+package com.convene.api.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventSearchCacheTests {
+
+    private final EventSearchCache cache = new EventSearchCache(512, 60_000);
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @Test
+    void concurrentIdenticalSearchesShareOneQuery() throws Exception {
+        EventSearchCache.Key key = key("Musique", "Rabat");
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 32;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(pool.submit(() -> cache.get(key, () -> {
+                queries.incrementAndGet();
+                await(release);
+                return List.of("concert");
+            })));
+        }
+        // Laisse les appelants rejoindre la requête en cours avant de la terminer
+        while ((long) cache.stats().get("coalesced") < callers - 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        for (Future<List<String>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).containsExactly("concert");
+        }
+        pool.shutdown();
+
+        assertThat(queries).hasValue(1);
+        assertThat(cache.stats()).containsEntry("executed", 1L).containsEntry("coalesced", (long) callers - 1);
+    }
+
+    @Test
+    void invalidatesOnlyMatchingFilters() {
+        cache.get(key("Musique", "Rabat"), this::query);
+        cache.get(key("Sport", "Rabat"), this::query);
+        cache.get(key(null, null), this::query);
+
+        cache.invalidate("musique", "RABAT");
+        cache.get(key("Musique", "Rabat"), this::query);
+        cache.get(key("Sport", "Rabat"), this::query);
+        cache.get(key(null, null), this::query);
+
+        assertThat(queries).hasValue(5);
+        assertThat(cache.stats()).containsEntry("cacheHits", 1L);
+    }
+
+    @Test
+    void invalidatesIgnoringAccents() {
+        cache.get(key("Théâtre", "Fès"), this::query);
+        cache.get(key("Theatre", "Fes"), this::query);
+
+        cache.invalidate("theatre", "FES");
+        cache.get(key("Théâtre", "Fès"), this::query);
+        cache.invalidate("Théâtre", "Fès");
+        cache.get(key("Theatre", "Fes"), this::query);
+
+        assertThat(queries).hasValue(4);
+        assertThat(cache.stats()).containsEntry("cacheHits", 0L);
+    }
+
+    private List<String> query() {
+        queries.incrementAndGet();
+        return List.of();
+    }
+
+    private static EventSearchCache.Key key(String category, String city) {
+        return new EventSearchCache.Key("list", null, category, city, null, null, "date", null, null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
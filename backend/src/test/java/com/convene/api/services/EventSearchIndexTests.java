@@ -0,0 +1,187 @@
+package com.convene.api.services;
+
+import com.convene.api.models.Event;
+import com.convene.api.repositories.EventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EventSearchIndexTests {
+
+    private static final String[] WORDS = {
+            "concert", "jazz", "théâtre", "atelier", "cuisine", "conférence", "festival", "danse",
+            "cinéma", "exposition", "photographie", "marché", "randonnée", "yoga", "hackathon", "startup"
+    };
+    private static final String[] CITIES = {"Casablanca", "Rabat", "Marrakech", "Fès", "Tanger", "Agadir"};
+
+    private final EventSearchIndex index = newIndex();
+
+    @Test
+    void matchesPrefixesIgnoringCaseAndAccents() {
+        index.index(event(1L, "Soirée Théâtre", "Pièce classique", "Culture", "Fès", LocalDate.of(2026, 3, 1)));
+        index.index(event(2L, "Concert de jazz", "Quartet en plein air", "Musique", "Rabat", LocalDate.of(2026, 2, 1)));
+        index.index(event(3L, "Jazz & théâtre", "Improvisation", "Culture", "Rabat", LocalDate.of(2026, 1, 1)));
+
+        assertThat(index.search("THEA", null, null, null, null)).containsExactly(3L, 1L);
+        assertThat(index.search("jazz thé", null, null, null, null)).containsExactly(3L);
+        assertThat(index.search("fes", null, null, null, null)).containsExactly(1L);
+        assertThat(index.search("jazz", null, "rabat", LocalDate.of(2026, 1, 15), null)).containsExactly(2L);
+        assertThat(index.search("opera", null, null, null, null)).isEmpty();
+    }
+
+    @Test
+    void findsNothingForASearchWithoutWords() {
+        index.index(event(1L, "Soirée Théâtre", "Pièce classique", "Culture", "Fès", LocalDate.of(2026, 3, 1)));
+
+        assertThat(index.search("!!!", null, null, null, null)).isEmpty();
+        assertThat(index.search("-", null, null, null, null)).isEmpty();
+        assertThat(index.rank("-", null, null, null, null, 10)).isEmpty();
+        assertThat(index.matching("!!!")).isEmpty();
+        // Sans recherche : tous les événements
+        assertThat(index.search(" ", null, null, null, null)).containsExactly(1L);
+    }
+
+    @Test
+    void followsUpdatesAndRemovals() {
+        Event event = event(1L, "Atelier cuisine", null, "Atelier", "Rabat", LocalDate.of(2026, 1, 1));
+        index.index(event);
+
+        event.setTitle("Atelier poterie");
+        index.index(event);
+        assertThat(index.search("cuisine", null, null, null, null)).isEmpty();
+        assertThat(index.search("poterie", null, null, null, null)).containsExactly(1L);
+
+        event.setStatus("DRAFT");
+        index.index(event);
+        assertThat(index.search("poterie", null, null, null, null)).isEmpty();
+
+        event.setStatus("PUBLISHED");
+        index.index(event);
+        index.remove(1L);
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void ranksTitleMatchesAndUpcomingEventsFirst() {
+        LocalDate soon = LocalDate.now().plusDays(3);
+        index.index(event(1L, "Atelier photo", "On y parle aussi de jazz", "Atelier", "Rabat", soon));
+        index.index(event(2L, "Festival de jazz", "Trois scènes", "Musique", "Rabat", soon));
+        index.index(event(3L, "Festival de jazz", "Trois scènes", "Musique", "Rabat", LocalDate.now().minusDays(30)));
+        index.index(event(4L, "Nuit du jazz", "Jazz, jazz et encore du jazz", "Musique", "Rabat", soon));
+
+        assertThat(index.rank("jazz", null, null, null, null, 3)).containsExactly(4L, 2L, 1L);
+        assertThat(index.rank("jazz", null, null, null, null, 10)).hasSize(4).endsWith(3L);
+        assertThat(index.rank("jazz photo", null, null, null, null, 10)).containsExactly(1L);
+    }
+
+    /**
+     * Comparaison avec un parcours complet façon LIKE '%...%' (ce que fait MySQL sur la colonne TEXT).
+     * Lancer avec -Dconvene.benchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "convene.benchmark", matches = "true")
+    void benchmarkAgainstFullScan() {
+        for (int size : new int[]{10_000, 100_000, 1_000_000}) {
+            EventSearchIndex bench = newIndex();
+            List<Event> events = generate(size);
+            events.forEach(bench::index);
+
+            String[] queries = {"jazz", "conf", "atelier cuisine", "mot4242", "randonnée mot42"};
+            for (String query : queries) {
+                long indexNanos = 0;
+                long scanNanos = 0;
+                int rounds = 5;
+                for (int round = 0; round < rounds; round++) {
+                    long start = System.nanoTime();
+                    bench.search(query, null, null, null, null);
+                    indexNanos += System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    fullScan(events, query);
+                    scanNanos += System.nanoTime() - start;
+                }
+                System.out.printf(Locale.ROOT, "%,d événements, \"%s\" : index %.2f ms, parcours complet %.2f ms%n",
+                        size, query, indexNanos / 1e6 / rounds, scanNanos / 1e6 / rounds);
+            }
+        }
+    }
+
+    /**
+     * Classement top-K (tas borné) contre le tri par date de tous les résultats.
+     * Lancer avec -Dconvene.benchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "convene.benchmark", matches = "true")
+    void benchmarkRankingAgainstDateOrder() {
+        EventSearchIndex bench = newIndex();
+        generate(1_000_000).forEach(bench::index);
+        for (String query : new String[]{"jazz", "atelier cuisine", "randonnée mot42"}) {
+            long rankNanos = 0;
+            long dateNanos = 0;
+            int rounds = 5;
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                bench.rank(query, null, null, null, null, 20);
+                rankNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                bench.search(query, null, null, null, null);
+                dateNanos += System.nanoTime() - start;
+            }
+            System.out.printf(Locale.ROOT, "1,000,000 événements, \"%s\" : pertinence (top 20) %.2f ms, date %.2f ms%n",
+                    query, rankNanos / 1e6 / rounds, dateNanos / 1e6 / rounds);
+        }
+    }
+
+    private static EventSearchIndex newIndex() {
+        return new EventSearchIndex(new SeatInventory(mock(EventRepository.class)));
+    }
+
+    private static List<Event> fullScan(List<Event> events, String query) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        List<Event> matches = new ArrayList<>();
+        for (Event event : events) {
+            if (event.getTitle().toLowerCase(Locale.ROOT).contains(needle)
+                    || event.getDescription().toLowerCase(Locale.ROOT).contains(needle)) {
+                matches.add(event);
+            }
+        }
+        return matches;
+    }
+
+    private static List<Event> generate(int size) {
+        Random random = new Random(42);
+        List<Event> events = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            StringBuilder description = new StringBuilder();
+            // Vocabulaire large : un mot donné n'apparaît que dans une petite partie des descriptions
+            for (int i = 0; i < 30; i++) {
+                description.append(i % 10 == 0 ? WORDS[random.nextInt(WORDS.length)] : "mot" + random.nextInt(50_000)).append(' ');
+            }
+            events.add(event(id, title, description.toString(), "Culture", CITIES[random.nextInt(CITIES.length)],
+                    LocalDate.of(2026, 1, 1).plusDays(random.nextInt(365))));
+        }
+        return events;
+    }
+
+    private static Event event(Long id, String title, String description, String category, String city, LocalDate date) {
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle(title);
+        event.setDescription(description);
+        event.setCategory(category);
+        event.setLocationCity(city);
+        event.setEventDate(date);
+        event.setStatus("PUBLISHED");
+        return event;
+    }
+}
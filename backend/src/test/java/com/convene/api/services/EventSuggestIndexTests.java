@@ -0,0 +1,198 @@
+package com.convene.api.services;
+
+import com.convene.api.dtos.SuggestionDto;
+import com.convene.api.models.Event;
+import com.convene.api.repositories.EventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.Mockito.mock;
+
+class EventSuggestIndexTests {
+
+    private static final String[] WORDS = {
+            "concert", "jazz", "théâtre", "atelier", "cuisine", "conférence", "festival", "danse",
+            "cinéma", "exposition", "photographie", "marché", "randonnée", "yoga", "hackathon", "startup"
+    };
+    private static final String[] CITIES = {"Casablanca", "Rabat", "Marrakech", "Fès", "Tanger", "Agadir"};
+    private static final String[] CATEGORIES = {"Musique", "Sport", "Théâtre", "Atelier", "Conférence"};
+
+    private final EventSuggestIndex index = new EventSuggestIndex(new SeatInventory(mock(EventRepository.class)));
+
+    @Test
+    void completesTitlesCitiesAndCategoriesIgnoringAccents() {
+        LocalDate soon = LocalDate.now().plusDays(5);
+        index.index(event(1L, "Théâtre de rue", "Spectacle", "Fès", soon, 100, 100));
+        index.index(event(2L, "Théâtre classique", "Spectacle", "Rabat", soon, 100, 20));
+        index.index(event(3L, "Jazz au parc", "Musique", "Fès", soon, 100, 100));
+
+        assertThat(index.suggest("THEA", 10)).containsExactly(
+                new SuggestionDto("Théâtre classique", "title", 1),
+                new SuggestionDto("Théâtre de rue", "title", 1));
+        assertThat(index.suggest("fe", 10)).containsExactly(new SuggestionDto("Fès", "city", 2));
+        assertThat(index.suggest("spec", 10)).containsExactly(new SuggestionDto("Spectacle", "category", 2));
+        assertThat(index.suggest("opéra", 10)).isEmpty();
+        assertThat(index.suggest("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void prefersPopularAndUpcomingEvents() {
+        LocalDate today = LocalDate.now();
+        index.index(event(1L, "Concert A", "Musique", "Rabat", today.plusDays(200), 100, 100));
+        index.index(event(2L, "Concert B", "Musique", "Rabat", today.plusDays(2), 100, 100));
+        index.index(event(3L, "Concert C", "Musique", "Rabat", today.plusDays(200), 1000, 10));
+        index.index(event(4L, "Concert D", "Musique", "Rabat", today.minusDays(2), 1000, 10));
+
+        assertThat(index.suggest("concert", 10)).extracting(SuggestionDto::text)
+                .containsExactly("Concert C", "Concert B", "Concert A", "Concert D");
+    }
+
+    @Test
+    void followsUpdatesAndRemovals() {
+        LocalDate soon = LocalDate.now().plusDays(5);
+        Event event = event(1L, "Atelier cuisine", "Atelier", "Rabat", soon, 10, 10);
+        index.index(event);
+        index.index(event(2L, "Atelier poterie", "Atelier", "Rabat", soon, 10, 10));
+
+        event.setTitle("Atelier couture");
+        index.index(event);
+        assertThat(index.suggest("atelier c", 10)).extracting(SuggestionDto::text).containsExactly("Atelier couture");
+
+        index.remove(2L);
+        assertThat(index.suggest("atelier", 10)).extracting(SuggestionDto::text)
+                .containsExactly("Atelier", "Atelier couture");
+        event.setStatus("DRAFT");
+        index.index(event);
+        assertThat(index.suggest("a", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void matchesBruteForceAfterRandomChanges() {
+        Random random = new Random(3);
+        Map<Long, Event> events = new HashMap<>();
+        for (long id = 1; id <= 20_000; id++) {
+            Event event = randomEvent(random, id);
+            events.put(id, event);
+            index.index(event);
+        }
+        index.rebuilt();
+        for (int i = 0; i < 3_000; i++) {
+            long id = 1 + random.nextInt(20_000);
+            if (random.nextInt(3) == 0) {
+                events.remove(id);
+                index.remove(id);
+            } else {
+                Event event = randomEvent(random, id);
+                events.put(id, event);
+                index.index(event);
+            }
+            if (i % 100 == 0) {
+                assertMatchesBruteForce(events, random);
+            }
+        }
+    }
+
+    /**
+     * Temps de réponse sur 1M événements. Lancer avec -Dconvene.benchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "convene.benchmark", matches = "true")
+    void benchmarkOneMillionEvents() {
+        Random random = new Random(3);
+        for (long id = 1; id <= 1_000_000; id++) {
+            index.index(randomEvent(random, id));
+        }
+        long start = System.nanoTime();
+        index.rebuilt();
+        System.out.printf(Locale.ROOT, "Calcul initial : %.0f ms%n", (System.nanoTime() - start) / 1e6);
+
+        String[] prefixes = new String[200];
+        for (int i = 0; i < prefixes.length; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            prefixes[i] = word.substring(0, 1 + random.nextInt(word.length()));
+        }
+        int rounds = 100_000;
+        long[] nanos = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            // Une modification toutes les 10 requêtes : le chemin modifié est recalculé à la lecture
+            if (i % 10 == 0) {
+                index.index(randomEvent(random, 1 + random.nextInt(1_000_000)));
+            }
+            long begin = System.nanoTime();
+            index.suggest(prefixes[i % prefixes.length], 10);
+            nanos[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(nanos, rounds / 10, rounds);
+        long[] measured = Arrays.copyOfRange(nanos, rounds / 10, rounds);
+        System.out.printf(Locale.ROOT, "1,000,000 événements : p50 %.1f µs, p99 %.1f µs%n",
+                measured[measured.length / 2] / 1e3, measured[measured.length * 99 / 100] / 1e3);
+    }
+
+    private void assertMatchesBruteForce(Map<Long, Event> events, Random random) {
+        String word = WORDS[random.nextInt(WORDS.length)];
+        String prefix = word.substring(0, 1 + random.nextInt(word.length()));
+        String key = EventSuggestIndex.key(prefix);
+
+        // Poids cumulés par (type, clé), comme l'index
+        Map<String, double[]> weights = new HashMap<>();
+        for (Event event : events.values()) {
+            double weight = EventSuggestIndex.weight(event.getTotalSeats() - event.getAvailableSeats(),
+                    event.getEventDate().toEpochDay() - LocalDate.now().toEpochDay());
+            for (String[] completion : new String[][]{
+                    {"title", event.getTitle()}, {"city", event.getLocationCity()}, {"category", event.getCategory()}}) {
+                String completionKey = EventSuggestIndex.key(completion[1]);
+                if (completionKey.startsWith(key)) {
+                    String id = completion[0] + ":" + completionKey;
+                    double[] total = weights.computeIfAbsent(id, k -> new double[2]);
+                    total[0] += weight;
+                    total[1]++;
+                }
+            }
+        }
+        List<Map.Entry<String, double[]>> expected = new ArrayList<>(weights.entrySet());
+        expected.sort(Comparator.comparingDouble((Map.Entry<String, double[]> e) -> e.getValue()[0]).reversed());
+
+        List<SuggestionDto> actual = index.suggest(prefix, 10);
+        assertThat(actual).hasSize(Math.min(10, expected.size()));
+        for (int i = 0; i < actual.size(); i++) {
+            SuggestionDto suggestion = actual.get(i);
+            double[] total = weights.get(suggestion.type() + ":" + EventSuggestIndex.key(suggestion.text()));
+            assertThat(total).isNotNull();
+            assertThat(suggestion.count()).isEqualTo((long) total[1]);
+            assertThat(total[0]).isCloseTo(expected.get(i).getValue()[0], offset(1e-6));
+        }
+    }
+
+    private static Event randomEvent(Random random, long id) {
+        String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(500);
+        int total = 10 + random.nextInt(500);
+        return event(id, title, CATEGORIES[random.nextInt(CATEGORIES.length)], CITIES[random.nextInt(CITIES.length)],
+                LocalDate.now().plusDays(random.nextInt(400) - 30), total, random.nextInt(total + 1));
+    }
+
+    private static Event event(Long id, String title, String category, String city, LocalDate date, int total, int available) {
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle(title);
+        event.setCategory(category);
+        event.setLocationCity(city);
+        event.setEventDate(date);
+        event.setTotalSeats(total);
+        event.setAvailableSeats(available);
+        event.setStatus("PUBLISHED");
+        return event;
+    }
+}
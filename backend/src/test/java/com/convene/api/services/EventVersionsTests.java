@@ -0,0 +1,69 @@
+package com.convene.api.services;
+
+import com.convene.api.models.Event;
+import com.convene.api.repositories.EventRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EventVersionsTests {
+
+    private final SeatInventory seatInventory = new SeatInventory(mock(EventRepository.class));
+    private final EventVersions versions = new EventVersions(mock(EventRepository.class), seatInventory);
+
+    @Test
+    void eventVersionFollowsUpdatesAndSeats() {
+        Event event = event(1L, LocalDateTime.of(2026, 3, 1, 10, 0));
+        assertThat(versions.event(1L)).isEmpty();
+
+        seatInventory.reset(1L, 10);
+        versions.saved(event);
+        String initial = versions.event(1L).orElseThrow().etag();
+        assertThat(versions.event(1L).orElseThrow().etag()).isEqualTo(initial);
+
+        seatInventory.tryClaim(1L, 1);
+        String claimed = versions.event(1L).orElseThrow().etag();
+        assertThat(claimed).isNotEqualTo(initial);
+        // Même contenu, même ETag
+        seatInventory.release(1L, 1);
+        assertThat(versions.event(1L).orElseThrow().etag()).isEqualTo(initial);
+
+        event.setUpdatedAt(LocalDateTime.of(2026, 3, 2, 10, 0));
+        versions.saved(event);
+        assertThat(versions.event(1L).orElseThrow().etag()).isNotEqualTo(initial);
+
+        event.setStatus("DRAFT");
+        versions.saved(event);
+        assertThat(versions.event(1L)).isEmpty();
+    }
+
+    @Test
+    void catalogVersionChangesWithEventsAndSeats() {
+        seatInventory.reset(1L, 10);
+        versions.saved(event(1L, LocalDateTime.of(2026, 3, 1, 10, 0)));
+        EventVersions.Version first = versions.catalog();
+        assertThat(versions.catalog()).isEqualTo(first);
+
+        seatInventory.tryClaim(1L, 1);
+        EventVersions.Version second = versions.catalog();
+        assertThat(second.etag()).isNotEqualTo(first.etag());
+
+        versions.removed(1L);
+        assertThat(versions.catalog().etag()).isNotEqualTo(second.etag());
+        assertThat(versions.catalog().etag()).startsWith("\"").endsWith("\"");
+    }
+
+    private static Event event(Long id, LocalDateTime updatedAt) {
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle("Concert");
+        event.setEventDate(LocalDate.of(2026, 6, 1));
+        event.setStatus("PUBLISHED");
+        event.setUpdatedAt(updatedAt);
+        return event;
+    }
+}
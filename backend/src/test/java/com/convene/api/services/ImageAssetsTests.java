@@ -0,0 +1,252 @@
+package com.convene.api.services;
+
+import com.convene.api.models.ImageAsset;
+import com.convene.api.repositories.ImageAssetRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockMultipartFile;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImageAssetsTests {
+
+    private final LocalS3Server s3 = new LocalS3Server();
+    private final S3Client client = S3Client.builder()
+            .endpointOverride(s3.endpoint())
+            .forcePathStyle(true)
+            .region(Region.US_EAST_1)
+            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+            .build();
+    private final S3Service s3Service = new S3Service(client, null, null, "bucket", "", "us-east-1", "",
+            8 * 1024 * 1024, 4, 16, 100 * 1024 * 1024, 600);
+    // Table image_assets en mémoire, avec la sémantique des requêtes du repository
+    private final Map<String, ImageAsset> table = new ConcurrentHashMap<>();
+    private final ImageAssetRepository repository = repository(table);
+    private final ImageAssets assets = new ImageAssets(s3Service, repository, 0, 1);
+
+    ImageAssetsTests() throws IOException {
+    }
+
+    @AfterEach
+    void close() {
+        assets.shutdown();
+        client.close();
+        s3.close();
+    }
+
+    @Test
+    void storesIdenticalFilesOnceUnderTheirHash() throws Exception {
+        byte[] banner = random(300_000);
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(banner));
+
+        String first = assets.store(new MockMultipartFile("image", "banner.PNG", "image/png", banner), "events");
+        String second = assets.store(new MockMultipartFile("image", "banner-2024.png", "image/png", banner), "events");
+        String other = assets.store(new MockMultipartFile("image", "other.png", "image/png", random(1000)), "events");
+
+        assertThat(first).isEqualTo(second).isEqualTo("https://bucket.s3.us-east-1.amazonaws.com/events/" + hash + ".png");
+        assertThat(other).isNotEqualTo(first);
+        assertThat(s3.operations()).containsExactly("PutObject", "PutObject");
+        assertThat(s3.objects().get("events/" + hash + ".png")).isEqualTo(banner);
+        assertThat(table.get("events/" + hash + ".png").getContentHash()).isEqualTo(hash);
+        assertThat(assets.stats()).containsEntry("stored", 2L).containsEntry("deduplicated", 1L)
+                .containsEntry("bytesSaved", 300_000L).containsEntry("dedupRatio", 1 / 3.0);
+    }
+
+    @Test
+    void deletesASharedImageOnlyOnceNoEventShowsIt() throws Exception {
+        String url = assets.store(new MockMultipartFile("image", "banner.png", "image/png", random(5000)), "events");
+        String key = s3Service.keyOf(url);
+        String base = key.substring(0, key.length() - ".png".length());
+        for (int width : ImageVariants.WIDTHS) {
+            s3.objects().put(base + "-" + width + "w.jpg", new byte[1]);
+        }
+        assets.acquire(url);
+        assets.acquire(url);
+        // Image d'avant l'index : ignorée
+        assets.acquire("https://bucket.s3.us-east-1.amazonaws.com/events/0b5e2f4c.png");
+
+        assets.release(url);
+        Thread.sleep(5);
+        assets.sweep();
+        assertThat(s3.objects()).containsKey(key);
+
+        assets.release(url);
+        Thread.sleep(5);
+        assets.sweep();
+        // Original et variantes, supprimés sur le thread dédié
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(s3.objects()).isEmpty());
+        assertThat(table).doesNotContainKey(key);
+        assertThat(assets.stats()).containsEntry("deleted", 1L);
+    }
+
+    @Test
+    void uploadsAgainAnImageSweptDuringTheLookup() throws Exception {
+        byte[] banner = random(5000);
+        String url = assets.store(new MockMultipartFile("image", "banner.png", "image/png", banner), "events");
+        String key = s3Service.keyOf(url);
+        ImageAsset swept = table.remove(key);
+        s3.objects().remove(key);
+        // sweep() supprime l'image juste après la lecture de l'index
+        doReturn(Optional.of(swept), Optional.empty()).when(repository).findByStorageKey(key);
+
+        assertThat(assets.store(new MockMultipartFile("image", "banner.png", "image/png", banner), "events")).isEqualTo(url);
+
+        assertThat(s3.objects().get(key)).isEqualTo(banner);
+        assertThat(table).containsKey(key);
+        assertThat(assets.stats()).containsEntry("stored", 2L).containsEntry("deduplicated", 0L);
+    }
+
+    @Test
+    void indexesStreamedImagesSoThatTheSweepCanDeleteThem() throws Exception {
+        byte[] photo = random(40_000);
+        try (S3AsyncClient asyncClient = S3AsyncClient.builder()
+                .endpointOverride(s3.endpoint())
+                .forcePathStyle(true)
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .build()) {
+            S3Service streaming = new S3Service(client, asyncClient, null, "bucket", "", "us-east-1", "",
+                    8 * 1024 * 1024, 4, 16, 100 * 1024 * 1024, 600);
+            ImageAssets streamed = new ImageAssets(streaming, repository, 0, 1);
+
+            String url = streamed.storeStream(new ByteArrayInputStream(photo), "image/jpeg", "photo.jpg", "events").join();
+            String key = streaming.keyOf(url);
+            assertThat(s3.objects().get(key)).isEqualTo(photo);
+            assertThat(table.get(key).getSize()).isEqualTo(photo.length);
+            assertThat(table.get(key).getContentHash())
+                    .isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(photo)));
+
+            streamed.acquire(url);
+            streamed.release(url);
+            Thread.sleep(5);
+            streamed.sweep();
+            await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(s3.objects()).doesNotContainKey(key));
+            streamed.shutdown();
+        }
+    }
+
+    @Test
+    void reusesTheVariantsOfAKnownImage() throws Exception {
+        String url = assets.store(new MockMultipartFile("image", "banner.png", "image/png", random(5000)), "events");
+        assertThat(assets.srcset(url)).isEmpty();
+
+        assets.variantsGenerated(url, "https://bucket.s3.us-east-1.amazonaws.com/events/x-320w.jpg 320w");
+
+        assertThat(assets.srcset(url)).contains("https://bucket.s3.us-east-1.amazonaws.com/events/x-320w.jpg 320w");
+        assertThat(assets.srcset("https://example.com/banner.png")).isEmpty();
+    }
+
+    /**
+     * Bannière de 2 Mo renvoyée pour des événements récurrents : temps par envoi sans l'index (PUT à chaque fois)
+     * et avec (SHA-256 puis lecture de l'index). Lancer avec -Dconvene.benchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "convene.benchmark", matches = "true")
+    void benchmarkRecurringBannerUploads() throws Exception {
+        byte[] banner = random(2 * 1024 * 1024);
+        int uploads = 50;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < uploads; i++) {
+                s3Service.putImage(new MockMultipartFile("image", "banner.png", "image/png", banner), "events/copy-" + i + ".png");
+            }
+            double withoutIndex = (System.nanoTime() - start) / 1e6 / uploads;
+
+            start = System.nanoTime();
+            for (int i = 0; i < uploads; i++) {
+                assets.store(new MockMultipartFile("image", "banner.png", "image/png", banner), "events");
+            }
+            double withIndex = (System.nanoTime() - start) / 1e6 / uploads;
+            System.out.printf(Locale.ROOT, "Sans index : %.2f ms/envoi, avec index : %.2f ms/envoi (%s)%n",
+                    withoutIndex, withIndex, assets.stats());
+            s3.objects().clear();
+            table.clear();
+        }
+    }
+
+    private static ImageAssetRepository repository(Map<String, ImageAsset> table) {
+        ImageAssetRepository repository = mock(ImageAssetRepository.class);
+        AtomicLong ids = new AtomicLong();
+        when(repository.findByStorageKey(anyString()))
+                .thenAnswer(call -> Optional.ofNullable(table.get(call.<String>getArgument(0))));
+        when(repository.insertIfAbsent(anyString(), anyString(), anyString(), anyString(), anyLong(), any()))
+                .thenAnswer(call -> {
+                    ImageAsset asset = new ImageAsset();
+                    asset.setId(ids.incrementAndGet());
+                    asset.setStorageKey(call.getArgument(0));
+                    asset.setContentHash(call.getArgument(1));
+                    asset.setUrl(call.getArgument(2));
+                    asset.setContentType(call.getArgument(3));
+                    asset.setSize(call.getArgument(4));
+                    asset.setCreatedAt(call.getArgument(5));
+                    return table.putIfAbsent(asset.getStorageKey(), asset) == null ? 1 : 0;
+                });
+        when(repository.addReferences(anyString(), anyInt(), any())).thenAnswer(call -> {
+            ImageAsset asset = table.get(call.<String>getArgument(0));
+            if (asset == null) {
+                return 0;
+            }
+            asset.setRefCount(Math.max(asset.getRefCount() + call.<Integer>getArgument(1), 0));
+            asset.setReleasedAt(asset.getRefCount() == 0 ? call.getArgument(2) : null);
+            return 1;
+        });
+        when(repository.touchUnused(anyString(), any())).thenAnswer(call -> {
+            ImageAsset asset = table.get(call.<String>getArgument(0));
+            if (asset == null || asset.getRefCount() != 0 || asset.getReleasedAt() == null) {
+                return 0;
+            }
+            asset.setReleasedAt(call.getArgument(1));
+            return 1;
+        });
+        when(repository.updateImageSrcset(anyString(), anyString())).thenAnswer(call -> {
+            ImageAsset asset = table.get(call.<String>getArgument(0));
+            if (asset != null) {
+                asset.setImageSrcset(call.getArgument(1));
+            }
+            return asset == null ? 0 : 1;
+        });
+        when(repository.findTop100ByRefCountAndReleasedAtBefore(anyInt(), any())).thenAnswer(call -> table.values().stream()
+                .filter(asset -> asset.getRefCount() == call.<Integer>getArgument(0) && asset.getReleasedAt() != null
+                        && asset.getReleasedAt().isBefore(call.getArgument(1)))
+                .limit(100).toList());
+        when(repository.deleteIfUnused(anyLong(), any())).thenAnswer(call -> {
+            LocalDateTime before = call.getArgument(1);
+            return table.values().removeIf(asset -> asset.getId().equals(call.getArgument(0)) && asset.getRefCount() == 0
+                    && asset.getReleasedAt() != null && asset.getReleasedAt().isBefore(before)) ? 1 : 0;
+        });
+        return repository;
+    }
+
+    private static byte[] random(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
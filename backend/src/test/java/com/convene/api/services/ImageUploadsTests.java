@@ -0,0 +1,245 @@
+package com.convene.api.services;
+
+import com.convene.api.dtos.PresignedUploadDto;
+import com.convene.api.models.ImageAsset;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockMultipartFile;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImageUploadsTests {
+
+    private final LocalS3Server s3 = new LocalS3Server();
+    private final StaticCredentialsProvider credentials =
+            StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test"));
+    private final S3Client client = S3Client.builder()
+            .endpointOverride(s3.endpoint())
+            .forcePathStyle(true)
+            .region(Region.US_EAST_1)
+            .credentialsProvider(credentials)
+            .build();
+    private final S3Service s3Service = new S3Service(client, null, credentials, "bucket", "", "us-east-1",
+            s3.endpoint().toString(), 8 * 1024 * 1024, 4, 16, 100 * 1024 * 1024, 600);
+    private final ImageAssets imageAssets = mock(ImageAssets.class);
+    private final ImageUploads uploads = new ImageUploads(s3Service, imageAssets, 100);
+    private final HttpClient browser = HttpClient.newHttpClient();
+
+    ImageUploadsTests() throws IOException {
+    }
+
+    @AfterEach
+    void close() {
+        client.close();
+        s3.close();
+    }
+
+    @Test
+    void imageSentStraightToStorageIsAttachedOnce() throws Exception {
+        byte[] image = random(200_000);
+
+        PresignedUploadDto upload = uploads.presign("events", "photo.png", "image/png", image.length, null);
+        // Taille et type font partie de la signature : S3 refuse un autre fichier sur cette URL
+        assertThat(upload.uploadUrl()).contains("X-Amz-Signature=").contains("content-length").contains("content-type");
+        assertThat(upload.headers()).containsEntry("Content-Type", "image/png").doesNotContainKey("Content-Length");
+        assertThat(upload.key()).startsWith("events/").endsWith(".png");
+        assertThat(put(upload, image)).isEqualTo(200);
+
+        assertThat(uploads.complete(upload.key())).isEqualTo(upload.url())
+                .isEqualTo("https://bucket.s3.us-east-1.amazonaws.com/" + upload.key());
+        assertThat(s3.objects().get(upload.key())).isEqualTo(image);
+        assertThat(s3.operations()).containsExactly("PutObject", "HeadObject");
+
+        assertThatThrownBy(() -> uploads.complete(upload.key())).isInstanceOf(IllegalArgumentException.class);
+        assertThat(uploads.stats()).containsEntry("completed", 1L).containsEntry("refused", 1L).containsEntry("pending", 0);
+    }
+
+    @Test
+    void refusesMissingOrMismatchedUploads() throws Exception {
+        PresignedUploadDto missing = uploads.presign("events", "photo.png", "image/png", 1000, null);
+        assertThatThrownBy(() -> uploads.complete(missing.key()))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Image has not been uploaded");
+        assertThatThrownBy(() -> uploads.complete("events/someone-else.png")).isInstanceOf(IllegalArgumentException.class);
+
+        // Le serveur de test ne vérifie pas les signatures : objet stocké avec une autre taille, supprimé à la validation
+        PresignedUploadDto upload = uploads.presign("events", "photo.png", "image/png", 1000, null);
+        assertThat(put(upload, random(2000))).isEqualTo(200);
+        assertThatThrownBy(() -> uploads.complete(upload.key())).isInstanceOf(IllegalArgumentException.class);
+        assertThat(s3.objects()).doesNotContainKey(upload.key());
+    }
+
+    @Test
+    void contentAlreadyStoredIsNotSentAgain() throws Exception {
+        byte[] image = random(50_000);
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(image));
+        String key = "events/" + hash + ".png";
+
+        PresignedUploadDto upload = uploads.presign("events", "Banner.PNG", "image/png", image.length, hash);
+        // S3 refuse des octets dont le SHA-256 diffère
+        assertThat(upload.key()).isEqualTo(key);
+        assertThat(upload.uploadUrl()).contains("x-amz-checksum-sha256");
+        assertThat(upload.headers()).containsEntry("x-amz-checksum-sha256",
+                Base64.getEncoder().encodeToString(HexFormat.of().parseHex(hash)));
+        assertThat(put(upload, image)).isEqualTo(200);
+        assertThat(uploads.complete(key)).isEqualTo(upload.url());
+        verify(imageAssets).registered(key, hash, upload.url(), "image/png", image.length);
+
+        ImageAsset stored = new ImageAsset();
+        stored.setStorageKey(key);
+        stored.setUrl(upload.url());
+        stored.setSize(image.length);
+        when(imageAssets.find(key)).thenReturn(Optional.of(stored));
+        when(imageAssets.deduplicated(key, image.length)).thenReturn(true);
+        s3.operations().clear();
+
+        PresignedUploadDto again = uploads.presign("events", "banner.png", "image/png", image.length, hash);
+        assertThat(again.uploadUrl()).isNull();
+        assertThat(again.key()).isEqualTo(key);
+        assertThat(uploads.complete(key)).isEqualTo(upload.url());
+        assertThat(s3.operations()).isEmpty();
+        verify(imageAssets).deduplicated(key, image.length);
+
+        // Supprimé par sweep() entre-temps : le navigateur renvoie le fichier
+        when(imageAssets.deduplicated(key, image.length)).thenReturn(false);
+        PresignedUploadDto swept = uploads.presign("events", "banner.png", "image/png", image.length, hash);
+        assertThat(swept.uploadUrl()).contains("x-amz-checksum-sha256");
+        assertThat(swept.key()).isEqualTo(key);
+        assertThatThrownBy(() -> uploads.presign("events", "banner.png", "image/png", image.length, "not-a-hash"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void refusesNewUploadsWhenTooManyArePendingWithoutPurgingInline() {
+        for (int i = 0; i < 100; i++) {
+            uploads.presign("events", "photo.png", "image/png", 1000, null);
+        }
+
+        assertThatThrownBy(() -> uploads.presign("events", "photo.png", "image/png", 1000, null))
+                .isInstanceOf(ImageUploads.TooManyUploadsException.class);
+        assertThat(s3.operations()).isEmpty();
+        verify(imageAssets, never()).deleteLater(any());
+    }
+
+    @Test
+    void appliesTheImageRulesBeforeSigning() {
+        assertThatThrownBy(() -> uploads.presign("events", "doc.pdf", "application/pdf", 1000, null))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("File must be an image");
+        assertThatThrownBy(() -> uploads.presign("events", "big.jpg", "image/jpeg", S3Service.MAX_IMAGE_SIZE + 1, null))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("File size must be less than 5MB");
+        assertThatThrownBy(() -> uploads.presign("../users", "photo.jpg", "image/jpeg", 1000, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(uploads.stats()).containsEntry("issued", 0L);
+    }
+
+    /**
+     * Coût côté API d'une rafale de créations d'événement avec une image de 3 Mo : envoi à travers l'API
+     * (S3Service.uploadImage) contre URL pré-signée (signature puis HEAD). Temps CPU et octets alloués
+     * par les threads de l'API uniquement. Lancer avec -Dconvene.benchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "convene.benchmark", matches = "true")
+    void benchmarkEventCreationBurst() throws Exception {
+        int creations = 64;
+        byte[] image = random(3 * 1024 * 1024);
+        for (int round = 0; round < 3; round++) {
+            burst("À travers l'API", creations, () -> {
+                long[] start = threadCost();
+                s3Service.uploadImage(new MockMultipartFile("image", "photo.jpg", "image/jpeg", image), "events");
+                return since(start);
+            });
+            burst("URL pré-signée", creations, () -> {
+                long[] start = threadCost();
+                PresignedUploadDto upload = uploads.presign("events", "photo.jpg", "image/jpeg", image.length, null);
+                long[] presign = since(start);
+                put(upload, image); // Navigateur : hors de l'API
+                start = threadCost();
+                uploads.complete(upload.key());
+                long[] complete = since(start);
+                return new long[]{presign[0] + complete[0], presign[1] + complete[1]};
+            });
+            s3.objects().clear();
+        }
+    }
+
+    private interface Creation {
+        long[] run() throws Exception;
+    }
+
+    private static void burst(String label, int creations, Creation creation) throws Exception {
+        ExecutorService api = Executors.newFixedThreadPool(8);
+        AtomicLong cpu = new AtomicLong();
+        AtomicLong allocated = new AtomicLong();
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> done = new ArrayList<>();
+        for (int i = 0; i < creations; i++) {
+            done.add(CompletableFuture.runAsync(() -> {
+                try {
+                    long[] cost = creation.run();
+                    cpu.addAndGet(cost[0]);
+                    allocated.addAndGet(cost[1]);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }, api));
+        }
+        CompletableFuture.allOf(done.toArray(CompletableFuture[]::new)).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        api.shutdown();
+        System.out.printf(Locale.ROOT, "%s : %d créations en %.2f s, CPU API %.2f ms et %.0f Ko alloués par création%n",
+                label, creations, seconds, cpu.get() / 1e6 / creations, allocated.get() / 1024.0 / creations);
+    }
+
+    // Temps CPU et octets alloués du thread courant
+    private static long[] threadCost() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return new long[]{threads.getCurrentThreadCpuTime(), threads.getCurrentThreadAllocatedBytes()};
+    }
+
+    private static long[] since(long[] start) {
+        long[] now = threadCost();
+        return new long[]{now[0] - start[0], now[1] - start[1]};
+    }
+
+    private int put(PresignedUploadDto upload, byte[] content) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(upload.uploadUrl()))
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(content));
+        upload.headers().forEach(request::header);
+        return browser.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static byte[] random(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
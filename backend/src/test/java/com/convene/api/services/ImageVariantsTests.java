@@ -0,0 +1,243 @@
+package com.convene.api.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImageVariantsTests {
+
+    private static final String URL = "https://bucket.s3.us-east-1.amazonaws.com/events/photo.png";
+
+    private final S3Service s3Service = mock(S3Service.class);
+    private ImageVariants variants = new ImageVariants(s3Service, 2, 10, 50_000_000, 0.8f);
+
+    @AfterEach
+    void shutdown() {
+        variants.shutdown();
+    }
+
+    @Test
+    void producesNarrowerJpegVariantsWithTheSameAspectRatio() throws IOException {
+        // PNG transparent à gauche : fond blanc dans les variantes
+        BufferedImage image = new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.BLUE);
+        graphics.fillRect(1000, 0, 1000, 1000);
+        graphics.dispose();
+
+        ImageVariants.Rendition rendition = variants.render(encode(image, "png"));
+
+        assertThat(rendition.width()).isEqualTo(2000);
+        assertThat(rendition.variants()).extracting(ImageVariants.Variant::width).containsExactly(320, 640, 1280);
+        for (ImageVariants.Variant variant : rendition.variants()) {
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(variant.content()));
+            assertThat(decoded.getWidth()).isEqualTo(variant.width());
+            assertThat(decoded.getHeight()).isEqualTo(variant.width() / 2);
+            assertColor(decoded.getRGB(10, 10), Color.WHITE);
+            assertColor(decoded.getRGB(decoded.getWidth() - 10, 10), Color.BLUE);
+        }
+    }
+
+    @Test
+    void followsExifOrientation() throws IOException {
+        // Stockée 800x400 avec l'orientation 6 (quart de tour horaire) : affichée 400x800, coin rouge en haut à droite
+        BufferedImage image = new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.GREEN);
+        graphics.fillRect(0, 0, 800, 400);
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, 100, 100);
+        graphics.dispose();
+
+        ImageVariants.Rendition rendition = variants.render(jpegWithOrientation(image, 6));
+
+        assertThat(rendition.width()).isEqualTo(400);
+        assertThat(rendition.variants()).extracting(ImageVariants.Variant::width).containsExactly(320);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(rendition.variants().get(0).content()));
+        assertThat(decoded.getWidth()).isEqualTo(320);
+        assertThat(decoded.getHeight()).isEqualTo(640);
+        assertColor(decoded.getRGB(310, 10), Color.RED);
+        assertColor(decoded.getRGB(10, 10), Color.GREEN);
+    }
+
+    @Test
+    void storesVariantsAndReturnsTheSrcset() throws Exception {
+        when(s3Service.downloadImage(URL)).thenReturn(Optional.of(encode(photo(700, 500, 1), "png")));
+        when(s3Service.uploadVariant(eq(URL), anyString(), any(), eq("image/jpeg")))
+                .thenAnswer(call -> URL.replace(".png", call.getArgument(1)));
+
+        Optional<String> srcset = variants.generate(URL).get(10, TimeUnit.SECONDS);
+
+        assertThat(srcset).contains("https://bucket.s3.us-east-1.amazonaws.com/events/photo-320w.jpg 320w, "
+                + "https://bucket.s3.us-east-1.amazonaws.com/events/photo-640w.jpg 640w, " + URL + " 700w");
+        verify(s3Service).uploadVariant(eq(URL), eq("-320w.jpg"), any(), eq("image/jpeg"));
+        assertThat(variants.stats()).containsEntry("processed", 1L).containsEntry("failed", 0L);
+
+        // Image hors du bucket : rien à faire
+        assertThat(variants.generate("https://example.com/photo.png").get(10, TimeUnit.SECONDS)).isEmpty();
+    }
+
+    @Test
+    void rejectsWorkBeyondTheQueueAndOversizedImages() throws Exception {
+        variants.shutdown();
+        variants = new ImageVariants(s3Service, 1, 1, 1_000_000, 0.8f);
+        CountDownLatch release = new CountDownLatch(1);
+        when(s3Service.downloadImage(URL)).thenAnswer(call -> {
+            release.await();
+            return Optional.of(encode(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB), "png"));
+        });
+
+        CompletableFuture<Optional<String>> running = variants.generate(URL);
+        CompletableFuture<Optional<String>> queued = variants.generate(URL);
+        CompletableFuture<Optional<String>> rejected = variants.generate(URL);
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+
+        // 2 000 000 pixels : refusée avant décodage
+        assertThatThrownBy(() -> running.get(10, TimeUnit.SECONDS)).hasRootCauseInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> queued.get(10, TimeUnit.SECONDS)).hasRootCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(variants.stats()).containsEntry("rejected", 1L).containsEntry("failed", 2L);
+        assertThatThrownBy(() -> variants.render("pas une image".getBytes()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Débit du redimensionnement (décodage, variantes, encodage) sur des photos JPEG de 12 Mpx et de 2 Mpx.
+     * Lancer avec -Dconvene.benchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "convene.benchmark", matches = "true")
+    void benchmarkRenderThroughput() throws Exception {
+        for (int[] size : new int[][]{{4000, 3000}, {1920, 1080}}) {
+            byte[] original = encode(photo(size[0], size[1], 7), "jpg");
+            for (int threads : new int[]{1, 2, 4}) {
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                int images = 40;
+                for (int round = 0; round < 2; round++) {
+                    long start = System.nanoTime();
+                    List<CompletableFuture<ImageVariants.Rendition>> done = new ArrayList<>();
+                    for (int i = 0; i < images; i++) {
+                        done.add(CompletableFuture.supplyAsync(() -> {
+                            try {
+                                return variants.render(original);
+                            } catch (IOException e) {
+                                throw new IllegalStateException(e);
+                            }
+                        }, pool));
+                    }
+                    long bytes = done.stream().map(CompletableFuture::join)
+                            .flatMap(rendition -> rendition.variants().stream())
+                            .mapToLong(variant -> variant.content().length).sum();
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    if (round == 1) {
+                        System.out.printf(Locale.ROOT, "%dx%d (%d Ko), %d thread(s) : %.1f images/s, %.0f ms/image, variantes %d Ko%n",
+                                size[0], size[1], original.length / 1024, threads, images / seconds,
+                                seconds * 1000 * threads / images, bytes / images / 1024);
+                    }
+                }
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static void assertColor(int rgb, Color expected) {
+        Color actual = new Color(rgb);
+        assertThat(Math.abs(actual.getRed() - expected.getRed())).isLessThan(40);
+        assertThat(Math.abs(actual.getGreen() - expected.getGreen())).isLessThan(40);
+        assertThat(Math.abs(actual.getBlue() - expected.getBlue())).isLessThan(40);
+    }
+
+    // Dégradés et bruit : se compresse à peu près comme une photo
+    private static BufferedImage photo(int width, int height, long seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, new Color(30, 60, 120), width, height, new Color(230, 180, 90)));
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        Random random = new Random(seed);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(24) - 12;
+                int rgb = image.getRGB(x, y);
+                int r = clamp(((rgb >> 16) & 0xFF) + noise);
+                int g = clamp(((rgb >> 8) & 0xFF) + noise);
+                int b = clamp((rgb & 0xFF) + noise);
+                image.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+        return image;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    // JPEG avec un segment APP1 Exif ne contenant que la balise d'orientation (TIFF petit-boutiste)
+    private static byte[] jpegWithOrientation(BufferedImage image, int orientation) throws IOException {
+        byte[] exif = {
+                'E', 'x', 'i', 'f', 0, 0,
+                'I', 'I', 42, 0, 8, 0, 0, 0,
+                1, 0,
+                0x12, 0x01, 3, 0, 1, 0, 0, 0, (byte) orientation, 0, 0, 0,
+                0, 0, 0, 0
+        };
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), null);
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree("javax_imageio_jpeg_image_1.0");
+        IIOMetadataNode app1 = new IIOMetadataNode("unknown");
+        app1.setAttribute("MarkerTag", "225");
+        app1.setUserObject(exif);
+        root.getElementsByTagName("markerSequence").item(0).appendChild(app1);
+        metadata.setFromTree("javax_imageio_jpeg_image_1.0", root);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(output);
+            writer.write(new IIOImage(image, null, metadata));
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
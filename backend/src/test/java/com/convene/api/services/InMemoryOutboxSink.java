@@ -0,0 +1,33 @@
+package com.convene.api.services;
+
+import com.convene.api.models.OutboxMessage;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Sink en mémoire pour les tests : garde les messages reçus, peut échouer sur certains ids.
+ */
+class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxMessage> delivered = new CopyOnWriteArrayList<>();
+    private final Set<Long> failingIds = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void deliver(OutboxMessage message) {
+        if (failingIds.contains(message.getId())) {
+            throw new IllegalStateException("Destinataire indisponible");
+        }
+        delivered.add(message);
+    }
+
+    void failOn(Long messageId) {
+        failingIds.add(messageId);
+    }
+
+    List<OutboxMessage> delivered() {
+        return delivered;
+    }
+}
@@ -0,0 +1,267 @@
+package com.convene.api.services;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serveur S3 en mémoire pour les tests (adressage par chemin) : PutObject, HeadObject, DeleteObject et l'envoi
+ * en plusieurs parties (création, parties, finalisation, abandon). Les signatures ne sont pas vérifiées. Peut ralentir chaque partie et échouer à partir d'une partie donnée.
+ */
+class LocalS3Server implements AutoCloseable {
+
+    private final HttpServer server;
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, String> contentTypes = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final Set<String> aborted = ConcurrentHashMap.newKeySet();
+    private final List<String> operations = new CopyOnWriteArrayList<>();
+    private final AtomicInteger partsInProgress = new AtomicInteger();
+    private final AtomicInteger maxPartsInProgress = new AtomicInteger();
+    private volatile long partDelayMs;
+    private volatile int failFromPart = Integer.MAX_VALUE;
+    private volatile boolean discard;
+
+    LocalS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "local-s3");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    Map<String, byte[]> objects() {
+        return objects;
+    }
+
+    Set<String> aborted() {
+        return aborted;
+    }
+
+    Map<String, Map<Integer, byte[]>> pendingUploads() {
+        return uploads;
+    }
+
+    List<String> operations() {
+        return operations;
+    }
+
+    int maxPartsInProgress() {
+        return maxPartsInProgress.get();
+    }
+
+    void partDelay(long millis) {
+        partDelayMs = millis;
+    }
+
+    void failFromPart(int partNumber) {
+        failFromPart = partNumber;
+    }
+
+    // Lit les corps sans les garder (mesures de mémoire côté client)
+    void discardContent() {
+        discard = true;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            // /bucket/key...
+            String path = exchange.getRequestURI().getPath();
+            String key = path.substring(path.indexOf('/', 1) + 1);
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+
+            if (method.equals("POST") && query.containsKey("uploads")) {
+                operations.add("CreateMultipartUpload");
+                String uploadId = UUID.randomUUID().toString();
+                uploads.put(uploadId, new ConcurrentHashMap<>());
+                xml(exchange, "<InitiateMultipartUploadResult><Bucket>bucket</Bucket><Key>" + key
+                        + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+            } else if (method.equals("PUT") && query.containsKey("uploadId")) {
+                uploadPart(exchange, query.get("uploadId"), Integer.parseInt(query.get("partNumber")));
+            } else if (method.equals("PUT")) {
+                operations.add("PutObject");
+                byte[] content = body(exchange);
+                objects.put(key, content);
+                String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+                contentTypes.put(key, contentType != null ? contentType : "binary/octet-stream");
+                exchange.getResponseHeaders().add("ETag", etag(content));
+                exchange.sendResponseHeaders(200, -1);
+            } else if (method.equals("POST") && query.containsKey("uploadId")) {
+                operations.add("CompleteMultipartUpload");
+                body(exchange);
+                Map<Integer, byte[]> parts = uploads.remove(query.get("uploadId"));
+                if (parts == null) {
+                    error(exchange, 404, "NoSuchUpload");
+                    return;
+                }
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                new TreeMap<>(parts).values().forEach(content::writeBytes);
+                objects.put(key, content.toByteArray());
+                xml(exchange, "<CompleteMultipartUploadResult><Bucket>bucket</Bucket><Key>" + key
+                        + "</Key><ETag>\"done\"</ETag></CompleteMultipartUploadResult>");
+            } else if (method.equals("HEAD")) {
+                operations.add("HeadObject");
+                byte[] content = objects.get(key);
+                if (content == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().add("Content-Type", contentTypes.getOrDefault(key, "binary/octet-stream"));
+                exchange.getResponseHeaders().add("ETag", etag(content));
+                // Pas de corps en réponse à HEAD : la taille de l'objet est annoncée telle quelle. Le serveur du JDK
+                // ne sait pas réutiliser la connexion ensuite, le client doit en ouvrir une autre
+                exchange.getResponseHeaders().add("Content-Length", Integer.toString(content.length));
+                exchange.getResponseHeaders().add("Connection", "close");
+                exchange.sendResponseHeaders(200, -1);
+            } else if (method.equals("DELETE") && !query.containsKey("uploadId")) {
+                operations.add("DeleteObject");
+                objects.remove(key);
+                contentTypes.remove(key);
+                exchange.sendResponseHeaders(204, -1);
+            } else if (method.equals("DELETE") && query.containsKey("uploadId")) {
+                operations.add("AbortMultipartUpload");
+                uploads.remove(query.get("uploadId"));
+                aborted.add(key);
+                exchange.sendResponseHeaders(204, -1);
+            } else {
+                error(exchange, 400, "NotImplemented");
+            }
+        }
+    }
+
+    private void uploadPart(HttpExchange exchange, String uploadId, int partNumber) throws IOException {
+        operations.add("UploadPart");
+        int running = partsInProgress.incrementAndGet();
+        maxPartsInProgress.accumulateAndGet(running, Math::max);
+        try {
+            byte[] content = body(exchange);
+            if (partDelayMs > 0) {
+                Thread.sleep(partDelayMs);
+            }
+            Map<Integer, byte[]> parts = uploads.get(uploadId);
+            if (parts == null) {
+                error(exchange, 404, "NoSuchUpload");
+            } else if (partNumber >= failFromPart) {
+                error(exchange, 500, "InternalError");
+            } else {
+                parts.put(partNumber, content);
+                exchange.getResponseHeaders().add("ETag", etag(content));
+                exchange.sendResponseHeaders(200, -1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            partsInProgress.decrementAndGet();
+        }
+    }
+
+    // Le SDK signe les corps en flux par morceaux (aws-chunked) : "taille;chunk-signature=...\r\ndonnées\r\n"
+    private byte[] body(HttpExchange exchange) throws IOException {
+        if (discard) {
+            exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+            return new byte[0];
+        }
+        byte[] raw = exchange.getRequestBody().readAllBytes();
+        String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        String sha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        boolean chunked = (encoding != null && encoding.contains("aws-chunked"))
+                || exchange.getRequestHeaders().containsKey("x-amz-decoded-content-length")
+                || (sha != null && sha.startsWith("STREAMING"));
+        return chunked ? decodeChunks(raw) : raw;
+    }
+
+    private static byte[] decodeChunks(byte[] raw) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < raw.length) {
+            int lineEnd = indexOfCrlf(raw, position);
+            String header = new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0].trim(), 16);
+            position = lineEnd + 2;
+            if (size == 0) {
+                break; // Les éventuels trailers (sommes de contrôle) suivent
+            }
+            content.write(raw, position, size);
+            position += size + 2;
+        }
+        return content.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] raw, int from) {
+        for (int i = from; i < raw.length - 1; i++) {
+            if (raw[i] == '\r' && raw[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return raw.length;
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new TreeMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int equals = pair.indexOf('=');
+                query.put(equals < 0 ? pair : pair.substring(0, equals), equals < 0 ? "" : pair.substring(equals + 1));
+            }
+        }
+        return query;
+    }
+
+    private static void xml(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void error(HttpExchange exchange, int status, String code) throws IOException {
+        byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?><Error><Code>" + code + "</Code><Message>" + code
+                + "</Message></Error>").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String etag(byte[] content) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
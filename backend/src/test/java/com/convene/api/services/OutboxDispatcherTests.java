@@ -0,0 +1,122 @@
+package com.convene.api.services;
+
+import com.convene.api.models.OutboxMessage;
+import com.convene.api.repositories.OutboxMessageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxDispatcherTests {
+
+    private final OutboxMessageRepository repository = mock(OutboxMessageRepository.class);
+    private final InMemoryOutboxSink sink = new InMemoryOutboxSink();
+    private final OutboxDispatcher dispatcher = new OutboxDispatcher(repository, List.of(sink), 4, 100, 3, 168, 30_000);
+
+    @AfterEach
+    void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void marksDeliveredMessagesSentAndSchedulesRetryForFailures() {
+        List<OutboxMessage> batch = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            batch.add(message(id));
+        }
+        when(repository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(eq(OutboxMessage.PENDING), any(), any()))
+                .thenReturn(batch);
+        sink.failOn(4L);
+
+        dispatcher.dispatchPending();
+
+        assertThat(sink.delivered()).hasSize(9);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> sent = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).markSent(sent.capture(), any());
+        assertThat(sent.getValue()).hasSize(9).doesNotContain(4L);
+        verify(repository).markFailed(eq(4L), eq(OutboxMessage.PENDING), any(LocalDateTime.class), anyString());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        OutboxMessage message = message(1L);
+        message.setAttempts(2);
+        when(repository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(eq(OutboxMessage.PENDING), any(), any()))
+                .thenReturn(List.of(message));
+        sink.failOn(1L);
+
+        dispatcher.dispatchPending();
+
+        verify(repository).markFailed(eq(1L), eq(OutboxMessage.FAILED), any(LocalDateTime.class), anyString());
+    }
+
+    @Test
+    void reschedulesMessagesStuckInAHungSink() {
+        CountDownLatch hung = new CountDownLatch(1);
+        OutboxSink blocking = new OutboxSink() {
+            @Override
+            public boolean supports(String type) {
+                return true;
+            }
+
+            @Override
+            public void deliver(OutboxMessage message) throws InterruptedException {
+                if (message.getId() == 2L) {
+                    hung.await();
+                }
+            }
+        };
+        OutboxDispatcher bounded = new OutboxDispatcher(repository, List.of(blocking), 4, 100, 3, 168, 200);
+        when(repository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(eq(OutboxMessage.PENDING), any(), any()))
+                .thenReturn(List.of(message(1L), message(2L)));
+
+        long start = System.nanoTime();
+        bounded.dispatchPending();
+
+        // Le thread planifié est rendu après le délai, le message bloqué est reprogrammé
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        verify(repository).markSent(argThat(ids -> ids.size() == 1 && ids.contains(1L)), any());
+        verify(repository).markFailed(eq(2L), eq(OutboxMessage.PENDING), any(LocalDateTime.class), contains("timed out"));
+        hung.countDown();
+        bounded.shutdown();
+    }
+
+    @Test
+    void purgesSentMessagesInBatchesUntilNoneAreLeft() {
+        when(repository.deleteSentBefore(any(), anyInt())).thenReturn(1000, 1000, 12);
+
+        dispatcher.purgeSent();
+
+        ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository, times(3)).deleteSentBefore(before.capture(), eq(1000));
+        assertThat(before.getValue()).isBefore(LocalDateTime.now().minusHours(167));
+    }
+
+    private OutboxMessage message(long id) {
+        OutboxMessage message = new OutboxMessage();
+        message.setId(id);
+        message.setType(Outbox.REGISTRATION_CONFIRMED);
+        message.setPayload("{}");
+        message.setNextAttemptAt(LocalDateTime.now());
+        return message;
+    }
+}
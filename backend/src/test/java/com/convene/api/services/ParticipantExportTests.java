@@ -0,0 +1,129 @@
+package com.convene.api.services;
+
+import com.convene.api.dtos.ParticipantDto;
+import com.convene.api.repositories.EventRepository;
+import com.convene.api.repositories.RegistrationRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ParticipantExportTests {
+
+    private static final LocalDateTime REGISTERED = LocalDateTime.of(2026, 3, 1, 9, 30);
+
+    private final RegistrationRepository registrationRepository = mock(RegistrationRepository.class);
+    private final ParticipantExport export = new ParticipantExport(registrationRepository, mock(EventRepository.class));
+
+    @Test
+    void writesCsvWithEscaping() throws Exception {
+        when(registrationRepository.streamParticipants(1L)).thenReturn(Stream.of(
+                new ParticipantDto(1L, "alice@example.com", "CONFIRMED", REGISTERED, null),
+                new ParticipantDto(2L, "\"bob\",jr@example.com", "HELD", REGISTERED, REGISTERED.plusMinutes(10)),
+                new ParticipantDto(3L, "=HYPERLINK(\"x\")@example.com", "CONFIRMED", REGISTERED, null)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(export.write(1L, ParticipantExport.Format.CSV, out)).isEqualTo(3);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                registration_id,email,status,registration_date,expires_at\r
+                1,alice@example.com,CONFIRMED,2026-03-01T09:30,\r
+                2,\"\"\"bob\"\",jr@example.com\",HELD,2026-03-01T09:30,2026-03-01T09:40\r
+                3,"'=HYPERLINK(""x"")@example.com",CONFIRMED,2026-03-01T09:30,\r
+                """);
+    }
+
+    @Test
+    void writesOneJsonObjectPerLine() throws Exception {
+        when(registrationRepository.streamParticipants(1L)).thenReturn(Stream.of(
+                new ParticipantDto(1L, "alice@example.com", "CONFIRMED", REGISTERED, null),
+                new ParticipantDto(2L, "bob\n@example.com", "HELD", REGISTERED, REGISTERED.plusMinutes(10))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        export.write(1L, ParticipantExport.Format.NDJSON, out);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(2);
+        JsonNode second = new ObjectMapper().readTree(lines.get(1));
+        assertThat(second.get("registrationId").asLong()).isEqualTo(2L);
+        assertThat(second.get("email").asText()).isEqualTo("bob\n@example.com");
+        assertThat(second.get("expiresAt").asText()).isEqualTo("2026-03-01T09:40");
+        assertThat(new ObjectMapper().readTree(lines.get(0)).get("expiresAt").isNull()).isTrue();
+        assertThatThrownBy(() -> ParticipantExport.Format.parse("xml")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void exportsHalfAMillionRegistrationsWithBoundedMemory() throws Exception {
+        int total = 500_000;
+        // Lignes produites à la demande, comme un curseur MySQL en streaming
+        when(registrationRepository.streamParticipants(1L)).thenReturn(LongStream.rangeClosed(1, total)
+                .mapToObj(id -> new ParticipantDto(id, "participant" + id + "@example.com", "CONFIRMED", REGISTERED, null)));
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        long[] peak = {0};
+        ByteArrayOutputStream sample = new ByteArrayOutputStream();
+
+        // Sortie compressée, dont on ne garde que le début (pour vérification) et la taille
+        CountingSink sink = new CountingSink(sample, 64 * 1024, () -> {
+            System.gc();
+            peak[0] = Math.max(peak[0], memory.getHeapMemoryUsage().getUsed() - before);
+        });
+        try (GZIPOutputStream gzip = new GZIPOutputStream(sink, 64 * 1024)) {
+            assertThat(export.write(1L, ParticipantExport.Format.CSV, gzip)).isEqualTo(total);
+        }
+
+        // Une liste de 500 000 inscriptions occuperait à elle seule plusieurs dizaines de Mo
+        assertThat(peak[0]).isLessThan(16L * 1024 * 1024);
+        assertThat(sink.count).isLessThan(10L * 1024 * 1024);
+        String head = new String(new GZIPInputStream(new ByteArrayInputStream(sample.toByteArray())).readNBytes(200),
+                StandardCharsets.UTF_8);
+        assertThat(head).startsWith("registration_id,email,status,registration_date,expires_at\r\n"
+                + "1,participant1@example.com,CONFIRMED,2026-03-01T09:30,\r\n");
+    }
+
+    // Compte les octets, garde les premiers et mesure la mémoire tous les 256 Ko écrits
+    private static final class CountingSink extends OutputStream {
+        private final ByteArrayOutputStream sample;
+        private final int sampleSize;
+        private final Runnable probe;
+        private long count;
+
+        private CountingSink(ByteArrayOutputStream sample, int sampleSize, Runnable probe) {
+            this.sample = sample;
+            this.sampleSize = sampleSize;
+            this.probe = probe;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (sample.size() < sampleSize) {
+                sample.write(b, off, Math.min(len, sampleSize - sample.size()));
+            }
+            if ((count + len) / (256 * 1024) != count / (256 * 1024)) {
+                probe.run();
+            }
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.convene.api.services;
+
+import com.convene.api.dtos.BatchRegistrationRequestDto;
+import com.convene.api.dtos.BatchRegistrationResponseDto;
+import com.convene.api.models.Event;
+import com.convene.api.models.Registration;
+import com.convene.api.repositories.EventRepository;
+import com.convene.api.repositories.RegistrationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RegistrationServiceTests {
+
+    private final RegistrationRepository registrationRepository = mock(RegistrationRepository.class);
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final SeatInventory seatInventory = new SeatInventory(eventRepository);
+    private final Outbox outbox = mock(Outbox.class);
+    private final RegistrationStats registrationStats = mock(RegistrationStats.class);
+    private final RegistrationService service = new RegistrationService(registrationRepository, eventRepository,
+            seatInventory, outbox, mock(WaitlistService.class), mock(SeatHoldExpirer.class), registrationStats);
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void publishEvent() {
+        Event event = new Event();
+        event.setId(1L);
+        when(eventRepository.getReferenceById(1L)).thenReturn(event);
+        when(registrationRepository.saveAndFlush(any())).thenAnswer(call -> {
+            Registration registration = call.getArgument(0);
+            registration.setId(ids.incrementAndGet());
+            return registration;
+        });
+        when(registrationRepository.saveAllAndFlush(any())).thenAnswer(call -> {
+            List<Registration> registrations = call.getArgument(0);
+            registrations.forEach(registration -> registration.setId(ids.incrementAndGet()));
+            return registrations;
+        });
+        seatInventory.reset(1L, 1);
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void refusesTheRegistrationAfterTheLastSeat() {
+        assertThat(service.registerUser("alice@example.com", 1L).getStatus()).isEqualTo("CONFIRMED");
+
+        assertThatThrownBy(() -> service.registerUser("bob@example.com", 1L))
+                .isInstanceOfSatisfying(RegistrationException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(RegistrationException.Reason.SOLD_OUT));
+        assertThat(seatInventory.available(1L)).isZero();
+    }
+
+    @Test
+    void reportsADuplicateAndGivesTheSeatBackOnRollback() {
+        doThrow(new DataIntegrityViolationException("uk_registration_event_participant"))
+                .when(registrationRepository).saveAndFlush(any());
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThatThrownBy(() -> service.registerUser("alice@example.com", 1L))
+                .isInstanceOfSatisfying(RegistrationException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(RegistrationException.Reason.ALREADY_REGISTERED));
+        assertThat(seatInventory.available(1L)).isZero();
+
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(seatInventory.available(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void cancellingAHoldIsNotCountedAsACancellation() {
+        Registration hold = new Registration();
+        hold.setStatus("HELD");
+        when(registrationRepository.findByParticipantEmailAndEventId("alice@example.com", 1L)).thenReturn(Optional.of(hold));
+        Registration confirmed = new Registration();
+        confirmed.setId(2L);
+        when(registrationRepository.findByParticipantEmailAndEventId("bob@example.com", 1L)).thenReturn(Optional.of(confirmed));
+
+        service.cancelRegistration("alice@example.com", 1L);
+        verify(registrationStats, never()).cancelled(anyLong(), anyInt());
+        verify(outbox, never()).record(any(), any(), any());
+
+        service.cancelRegistration("bob@example.com", 1L);
+        verify(registrationStats).cancelled(1L, 1);
+        verify(outbox).record(any(), any(), any());
+        assertThat(seatInventory.available(1L)).isEqualTo(3);
+    }
+
+    @Test
+    void registersAGroupUntilSoldOutWithEmailsInLowerCase() {
+        seatInventory.reset(1L, 3);
+        when(registrationRepository.findRegisteredEmails(1L, Set.of("alice@example.com", "bob@example.com",
+                "carol@example.com", "dave@example.com", "erin@example.com"))).thenReturn(Set.of("carol@example.com"));
+
+        BatchRegistrationResponseDto response = service.registerGroup(1L, List.of(" Alice@Example.com",
+                "alice@example.com", "BOB@example.com", "carol@example.com", "dave@example.com", "erin@example.com"),
+                BatchRegistrationRequestDto.Mode.PARTIAL);
+
+        assertThat(response.requested()).isEqualTo(5);
+        assertThat(response.registered()).isEqualTo(3);
+        assertThat(response.outcomes()).extracting(BatchRegistrationResponseDto.Outcome::email,
+                BatchRegistrationResponseDto.Outcome::status).containsExactly(
+                tuple("alice@example.com", BatchRegistrationResponseDto.Status.REGISTERED),
+                tuple("bob@example.com", BatchRegistrationResponseDto.Status.REGISTERED),
+                tuple("carol@example.com", BatchRegistrationResponseDto.Status.ALREADY_REGISTERED),
+                tuple("dave@example.com", BatchRegistrationResponseDto.Status.REGISTERED),
+                tuple("erin@example.com", BatchRegistrationResponseDto.Status.SOLD_OUT));
+        assertThat(seatInventory.available(1L)).isZero();
+    }
+
+    @Test
+    void refusesAWholeGroupThatDoesNotFit() {
+        when(registrationRepository.findRegisteredEmails(any(), any())).thenReturn(Set.of());
+
+        assertThatThrownBy(() -> service.registerGroup(1L, List.of("alice@example.com", "bob@example.com"),
+                BatchRegistrationRequestDto.Mode.ALL_OR_NOTHING))
+                .isInstanceOfSatisfying(RegistrationException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(RegistrationException.Reason.SOLD_OUT));
+        verify(registrationRepository, never()).saveAllAndFlush(any());
+        assertThat(seatInventory.available(1L)).isEqualTo(1);
+    }
+}
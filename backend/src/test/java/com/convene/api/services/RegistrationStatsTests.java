@@ -0,0 +1,117 @@
+package com.convene.api.services;
+
+import com.convene.api.dtos.EventStatsDto;
+import com.convene.api.models.RegistrationRollup;
+import com.convene.api.repositories.RegistrationRollupRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RegistrationStatsTests {
+
+    private static final long MINUTE = 60_000;
+
+    private final RegistrationRollupRepository rollupRepository = mock(RegistrationRollupRepository.class);
+    private final RegistrationStats stats = new RegistrationStats(rollupRepository);
+    // Deux heures après la création : la fenêtre du taux est complète
+    private final long now = System.currentTimeMillis() / MINUTE * MINUTE + 2 * 60 * MINUTE;
+
+    @Test
+    void computesRateFillAndProjectedSellOut() {
+        for (int i = 0; i < 60; i++) {
+            stats.record(1L, 1, i % 10 == 0 ? 1 : 0, now - i * MINUTE);
+        }
+        // Hors de la dernière heure : compté sur 24 heures seulement
+        stats.record(1L, 30, 0, now - 3 * 60 * MINUTE);
+        stats.record(1L, 500, 0, now - 30 * 60 * MINUTE);
+
+        EventStatsDto result = stats.stats(1L, 200, 54, now);
+        assertThat(result.registrationsPerHour()).isEqualTo(60);
+        assertThat(result.cancellationsPerHour()).isEqualTo(6);
+        assertThat(result.registeredLast24h()).isEqualTo(90);
+        assertThat(result.cancelledLast24h()).isEqualTo(6);
+        assertThat(result.fillPercentage()).isCloseTo(73, offset(1e-9));
+        // 54 places au rythme net de 54 par heure
+        assertThat(result.projectedSellOut()).isEqualTo(local(now + 60 * MINUTE));
+        assertThat(result.hourly()).hasSize(24);
+        assertThat(result.hourly().get(23).hour()).isEqualTo(local(now).truncatedTo(ChronoUnit.HOURS));
+        assertThat(result.soldOut()).isFalse();
+    }
+
+    @Test
+    void fallsBackToTheDailyRateAndHandlesQuietOrFullEvents() {
+        stats.record(1L, 48, 0, now - 5 * 60 * MINUTE);
+
+        // Rien dans l'heure : rythme de la journée (48 / 24 = 2 par heure)
+        assertThat(stats.stats(1L, 100, 10, now).projectedSellOut()).isEqualTo(local(now + 5 * 60 * MINUTE));
+        assertThat(stats.stats(1L, 100, 0, now).soldOut()).isTrue();
+        assertThat(stats.stats(1L, 100, 0, now).projectedSellOut()).isNull();
+
+        EventStatsDto unknown = stats.stats(2L, 100, 100, now);
+        assertThat(unknown.registrationsPerHour()).isZero();
+        assertThat(unknown.projectedSellOut()).isNull();
+        assertThat(unknown.hourly()).hasSize(24).allMatch(hour -> hour.registered() == 0);
+    }
+
+    @Test
+    void flushesPendingCountsOncePerHourAndKeepsThemOnFailure() {
+        long hour = now / (60 * MINUTE) * 60 * MINUTE;
+        stats.record(1L, 2, 0, hour + MINUTE);
+        stats.record(1L, 3, 1, hour + 2 * MINUTE);
+        stats.record(1L, 1, 0, hour - MINUTE);
+
+        stats.flush();
+        verify(rollupRepository).addCounts(1L, local(hour), 5, 1);
+        verify(rollupRepository).addCounts(1L, local(hour - 60 * MINUTE), 1, 0);
+        stats.flush();
+        verify(rollupRepository, times(2)).addCounts(any(), any(), anyInt(), anyInt());
+
+        stats.record(2L, 4, 0, hour);
+        when(rollupRepository.addCounts(2L, local(hour), 4, 0)).thenThrow(new IllegalStateException("MySQL indisponible"));
+        stats.flush();
+        stats.flush();
+        verify(rollupRepository, times(2)).addCounts(2L, local(hour), 4, 0);
+    }
+
+    @Test
+    void reloadsTheLastDayFromRollupsWithoutWritingItBack() {
+        long hour = System.currentTimeMillis() / (60 * MINUTE) * 60 * MINUTE;
+        RegistrationRollup rollup = new RegistrationRollup();
+        rollup.setEventId(1L);
+        rollup.setHourStart(local(hour - 60 * MINUTE));
+        rollup.setRegistered(12);
+        rollup.setCancelled(2);
+        when(rollupRepository.findByHourStartGreaterThanEqual(any())).thenReturn(List.of(rollup));
+
+        stats.load();
+        stats.record(1L, 1, 0, System.currentTimeMillis());
+        EventStatsDto result = stats.stats(1L, 100, 87, System.currentTimeMillis());
+        assertThat(result.registeredLast24h()).isEqualTo(13);
+        assertThat(result.cancelledLast24h()).isEqualTo(2);
+        assertThat(result.hourly().get(22).registered()).isEqualTo(12);
+
+        // Seule l'inscription faite depuis le démarrage est reportée
+        stats.flush();
+        verify(rollupRepository).addCounts(1L, result.hourly().get(23).hour(), 1, 0);
+        verify(rollupRepository, times(1)).addCounts(any(), any(), anyInt(), anyInt());
+        assertThat(Duration.between(rollup.getHourStart(), result.hourly().get(23).hour())).isEqualTo(Duration.ofHours(1));
+    }
+
+    private static LocalDateTime local(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,275 @@
+package com.convene.api.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class S3ServiceTests {
+
+    private static final int PART = 64 * 1024;
+
+    private final LocalS3Server s3 = new LocalS3Server();
+    private final S3AsyncClient client = client(true);
+
+    S3ServiceTests() throws IOException {
+    }
+
+    @AfterEach
+    void close() {
+        client.close();
+        s3.close();
+    }
+
+    @Test
+    void smallImageIsSentInOneRequest() throws Exception {
+        byte[] image = random(10_000);
+
+        String url = service(3, 8, Long.MAX_VALUE)
+                .uploadImageStream(new ByteArrayInputStream(image), "image/png", "photo.png", "events")
+                .get(10, TimeUnit.SECONDS);
+
+        assertThat(url).startsWith("https://bucket.s3.us-east-1.amazonaws.com/events/").endsWith(".png");
+        assertThat(s3.operations()).containsExactly("PutObject");
+        assertThat(s3.objects().get(key(url))).isEqualTo(image);
+    }
+
+    @Test
+    void largeImageIsSentInParallelParts() throws Exception {
+        byte[] image = random(16 * PART + 123);
+        s3.partDelay(30);
+
+        String url = service(3, 8, Long.MAX_VALUE)
+                .uploadImageStream(new ByteArrayInputStream(image), "image/jpeg", "photo.jpg", "events")
+                .get(10, TimeUnit.SECONDS);
+
+        assertThat(s3.objects().get(key(url))).isEqualTo(image);
+        assertThat(s3.operations()).filteredOn("UploadPart"::equals).hasSize(17);
+        assertThat(s3.operations()).contains("CreateMultipartUpload", "CompleteMultipartUpload")
+                .doesNotContain("PutObject", "AbortMultipartUpload");
+        assertThat(s3.maxPartsInProgress()).isBetween(2, 3);
+    }
+
+    @Test
+    void clientDisconnectAbortsTheUpload() throws IOException {
+        S3Service service = service(3, 4, Long.MAX_VALUE);
+        InputStream disconnecting = new FilterInputStream(new ByteArrayInputStream(random(10 * PART))) {
+            private int read;
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (read > 5 * PART) {
+                    throw new IOException("Connection reset by peer");
+                }
+                int count = super.read(buffer, offset, length);
+                read += Math.max(count, 0);
+                return count;
+            }
+        };
+
+        assertThatThrownBy(() -> service.uploadImageStream(disconnecting, "image/jpeg", "photo.jpg", "events"))
+                .isInstanceOf(IOException.class);
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            assertThat(s3.aborted()).hasSize(1);
+            assertThat(s3.pendingUploads()).isEmpty();
+        });
+        assertThat(s3.objects()).isEmpty();
+        assertBuffersReleased(service, 20 * PART);
+    }
+
+    @Test
+    void failedPartAbortsTheUpload() throws IOException {
+        S3Service service = service(2, 4, Long.MAX_VALUE);
+        s3.failFromPart(3);
+
+        assertThatThrownBy(() -> service.uploadImageStream(new ByteArrayInputStream(random(10 * PART)),
+                "image/jpeg", "photo.jpg", "events").join())
+                .isInstanceOf(CompletionException.class);
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(s3.aborted()).hasSize(1));
+        assertThat(s3.objects()).isEmpty();
+        s3.failFromPart(Integer.MAX_VALUE);
+        assertBuffersReleased(service, 20 * PART);
+    }
+
+    @Test
+    void rejectsOversizedStreamsAndNonImages() throws IOException {
+        S3Service service = service(2, 4, 3L * PART);
+
+        assertThatThrownBy(() -> service.uploadImageStream(new ByteArrayInputStream(random(5 * PART)),
+                "image/jpeg", "photo.jpg", "events"))
+                .isInstanceOf(IllegalArgumentException.class);
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(s3.aborted()).hasSize(1));
+
+        assertThatThrownBy(() -> service.uploadImageStream(new ByteArrayInputStream(random(100)),
+                "application/pdf", "doc.pdf", "events"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.uploadImageStream(InputStream.nullInputStream(),
+                "image/png", "empty.png", "events"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertBuffersReleased(service, 3 * PART);
+    }
+
+    @Test
+    void appliesTheFiveMegabyteRuleWhateverTheSettings() {
+        S3Service service = new S3Service(null, client, null, "bucket", "", "us-east-1", "", 8 * 1024 * 1024, 4, 16,
+                100 * 1024 * 1024, 600);
+
+        assertThatThrownBy(() -> service.uploadImageStream(new ByteArrayInputStream(random((int) S3Service.MAX_IMAGE_SIZE + 1)),
+                "image/jpeg", "photo.jpg", "events"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("File size must be less than 5MB");
+        assertThat(s3.objects()).isEmpty();
+    }
+
+    /**
+     * Envois simultanés d'images de 5 Mo : en flux par parties contre lecture complète puis un seul PutObject.
+     * Lancer avec -Dconvene.benchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "convene.benchmark", matches = "true")
+    void benchmarkConcurrentUploads() throws Exception {
+        // Le serveur ne garde pas les corps reçus : il ne peut plus renvoyer leur MD5
+        s3.discardContent();
+        int uploads = 16;
+        int size = (int) S3Service.MAX_IMAGE_SIZE;
+        try (S3AsyncClient client = client(false)) {
+            S3Service service = new S3Service(null, client, null, "bucket", "", "us-east-1", "", 1024 * 1024, 4, 16, Long.MAX_VALUE, 600);
+            for (int round = 0; round < 3; round++) {
+                run("En flux", uploads, size, in -> service.uploadImageStream(in, "image/jpeg", "photo.jpg", "events"));
+                run("Lecture complète", uploads, size, in -> {
+                    byte[] content = in.readAllBytes();
+                    return client.putObject(request -> request.bucket("bucket").key("events/full.jpg").contentType("image/jpeg"),
+                            AsyncRequestBody.fromBytes(content));
+                });
+            }
+        }
+    }
+
+    private interface Upload {
+        CompletableFuture<?> start(InputStream in) throws IOException;
+    }
+
+    private static void run(String label, int uploads, int size, Upload upload) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        long[] peak = {0};
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            // Mémoire vivante : collecte complète avant chaque relevé
+            while (running.get()) {
+                System.gc();
+                peak[0] = Math.max(peak[0], memory.getHeapMemoryUsage().getUsed() - before);
+                LockSupport.parkNanos(20_000_000);
+            }
+        });
+        sampler.start();
+
+        ExecutorService requests = Executors.newFixedThreadPool(uploads);
+        long start = System.nanoTime();
+        List<CompletableFuture<?>> done = new ArrayList<>();
+        for (int i = 0; i < uploads; i++) {
+            done.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    // Corps de requête lu par morceaux, comme une socket
+                    return upload.start(new SlowBody(size)).join();
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, requests));
+        }
+        CompletableFuture.allOf(done.toArray(CompletableFuture[]::new)).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        running.set(false);
+        sampler.join();
+        requests.shutdown();
+        System.out.printf(Locale.ROOT, "%s : %d x %d Mo en %.2f s (%.0f Mo/s), pic de tas ~%d Mo%n",
+                label, uploads, size >> 20, seconds, uploads * (size >> 20) / seconds, peak[0] >> 20);
+    }
+
+    private S3AsyncClient client(boolean checksumValidation) {
+        return S3AsyncClient.builder()
+                .endpointOverride(s3.endpoint())
+                .forcePathStyle(true)
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .serviceConfiguration(S3Configuration.builder().checksumValidationEnabled(checksumValidation).build())
+                .build();
+    }
+
+    private S3Service service(int partsInFlight, int maxBuffers, long maxSize) {
+        return new S3Service(null, client, null, "bucket", "", "us-east-1", "", PART, partsInFlight, maxBuffers, maxSize, 600);
+    }
+
+    // Un envoi qui prend toutes les parties à la fois ne se termine que si aucun tampon n'a été perdu
+    private void assertBuffersReleased(S3Service service, int size) throws IOException {
+        byte[] image = random(size);
+        String url = service.uploadImageStream(new ByteArrayInputStream(image), "image/jpeg", "photo.jpg", "events")
+                .orTimeout(10, TimeUnit.SECONDS).join();
+        assertThat(s3.objects().get(key(url))).isEqualTo(image);
+    }
+
+    private static String key(String url) {
+        return url.substring(url.indexOf("/events/") + 1);
+    }
+
+    private static byte[] random(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static final class SlowBody extends InputStream {
+        private int remaining;
+
+        private SlowBody(int size) {
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() {
+            return remaining-- > 0 ? 'x' : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int count = Math.min(Math.min(length, remaining), 16 * 1024);
+            Arrays.fill(buffer, offset, offset + count, (byte) 'x');
+            remaining -= count;
+            return count;
+        }
+    }
+}
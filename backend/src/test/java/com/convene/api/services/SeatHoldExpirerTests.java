@@ -0,0 +1,141 @@
+package com.convene.api.services;
+
+import com.convene.api.models.Event;
+import com.convene.api.models.Registration;
+import com.convene.api.repositories.EventRepository;
+import com.convene.api.repositories.RegistrationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SeatHoldExpirerTests {
+
+    private final RegistrationRepository registrationRepository = mock(RegistrationRepository.class);
+    private final WaitlistService waitlistService = mock(WaitlistService.class);
+    private final SeatInventory seatInventory = new SeatInventory(mock(EventRepository.class));
+    private final CommitRecorder transactions = new CommitRecorder();
+    private final SeatHoldExpirer expirer = new SeatHoldExpirer(registrationRepository, waitlistService, seatInventory,
+            new TransactionTemplate(transactions), 500, 10);
+
+    @Test
+    void drainsExpiredHoldsInBoundedBatches() throws Exception {
+        int holds = 200_000;
+        LocalDateTime past = LocalDateTime.now().minusSeconds(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int t = 0; t < 16; t++) {
+            int offset = t;
+            pool.execute(() -> {
+                for (long id = offset; id < holds; id += 16) {
+                    expirer.track(id, past);
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        Set<Long> expired = new HashSet<>();
+        while (expired.size() < holds) {
+            List<Long> batch = expirer.nextBatch();
+            assertThat(batch).hasSizeBetween(1, 500);
+            expired.addAll(batch);
+        }
+        assertThat(expired).hasSize(holds);
+    }
+
+    @Test
+    void keepsHoldsThatHaveNotExpired() throws Exception {
+        expirer.track(1L, LocalDateTime.now().plusMinutes(10));
+        expirer.track(2L, LocalDateTime.now().minusSeconds(1));
+
+        assertThat(expirer.nextBatch()).containsExactly(2L);
+    }
+
+    @Test
+    void deletesExpiredHoldsAndGivesTheSeatsToTheWaitlistFirst() {
+        seatInventory.reset(1L, 0);
+        List<Registration> expired = List.of(hold(1L), hold(2L));
+        when(registrationRepository.findByIdInAndStatusAndExpiresAtLessThanEqual(eq(List.of(1L, 2L)), eq("HELD"), any()))
+                .thenReturn(expired);
+        when(waitlistService.promote(1L, 2)).thenReturn(1);
+
+        expirer.process(List.of(1L, 2L));
+
+        verify(registrationRepository).deleteAllInBatch(expired);
+        // Une place promue, l'autre remise en stock, seulement une fois le commit fait
+        assertThat(transactions.availableAtCommit).containsExactly(0);
+        assertThat(seatInventory.available(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void retriesABatchWhoseTransactionFailed() throws Exception {
+        seatInventory.reset(1L, 0);
+        List<Registration> expired = List.of(hold(1L));
+        when(registrationRepository.findByIdInAndStatusAndExpiresAtLessThanEqual(eq(List.of(1L)), eq("HELD"), any()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(expired);
+
+        expirer.process(List.of(1L));
+        assertThat(seatInventory.available(1L)).isZero();
+
+        // Remis dans la file avec le délai de nouvel essai
+        List<Long> retried = expirer.nextBatch();
+        assertThat(retried).containsExactly(1L);
+        expirer.process(retried);
+
+        verify(registrationRepository).deleteAllInBatch(expired);
+        assertThat(seatInventory.available(1L)).isEqualTo(1);
+    }
+
+    private static Registration hold(Long id) {
+        Event event = new Event();
+        event.setId(1L);
+        Registration registration = new Registration();
+        registration.setId(id);
+        registration.setEvent(event);
+        registration.setStatus("HELD");
+        return registration;
+    }
+
+    // Transactions sans base, avec la synchronisation de Spring : relève le stock au moment du commit
+    private final class CommitRecorder extends AbstractPlatformTransactionManager {
+
+        private final List<Integer> availableAtCommit = new ArrayList<>();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            availableAtCommit.add(seatInventory.available(1L));
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
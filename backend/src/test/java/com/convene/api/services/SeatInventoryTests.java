@@ -0,0 +1,126 @@
+package com.convene.api.services;
+
+import com.convene.api.models.Event;
+import com.convene.api.repositories.EventRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SeatInventoryTests {
+
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final SeatInventory inventory = new SeatInventory(eventRepository);
+
+    @Test
+    void neverOversellsUnderConcurrentClaims() throws Exception {
+        Event event = new Event();
+        event.setId(1L);
+        event.setAvailableSeats(250);
+        event.setStatus("PUBLISHED");
+        when(eventRepository.findByIdAndStatus(1L, "PUBLISHED")).thenReturn(Optional.of(event));
+
+        int attempts = 5_000;
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger claimed = new AtomicInteger();
+        for (int i = 0; i < attempts; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (inventory.tryClaim(1L, 1)) {
+                    claimed.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(claimed.get()).isEqualTo(250);
+        assertThat(inventory.available(1L)).isZero();
+    }
+
+    @Test
+    void releasedSeatsCanBeClaimedAgainAndFlushAsOneConditionalUpdate() {
+        inventory.reset(7L, 2);
+
+        assertThat(inventory.tryClaim(7L, 2)).isTrue();
+        assertThat(inventory.tryClaim(7L, 1)).isFalse();
+        inventory.release(7L, 1);
+        assertThat(inventory.tryClaim(7L, 1)).isTrue();
+
+        inventory.flush();
+
+        verify(eventRepository).claimSeats(7L, 2);
+    }
+
+    @Test
+    void rebuildsFromRegistrationsWhenTheColumnMissedAFlush() {
+        // Arrêt brutal : 30 inscriptions enregistrées, colonne jamais décrémentée
+        when(eventRepository.findAllSeatCounts()).thenReturn(List.of(seatCount(3L, 100, 100, 30)));
+
+        inventory.rebuild();
+        assertThat(inventory.available(3L)).isEqualTo(70);
+
+        inventory.flush();
+        verify(eventRepository).claimSeats(3L, 30);
+    }
+
+    @Test
+    void resetAndResyncKeepClaimsNotYetFlushed() {
+        inventory.reset(7L, 10);
+        assertThat(inventory.tryClaim(7L, 3)).isTrue();
+
+        // L'organisateur ajoute des places : les 3 réservations restent décomptées et seront reportées
+        inventory.reset(7L, 20);
+        assertThat(inventory.available(7L)).isEqualTo(17);
+        when(eventRepository.claimSeats(7L, 3)).thenReturn(1);
+        inventory.flush();
+        verify(eventRepository).claimSeats(7L, 3);
+
+        // Report refusé (colonne modifiée hors de l'API) : on repart de la colonne, réservations comprises
+        Event event = new Event();
+        event.setId(7L);
+        event.setTotalSeats(20);
+        event.setAvailableSeats(8);
+        when(eventRepository.findByIdAndStatus(7L, "PUBLISHED")).thenReturn(Optional.of(event));
+        assertThat(inventory.tryClaim(7L, 4)).isTrue();
+        inventory.flush();
+
+        verify(eventRepository).claimSeats(7L, 4);
+        verify(eventRepository).overwriteSeats(7L, 4);
+        assertThat(inventory.available(7L)).isEqualTo(4);
+    }
+
+    @Test
+    void unknownEventIsNeitherTrackedNorClaimable() {
+        when(eventRepository.findByIdAndStatus(99L, "PUBLISHED")).thenReturn(Optional.empty());
+
+        assertThat(inventory.contains(99L)).isFalse();
+        assertThat(inventory.tryClaim(99L, 1)).isFalse();
+    }
+
+    private static EventRepository.SeatCount seatCount(Long id, int total, int available, long registrations) {
+        return new EventRepository.SeatCount() {
+            public Long getId() { return id; }
+            public Integer getTotalSeats() { return total; }
+            public Integer getAvailableSeats() { return available; }
+            public Long getRegistrations() { return registrations; }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.convene.api.services;
+
+import com.convene.api.dtos.EventSummaryDto;
+import com.convene.api.dtos.RegistrationDto;
+import com.convene.api.models.Event;
+import com.convene.api.models.Registration;
+import com.convene.api.repositories.EventRepository;
+import com.convene.api.repositories.RegistrationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WaitingRoomTests {
+
+    private final RegistrationRepository registrationRepository = mock(RegistrationRepository.class);
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final SeatInventory seatInventory = new SeatInventory(eventRepository);
+    private final RegistrationService registrationService = new RegistrationService(registrationRepository,
+            eventRepository, seatInventory, mock(Outbox.class), mock(WaitlistService.class),
+            mock(SeatHoldExpirer.class), mock(RegistrationStats.class));
+    private final WaitingRoom waitingRoom = new WaitingRoom(registrationService, seatInventory, 2, 1, 100, 10, 5_000);
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+
+    @BeforeEach
+    void publishEvent() {
+        // Proxy non initialisé, comme getReferenceById : seul l'id est lisible hors de la session
+        Event proxy = mock(Event.class, call -> {
+            throw new LazyInitializationException("could not initialize proxy [Event#1] - no Session");
+        });
+        doReturn(1L).when(proxy).getId();
+        when(eventRepository.getReferenceById(1L)).thenReturn(proxy);
+        when(eventRepository.findSummaries(eq(List.of(1L)), eq("PUBLISHED"))).thenReturn(List.of(
+                new EventSummaryDto(1L, "Concert", "Description", "Musique", null, null, LocalDate.of(2026, 6, 1),
+                        "Rabat", "Centre", 10, 10, "PUBLISHED", null, null)));
+        when(registrationRepository.saveAndFlush(any())).thenAnswer(call -> {
+            Registration registration = call.getArgument(0);
+            registration.setId(42L);
+            return registration;
+        });
+        seatInventory.reset(1L, 10);
+    }
+
+    @AfterEach
+    void close() {
+        waitingRoom.shutdown();
+    }
+
+    @Test
+    void answersWithARegistrationThatSerializesOutsideTheWorkerSession() throws Exception {
+        WaitingRoom.Ticket ticket = waitingRoom.enter(1L, "alice@example.com");
+
+        RegistrationDto registration = waitingRoom.await(ticket);
+
+        String body = json.writeValueAsString(registration);
+        assertThat(body).contains("\"id\":42").contains("\"title\":\"Concert\"").contains("\"availableSeats\":9");
+        // Même contenu pour le suivi par jeton (GET /api/registrations/queue/{token})
+        assertThat(ticket.getStatus()).isEqualTo(WaitingRoom.Status.CONFIRMED);
+        assertThat(json.writeValueAsString(ticket.getResult().join())).isEqualTo(body);
+    }
+
+    @Test
+    void keepsABusyRoomAndItsConcurrencyLimitThroughPurge() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        doAnswer(call -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            Registration registration = call.getArgument(0);
+            registration.setId(43L);
+            return registration;
+        }).when(registrationRepository).saveAndFlush(any());
+
+        WaitingRoom.Ticket first = waitingRoom.enter(1L, "alice@example.com");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        waitingRoom.purge();
+        WaitingRoom.Ticket second = waitingRoom.enter(1L, "bob@example.com");
+
+        // Toujours une seule inscription à la fois : le second attend derrière le premier
+        assertThat(waitingRoom.snapshot(1L)).isEqualTo(new WaitingRoom.RoomSnapshot(1L, 1, 100, 1, 1));
+        assertThat(second.getStatus()).isEqualTo(WaitingRoom.Status.WAITING);
+        assertThat(waitingRoom.position(second)).isEqualTo(1);
+
+        release.countDown();
+        assertThat(waitingRoom.await(first).id()).isEqualTo(43L);
+        assertThat(waitingRoom.await(second).id()).isEqualTo(43L);
+    }
+}
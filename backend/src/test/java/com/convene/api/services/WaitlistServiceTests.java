@@ -0,0 +1,141 @@
+package com.convene.api.services;
+
+import com.convene.api.models.Event;
+import com.convene.api.models.Registration;
+import com.convene.api.models.WaitlistEntry;
+import com.convene.api.repositories.EventRepository;
+import com.convene.api.repositories.RegistrationRepository;
+import com.convene.api.repositories.WaitlistEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WaitlistServiceTests {
+
+    private final WaitlistEntryRepository waitlistEntryRepository = mock(WaitlistEntryRepository.class);
+    private final RegistrationRepository registrationRepository = mock(RegistrationRepository.class);
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final SeatInventory seatInventory = new SeatInventory(eventRepository);
+    private final Outbox outbox = mock(Outbox.class);
+    private final RegistrationStats registrationStats = mock(RegistrationStats.class);
+    private final WaitlistService waitlist = new WaitlistService(waitlistEntryRepository, registrationRepository,
+            eventRepository, seatInventory, outbox, registrationStats);
+
+    @BeforeEach
+    void publishEvent() {
+        Event event = new Event();
+        event.setId(1L);
+        when(eventRepository.getReferenceById(1L)).thenReturn(event);
+        when(registrationRepository.save(any())).thenAnswer(call -> {
+            Registration registration = call.getArgument(0);
+            registration.setId(100L);
+            return registration;
+        });
+        seatInventory.reset(1L, 1);
+    }
+
+    @Test
+    void joinsOnlyOnceTheEventIsSoldOut() {
+        assertThatThrownBy(() -> waitlist.join("bob@example.com", 1L))
+                .isInstanceOfSatisfying(RegistrationException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(RegistrationException.Reason.SEATS_AVAILABLE));
+        assertThatThrownBy(() -> waitlist.join("bob@example.com", 2L))
+                .isInstanceOfSatisfying(RegistrationException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(RegistrationException.Reason.EVENT_NOT_FOUND));
+
+        assertThat(seatInventory.tryClaim(1L, 1)).isTrue();
+        when(waitlistEntryRepository.saveAndFlush(any())).thenAnswer(call -> {
+            WaitlistEntry entry = call.getArgument(0);
+            entry.setId(5L);
+            return entry;
+        });
+        when(waitlistEntryRepository.countByEventIdAndIdLessThan(1L, 5L)).thenReturn(2L);
+
+        assertThat(waitlist.join("bob@example.com", 1L)).isEqualTo(3);
+    }
+
+    @Test
+    void refusesASecondJoin() {
+        assertThat(seatInventory.tryClaim(1L, 1)).isTrue();
+        when(waitlistEntryRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("uk_waitlist_event_participant"));
+
+        assertThatThrownBy(() -> waitlist.join("bob@example.com", 1L))
+                .isInstanceOfSatisfying(RegistrationException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(RegistrationException.Reason.ALREADY_WAITLISTED));
+    }
+
+    @Test
+    void givesThePositionAndLeaves() {
+        WaitlistEntry entry = entry(5L, "bob@example.com");
+        when(waitlistEntryRepository.findByEventIdAndParticipantEmail(1L, "bob@example.com")).thenReturn(Optional.of(entry));
+        when(waitlistEntryRepository.countByEventIdAndIdLessThan(1L, 5L)).thenReturn(0L);
+
+        assertThat(waitlist.position("bob@example.com", 1L)).isEqualTo(1);
+        waitlist.leave("bob@example.com", 1L);
+        verify(waitlistEntryRepository).delete(entry);
+
+        assertThatThrownBy(() -> waitlist.position("carol@example.com", 1L))
+                .isInstanceOfSatisfying(RegistrationException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(RegistrationException.Reason.NOT_WAITLISTED));
+    }
+
+    @Test
+    void promotesTheFirstInLineWhenSomeoneCancels() {
+        RegistrationService registrations = new RegistrationService(registrationRepository, eventRepository,
+                seatInventory, outbox, waitlist, mock(SeatHoldExpirer.class), registrationStats);
+        assertThat(seatInventory.tryClaim(1L, 1)).isTrue();
+        Registration alice = new Registration();
+        alice.setId(1L);
+        when(registrationRepository.findByParticipantEmailAndEventId("alice@example.com", 1L)).thenReturn(Optional.of(alice));
+        WaitlistEntry bob = entry(5L, "bob@example.com");
+        when(waitlistEntryRepository.findByEventIdOrderByIdAsc(eq(1L), any())).thenReturn(List.of(bob));
+
+        registrations.cancelRegistration("alice@example.com", 1L);
+
+        ArgumentCaptor<Registration> promoted = ArgumentCaptor.forClass(Registration.class);
+        verify(registrationRepository).save(promoted.capture());
+        assertThat(promoted.getValue().getParticipantEmail()).isEqualTo("bob@example.com");
+        verify(waitlistEntryRepository).delete(bob);
+        verify(outbox).record(eq(Outbox.WAITLIST_PROMOTED), eq(1L), anyMap());
+        // La place est allée à bob, pas au stock
+        assertThat(seatInventory.available(1L)).isZero();
+    }
+
+    @Test
+    void fillsSeatsAddedByTheOrganizer() {
+        assertThat(seatInventory.tryClaim(1L, 1)).isTrue();
+        seatInventory.reset(1L, 3);
+        when(waitlistEntryRepository.countByEventId(1L)).thenReturn(2L);
+        when(waitlistEntryRepository.findByEventIdOrderByIdAsc(eq(1L), any()))
+                .thenReturn(List.of(entry(5L, "bob@example.com"), entry(6L, "carol@example.com")))
+                .thenReturn(List.of());
+
+        assertThat(waitlist.fill(1L)).isEqualTo(2);
+
+        verify(registrationRepository, times(2)).save(any());
+        verify(registrationStats).registered(1L, 2);
+        assertThat(seatInventory.available(1L)).isZero();
+    }
+
+    private static WaitlistEntry entry(Long id, String email) {
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setId(id);
+        entry.setEventId(1L);
+        entry.setParticipantEmail(email);
+        return entry;
+    }
+}
@@ -8,6 +8,7 @@ interface BackendEvent {
   description: string
   category?: string
   imageUrl?: string
+  imageSrcset?: string
   eventDate: string
   city: string
   address: string
@@ -47,6 +48,7 @@ export async function GET(_: Request, route: RouteParams) {
       description: event.description,
       category: event.category,
       imageUrl: event.imageUrl ?? "/placeholder.jpg",
+      imageSrcset: event.imageSrcset ?? undefined,
       date: event.eventDate,
       city: event.city,
       address: event.address,
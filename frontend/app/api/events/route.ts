@@ -8,6 +8,7 @@ interface BackendEvent {
   description: string
   category?: string
   imageUrl?: string
+  imageSrcset?: string
   eventDate: string
   city: string
   address: string
@@ -25,13 +26,23 @@ export async function GET(request: NextRequest) {
       }
     })
 
+    // Revalidation conditionnelle : le backend répond 304 sans rien recalculer si la liste n'a pas changé
+    const headers: Record<string, string> = { "Content-Type": "application/json" }
+    const ifNoneMatch = request.headers.get("if-none-match")
+    if (ifNoneMatch) {
+      headers["If-None-Match"] = ifNoneMatch
+    }
+
     const response = await fetch(url, {
-      headers: {
-        "Content-Type": "application/json",
-      },
+      headers,
       cache: "no-store",
     })
 
+    const etag = response.headers.get("etag")
+    if (response.status === 304) {
+      return new NextResponse(null, { status: 304, headers: cacheHeaders(etag) })
+    }
+
     if (!response.ok) {
       const errorText = await response.text()
       console.error("Backend events API error:", response.status, errorText)
@@ -46,6 +57,7 @@ export async function GET(request: NextRequest) {
       description: event.description,
       category: event.category,
       imageUrl: event.imageUrl ?? "/placeholder.jpg",
+      imageSrcset: event.imageSrcset ?? undefined,
       date: event.eventDate,
       city: event.city,
       address: event.address,
@@ -53,9 +65,14 @@ export async function GET(request: NextRequest) {
       remainingSeats: event.availableSeats,
     }))
 
-    return NextResponse.json({ events: normalized })
+    return NextResponse.json({ events: normalized }, { headers: cacheHeaders(etag) })
   } catch (error) {
     console.error("Events fetch error:", error)
     return NextResponse.json({ error: "Failed to fetch events" }, { status: 500 })
   }
 }
+
+// La réponse normalisée dépend uniquement de celle du backend : on réutilise son ETag
+function cacheHeaders(etag: string | null): HeadersInit {
+  return etag ? { ETag: etag, "Cache-Control": "no-cache" } : { "Cache-Control": "no-store" }
+}
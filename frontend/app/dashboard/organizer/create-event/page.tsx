@@ -60,30 +60,45 @@ export default function CreateEventPage() {
     setLoading(true)
     setError(null)
 
-    // Création de l'objet FormData pour envoyer fichier + données
-    const data = new FormData()
+    try {
+      // 1. L'image part directement vers S3 sur une URL signée par le backend (taille, type et SHA-256 inclus dans la signature)
+      let imageKey: string | undefined
+      if (eventImage) {
+        const digest = await crypto.subtle.digest("SHA-256", await eventImage.arrayBuffer())
+        const sha256 = Array.from(new Uint8Array(digest), (byte) => byte.toString(16).padStart(2, "0")).join("")
+        const presign = await axios.post("http://localhost:8080/api/images/presign", {
+          folder: "events",
+          filename: eventImage.name,
+          contentType: eventImage.type,
+          size: eventImage.size,
+          sha256,
+        })
+        // Sans URL d'envoi, la même image est déjà stockée (bannière d'un événement récurrent)
+        if (presign.data.uploadUrl) {
+          await axios.put(presign.data.uploadUrl, eventImage, { headers: presign.data.headers })
+        }
+        imageKey = presign.data.key
+      }
 
-    // 1. Ajout des données de l'événement (partie 'event')
-    // Le backend attend un JSON stringifié pour la partie "event"
-    const eventJson = JSON.stringify({
-        title: formData.title,
-        description: formData.description,
-        category: formData.category,
-        eventDate: formData.eventDate, // Format YYYY-MM-DD
-        // eventTime n'est pas dans le DTO Java, on l'ignore ou on l'ajoute si vous modifiez le Java
-        city: formData.city,
-        address: formData.address,
-        totalSeats: parseInt(formData.totalSeats),
-    });
+      // Création de l'objet FormData pour envoyer les données
+      const data = new FormData()
 
-    data.append("event", new Blob([eventJson], { type: "application/json" }))
+      // 2. Ajout des données de l'événement (partie 'event')
+      // Le backend attend un JSON stringifié pour la partie "event"
+      const eventJson = JSON.stringify({
+          title: formData.title,
+          description: formData.description,
+          category: formData.category,
+          eventDate: formData.eventDate, // Format YYYY-MM-DD
+          // eventTime n'est pas dans le DTO Java, on l'ignore ou on l'ajoute si vous modifiez le Java
+          city: formData.city,
+          address: formData.address,
+          totalSeats: parseInt(formData.totalSeats),
+          imageKey, // Le backend vérifie l'objet envoyé avant de l'attacher
+      });
 
-    // 2. Ajout de l'image (partie 'image')
-    if (eventImage) {
-      data.append("image", eventImage)
-    }
+      data.append("event", new Blob([eventJson], { type: "application/json" }))
 
-    try {
       // Envoi au Backend sur le port 8080
       const response = await axios.post("http://localhost:8080/api/events", data, {
         headers: {
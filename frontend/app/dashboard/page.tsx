@@ -26,7 +26,8 @@ interface Event {
 interface Registration {
   id: number;
   status: string;
-  event: Event;
+  registrationDate?: string;
+  event: Event; // Résumé de l'événement (champ "city", pas "locationCity")
 }
 
 export default function ParticipantDashboard() {
@@ -203,7 +204,7 @@ export default function ParticipantDashboard() {
                     <h3 className="text-xl font-bold">{reg.event.title}</h3>
                     <p className="text-muted-foreground flex items-center mt-1">
                       <Calendar className="w-4 h-4 mr-2" /> 
-                      {new Date(reg.event.eventDate).toLocaleDateString()} • {reg.event.locationCity || "Online"}
+                      {new Date(reg.event.eventDate).toLocaleDateString()} • {reg.event.city || reg.event.locationCity || "Online"}
                     </p>
                     <span className="inline-flex items-center mt-3 px-2.5 py-0.5 rounded-full text-xs font-medium bg-green-100 text-green-800">
                       Confirmed
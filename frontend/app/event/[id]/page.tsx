@@ -6,7 +6,7 @@ import { Navbar } from "@/components/navbar"
 import { Footer } from "@/components/footer"
 import { Button } from "@/components/ui/button"
 import { MapPin, Calendar, Users, Share2 } from "lucide-react"
-import { useEvent } from "@/lib/hooks/use-events"
+import { useEvent, useSeatAvailability } from "@/lib/hooks/use-events"
 import { useAuth } from "@/lib/hooks/use-auth" // Ajout du hook d'auth
 import Link from "next/link"
 
@@ -17,6 +17,7 @@ export default function EventDetailsPage() {
   
   // Récupération de l'événement et de l'utilisateur connecté
   const { event, isLoading } = useEvent(eventId)
+  const liveSeats = useSeatAvailability(eventId)
   const { user } = useAuth() 
   
   const [isRegistered, setIsRegistered] = useState(false)
@@ -65,8 +66,10 @@ export default function EventDetailsPage() {
     )
   }
 
-  const isFullyBooked = event.remainingSeats === 0
-  const seatPercentage = ((event.totalSeats - event.remainingSeats) / event.totalSeats) * 100
+  // Places poussées en direct par le backend, sinon la valeur chargée avec la fiche
+  const remainingSeats = liveSeats ?? event.remainingSeats
+  const isFullyBooked = remainingSeats === 0
+  const seatPercentage = ((event.totalSeats - remainingSeats) / event.totalSeats) * 100
 
   return (
     <div className="min-h-screen flex flex-col bg-background">
@@ -80,7 +83,13 @@ export default function EventDetailsPage() {
         <div className="max-w-4xl mx-auto px-4 py-8">
           {/* Event Image */}
           <div className="rounded-lg overflow-hidden mb-8 h-96 bg-muted">
-            <img src={event.imageUrl || "/placeholder.svg"} alt={event.title} className="w-full h-full object-cover" />
+            <img
+              src={event.imageUrl || "/placeholder.svg"}
+              srcSet={event.imageSrcset}
+              sizes="(min-width: 896px) 896px, 100vw"
+              alt={event.title}
+              className="w-full h-full object-cover"
+            />
           </div>
 
           {/* Event Title & Actions */}
@@ -131,7 +140,7 @@ export default function EventDetailsPage() {
                     ></div>
                   </div>
                   <p className="text-xs text-muted-foreground mt-2">
-                    {event.remainingSeats === 0 ? "Event is fully booked" : `Only ${event.remainingSeats} seats left!`}
+                    {remainingSeats === 0 ? "Event is fully booked" : `Only ${remainingSeats} seats left!`}
                   </p>
                 </div>
 
@@ -14,6 +14,7 @@
  * - remainingSeats: Number of available seats
  * - totalSeats: Total event capacity
  * - imageUrl: Event image URL
+ * - imageSrcset: Resized variants of the image (optional, the browser picks the smallest that fits)
  * - category: Event category (optional)
  */
 
@@ -30,6 +31,7 @@ interface EventCardProps {
   remainingSeats: number
   totalSeats: number
   imageUrl: string
+  imageSrcset?: string
   category?: string
 }
 
@@ -42,6 +44,7 @@ export function EventCard({
   remainingSeats,
   totalSeats,
   imageUrl,
+  imageSrcset,
   category,
 }: EventCardProps) {
   const isFullyBooked = remainingSeats === 0
@@ -58,6 +61,10 @@ export function EventCard({
       <div className="relative h-48 bg-muted overflow-hidden">
         <img
           src={imageUrl || "/placeholder.svg"}
+          srcSet={imageSrcset}
+          // One card per column: full width on mobile, half on tablets, a third on desktop
+          sizes="(min-width: 1024px) 33vw, (min-width: 768px) 50vw, 100vw"
+          loading="lazy"
           alt={title}
           className="w-full h-full object-cover hover:scale-105 transition-transform duration-300"
         />
@@ -5,10 +5,15 @@
  * Hooks:
  * - useEvents: Fetch multiple events with optional filters
  * - useEvent: Fetch single event details by ID
+ * - useSeatAvailability: Live remaining seats pushed by the backend (Server-Sent Events)
  */
 
+import { useEffect, useState } from "react"
 import useSWR from "swr"
 
+// The browser connects straight to the backend for the stream (the Next.js proxy would hold one request per viewer)
+const STREAM_BASE_URL = process.env.NEXT_PUBLIC_EVENTS_API_URL ?? "http://localhost:8080"
+
 /** Event data structure */
 interface Event {
   id: string
@@ -20,6 +25,7 @@ interface Event {
   remainingSeats: number
   totalSeats: number
   imageUrl: string
+  imageSrcset?: string
 }
 
 // SWR fetcher function for making API calls
@@ -76,3 +82,31 @@ export function useEvent(eventId: string) {
     error,
   }
 }
+
+/**
+ * Hook to follow the remaining seats of an event in real time
+ * The backend pushes a message on subscription and after each change (coalesced),
+ * and EventSource reconnects on its own if the connection drops
+ *
+ * @param eventId - The ID of the event to follow
+ * @returns Remaining seats, or null until the first message arrives
+ *
+ * Example:
+ * const remainingSeats = useSeatAvailability('event-123') ?? event.remainingSeats
+ */
+export function useSeatAvailability(eventId: string) {
+  const [availableSeats, setAvailableSeats] = useState<number | null>(null)
+
+  useEffect(() => {
+    if (!eventId) return
+    const source = new EventSource(`${STREAM_BASE_URL}/api/events/${eventId}/availability/stream`)
+    source.addEventListener("availability", (message) => {
+      setAvailableSeats(JSON.parse((message as MessageEvent).data).availableSeats)
+    })
+    // Event deleted or unpublished: stop reconnecting
+    source.addEventListener("closed", () => source.close())
+    return () => source.close()
+  }, [eventId])
+
+  return availableSeats
+}